@@ -0,0 +1,37 @@
+import { useCallback, useRef } from 'react'
+
+const HEADER = 'Idempotency-Key'
+
+const newKey = () => {
+  if (typeof crypto !== 'undefined' && typeof crypto.randomUUID === 'function') return crypto.randomUUID()
+  // http(비보안 컨텍스트)에서는 randomUUID가 없음
+  return `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}${Math.random().toString(36).slice(2)}`
+}
+
+// 쓰기 요청에 Idempotency-Key 헤더 붙이기
+// - 같은 작업(버튼 연타, 응답을 못 받은 재시도)은 같은 키 → 서버가 한 번만 실행하고 같은 응답을 돌려줌
+// - 응답을 받으면(성공/실패 모두) 키를 버림 → 다음 요청은 새 키
+// 사용: const withIdempotencyKey = useIdempotencyKey()
+//       await withIdempotencyKey(`save:${cd}`, (headers) => apiFetch(url, { method: 'POST', headers, body }))
+export function useIdempotencyKey() {
+  const keys = useRef(new Map())
+
+  return useCallback(async (action, send) => {
+    let key = keys.current.get(action)
+    if (!key) {
+      key = newKey()
+      keys.current.set(action, key)
+    }
+
+    let answered = true
+    try {
+      return await send({ [HEADER]: key })
+    } catch (e) {
+      // fetch는 네트워크 오류(응답 없음)일 때 TypeError → 결과를 모르므로 같은 키로 재시도
+      if (e instanceof TypeError) answered = false
+      throw e
+    } finally {
+      if (answered && keys.current.get(action) === key) keys.current.delete(action)
+    }
+  }, [])
+}
@@ -0,0 +1,57 @@
+import { useEffect, useRef } from 'react'
+
+const EVENTS_PATH = '/api/stocks/events'
+
+// 재고 변동 구독 (SSE, GET /api/stocks/events)
+// - onChange([{ itemCd, whCd, qtyDelta, allocDelta }]) : 커밋된 재고 증감 (짧은 주기 동안의 변동은 품목/창고별로 합산되어 옴)
+// - onResync() : 연결이 끊겼다가 다시 붙었을 때 (끊긴 동안의 변동은 오지 않으므로 화면에서 한 번 다시 조회)
+// - itemCds가 비어 있으면 전체 품목, enabled가 false면 연결하지 않음
+export function useStockEvents({ base = '', itemCds = [], enabled = true }, onChange, onResync) {
+  const onChangeRef = useRef(onChange)
+  const onResyncRef = useRef(onResync)
+  onChangeRef.current = onChange
+  onResyncRef.current = onResync
+
+  const itemKey = itemCds.filter(Boolean).join(',')
+
+  useEffect(() => {
+    if (!enabled || typeof EventSource === 'undefined') return
+
+    const query = itemKey ? `?itemCd=${encodeURIComponent(itemKey)}` : ''
+    const source = new EventSource(`${base}${EVENTS_PATH}${query}`)
+    let connected = false
+
+    // 연결될 때마다 서버가 'connected'를 보냄 → 두 번째부터는 재연결
+    source.addEventListener('connected', () => {
+      if (connected && onResyncRef.current) onResyncRef.current()
+      connected = true
+    })
+    source.addEventListener('stock', (e) => {
+      let changes
+      try {
+        changes = JSON.parse(e.data)
+      } catch (err) {
+        console.warn('재고 변동 이벤트 파싱 실패:', err)
+        return
+      }
+      if (Array.isArray(changes) && changes.length > 0 && onChangeRef.current) onChangeRef.current(changes)
+    })
+
+    return () => source.close()
+  }, [base, itemKey, enabled])
+}
+
+// (품목, 창고) 행 목록에 증감 반영 (없는 행은 accept(change)가 true일 때만 추가)
+export function applyStockChanges(rows, changes, accept = () => true) {
+  const next = rows.map((r) => ({ ...r }))
+  for (const c of changes) {
+    const row = next.find((r) => r.itemCd === c.itemCd && r.whCd === c.whCd)
+    if (row) {
+      row.stockQty = Number(row.stockQty ?? 0) + Number(c.qtyDelta ?? 0)
+      row.allocQty = Number(row.allocQty ?? 0) + Number(c.allocDelta ?? 0)
+    } else if (accept(c)) {
+      next.push({ itemCd: c.itemCd, whCd: c.whCd, stockQty: Number(c.qtyDelta ?? 0), allocQty: Number(c.allocDelta ?? 0) })
+    }
+  }
+  return next
+}
@@ -4,13 +4,14 @@ import IconButton from '../components/IconButton'
 import SearchBar from '../components/SearchBar'
 import Pagination from '../components/Pagination'
 import { useLocation } from 'react-router-dom'
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey'
 
 const API_BASE = "" // vite proxy 사용: "/api" 그대로 호출
 
 async function apiFetch(path, options = {}) {
   const res = await fetch(`${API_BASE}${path}`, {
-    headers: { "Content-Type": "application/json", ...(options.headers || {}) },
     ...options,
+    headers: { "Content-Type": "application/json", ...(options.headers || {}) },
   })
   if (!res.ok) {
     let msg = ""
@@ -25,6 +26,8 @@ async function apiFetch(path, options = {}) {
 
 function 발주관리() {
     const location = useLocation();
+  // 저장 / 확정 / 취소 요청 중복 방지 (Idempotency-Key)
+  const withIdempotencyKey = useIdempotencyKey()
   // 발주 목록 (TB_PURCHASE)
   const [orderList, setOrderList] = useState([])
 
@@ -464,10 +467,11 @@ function 발주관리() {
 
     try {
       // ✅ 백엔드에서 실제 저장된 발주번호 응답(JSON: { purchaseCd: "P2026..." })
-      const saved = await apiFetch("/api/purchase", {
+      const saved = await withIdempotencyKey(`save:${payload.purchaseCd || ''}`, (headers) => apiFetch("/api/purchase", {
         method: "POST",
+        headers,
         body: JSON.stringify(payload)
-      });
+      }));
 
       // ✅ 팝업에서 사용할 정보(발주번호/담당자/금액) 먼저 저장
       setCompletionInfo({
@@ -543,10 +547,11 @@ function 발주관리() {
         }))
       }
 
-      await apiFetch("/api/purchase", {
+      await withIdempotencyKey(`confirm:${payload.purchaseCd || ''}`, (headers) => apiFetch("/api/purchase", {
         method: "POST",
+        headers,
         body: JSON.stringify(payload)
-      })
+      }))
 
       await refreshPurchaseList()
 
@@ -607,10 +612,11 @@ function 발주관리() {
         }))
       }
 
-      await apiFetch("/api/purchase", {
+      await withIdempotencyKey(`cancel:${payload.purchaseCd || ''}`, (headers) => apiFetch("/api/purchase", {
         method: "POST",
+        headers,
         body: JSON.stringify(payload)
-      })
+      }))
 
       await refreshPurchaseList()
 
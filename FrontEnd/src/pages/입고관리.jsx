@@ -3,6 +3,8 @@ import '../css/pages/management-common.css'
 import IconButton from '../components/IconButton'
 import SearchBar from '../components/SearchBar'
 import Pagination from '../components/Pagination'
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey'
+import { useStockEvents, applyStockChanges } from '../hooks/useStockEvents'
 
 const API_BASE = 'http://localhost:8080'
 
@@ -10,6 +12,9 @@ function 입고관리() {
   // =========================
   // State
   // =========================
+  // 입고 저장 요청 중복 방지 (Idempotency-Key)
+  const withIdempotencyKey = useIdempotencyKey()
+
   const [purchaseList, setPurchaseList] = useState([])
   const [selectedPurchaseCd, setSelectedPurchaseCd] = useState(null)
   const [selectedPurchase, setSelectedPurchase] = useState(null)
@@ -250,6 +255,7 @@ function 입고관리() {
       if (!res.ok) throw new Error(await res.text())
       const data = await res.json()
       const mapped = (Array.isArray(data) ? data : []).map((s) => ({
+        itemCd: s?.id?.itemCd ?? itemCd,
         whCd: s?.id?.whCd ?? '',
         stockQty: Number(s?.stockQty ?? 0),
         allocQty: Number(s?.allocQty ?? 0),
@@ -261,6 +267,14 @@ function 입고관리() {
     }
   }
 
+  // 모달이 열려 있는 동안 해당 품목의 재고 변동을 받아 창고별 재고에 반영 (SSE)
+  const modalItemCd = showWarehouseModal ? modalDetail?.itemCd : null
+  useStockEvents(
+    { base: API_BASE, itemCds: [modalItemCd], enabled: !!modalItemCd },
+    (changes) => setStockByWh((prev) => applyStockChanges(prev, changes, (c) => c.itemCd === modalItemCd)),
+    () => fetchStockByItem(modalItemCd)
+  )
+
   // =========================
   // Effects
   // =========================
@@ -435,11 +449,13 @@ function 입고관리() {
     }
 
     try {
-      const res = await fetch(`${API_BASE}/api/purchase`, {
-        method: 'POST',
-        headers: { 'Content-Type': 'application/json' },
-        body: JSON.stringify(payload),
-      })
+      const res = await withIdempotencyKey(`inbound:${selectedPurchase.purchaseCd}`, (headers) =>
+        fetch(`${API_BASE}/api/purchase`, {
+          method: 'POST',
+          headers: { 'Content-Type': 'application/json', ...headers },
+          body: JSON.stringify(payload),
+        })
+      )
 
       if (!res.ok) {
         const msg = await res.text()
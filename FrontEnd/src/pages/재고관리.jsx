@@ -2,6 +2,7 @@ import React, { useEffect, useMemo, useState } from "react";
 import { useNavigate, useLocation } from "react-router-dom";
 import "../css/pages/management-common.css";
 import "../css/pages/재고관리.css";
+import { useStockEvents, applyStockChanges } from "../hooks/useStockEvents";
 
 const API_BASE = "http://localhost:8080";
 
@@ -161,6 +162,30 @@ export default function 재고관리() {
     }
   };
 
+  // 재고 변동은 서버에서 밀어줌 (SSE) → 총재고 / 선택한 품목·창고의 재고 현황에 증감만 반영
+  useStockEvents(
+    { base: API_BASE },
+    (changes) => {
+      setItemTotalStockMap((prev) => {
+        const next = { ...prev };
+        changes.forEach((c) => {
+          next[c.itemCd] = safeNum(next[c.itemCd]) + safeNum(c.qtyDelta);
+        });
+        return next;
+      });
+      if (!selectedTarget) return;
+      setStockList((prev) =>
+        applyStockChanges(prev, changes, (c) =>
+          viewMode === "ITEM" ? c.itemCd === selectedTarget.itemCd : c.whCd === selectedTarget.whCd
+        )
+      );
+    },
+    () => {
+      fetchTotalStocks();
+      if (selectedTarget) fetchStockList(selectedTarget, viewMode);
+    }
+  );
+
   // -------------------------
   // Tabs / Search / Reset
   // -------------------------
@@ -202,28 +227,11 @@ export default function 재고관리() {
     setInfoEdit({ val1: "", val2: "", remark: "" });
   };
 
-  const handleRowClick = async (target) => {
-    setSelectedTarget(target);
-
-    // ✅ 상세 입력 세팅
-    if (viewMode === "ITEM") {
-      setInfoEdit({
-        val1: target.minQty ?? "",
-        val2: target.maxQty ?? "",
-        remark: target.remark ?? "",
-      });
-    } else {
-      setInfoEdit({
-        val1: target.whType ?? "",
-        val2: target.useFlag ?? "Y",
-        remark: target.remark ?? "",
-      });
-    }
-
-    // ✅ 1) 재고 현황 (ITEM: 창고별 / WH: 보유 품목)
+  // 재고 현황 (ITEM: 창고별 / WH: 보유 품목)
+  const fetchStockList = async (target, mode) => {
     try {
       let url = `${API.stocks}?size=1000`;
-      if (viewMode === "ITEM") url += `&itemCd=${encodeURIComponent(target.itemCd)}`;
+      if (mode === "ITEM") url += `&itemCd=${encodeURIComponent(target.itemCd)}`;
       else url += `&whCd=${encodeURIComponent(target.whCd)}`;
 
       const r = await fetch(url);
@@ -242,7 +250,7 @@ export default function 재고관리() {
       setStockList(mapped);
     } catch (e) {
       // fallback sample
-      if (viewMode === "ITEM") {
+      if (mode === "ITEM") {
         setStockList([
           { itemCd: target.itemCd, whCd: "WH001", stockQty: 250, allocQty: 50 },
           { itemCd: target.itemCd, whCd: "WH002", stockQty: 150, allocQty: 30 },
@@ -256,6 +264,28 @@ export default function 재고관리() {
         ]);
       }
     }
+  };
+
+  const handleRowClick = async (target) => {
+    setSelectedTarget(target);
+
+    // ✅ 상세 입력 세팅
+    if (viewMode === "ITEM") {
+      setInfoEdit({
+        val1: target.minQty ?? "",
+        val2: target.maxQty ?? "",
+        remark: target.remark ?? "",
+      });
+    } else {
+      setInfoEdit({
+        val1: target.whType ?? "",
+        val2: target.useFlag ?? "Y",
+        remark: target.remark ?? "",
+      });
+    }
+
+    // ✅ 1) 재고 현황 (ITEM: 창고별 / WH: 보유 품목)
+    await fetchStockList(target, viewMode);
 
     // ✅ 2) 입출고 이력 (ITEM 기준 or WH 기준)
     try {
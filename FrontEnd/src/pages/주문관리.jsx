@@ -4,13 +4,14 @@ import IconButton from '../components/IconButton'
 import SearchBar from '../components/SearchBar'
 import Pagination from '../components/Pagination'
 import { useLocation } from 'react-router-dom'
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey'
 
 const API_BASE = "" // vite proxy 사용: "/api" 그대로 호출
 
 async function apiFetch(path, options = {}) {
   const res = await fetch(`${API_BASE}${path}`, {
-    headers: { "Content-Type": "application/json", ...(options.headers || {}) },
     ...options,
+    headers: { "Content-Type": "application/json", ...(options.headers || {}) },
   })
   if (!res.ok) {
     let msg = ""
@@ -25,6 +26,8 @@ async function apiFetch(path, options = {}) {
 
 function 주문관리() {
     const location = useLocation();
+    // 저장 / 확정 / 취소 요청 중복 방지 (Idempotency-Key)
+    const withIdempotencyKey = useIdempotencyKey()
     // 주문 목록 (TB_ORDER)
     const [orderList, setOrderList] = useState([])
 
@@ -469,10 +472,11 @@ function 주문관리() {
 
         try {
             // ✅ 백엔드에서 실제 저장된 주문번호 응답(JSON: { orderCd: "O2026..." })
-            const saved = await apiFetch("/api/order", {
+            const saved = await withIdempotencyKey(`save:${payload.orderCd || ''}`, (headers) => apiFetch("/api/order", {
                 method: "POST",
+                headers,
                 body: JSON.stringify(payload)
-            });
+            }));
 
             // ✅ 팝업에서 사용할 정보(주문번호/담당자/금액) 먼저 저장
             setCompletionInfo({
@@ -543,10 +547,11 @@ function 주문관리() {
                 }))
             }
 
-            await apiFetch("/api/order", {
+            await withIdempotencyKey(`confirm:${payload.orderCd || ''}`, (headers) => apiFetch("/api/order", {
                 method: "POST",
+                headers,
                 body: JSON.stringify(payload)
-            })
+            }))
 
             await refreshOrderList()
 
@@ -606,10 +611,11 @@ function 주문관리() {
                 }))
             }
 
-            await apiFetch("/api/order", {
+            await withIdempotencyKey(`cancel:${payload.orderCd || ''}`, (headers) => apiFetch("/api/order", {
                 method: "POST",
+                headers,
                 body: JSON.stringify(payload)
-            })
+            }))
 
             await refreshOrderList()
 
@@ -3,11 +3,16 @@ import '../css/pages/management-common.css'
 import IconButton from '../components/IconButton'
 import SearchBar from '../components/SearchBar'
 import Pagination from '../components/Pagination'
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey'
+import { useStockEvents, applyStockChanges } from '../hooks/useStockEvents'
 
 const API_BASE = 'http://localhost:8080'
 
 function 출고관리() {
   // ========= 유틸 =========
+  // 출고 요청 중복 방지 (Idempotency-Key)
+  const withIdempotencyKey = useIdempotencyKey()
+
   const safeText = (v) => (v === null || v === undefined || v === '' ? '-' : String(v))
   const toYmd = (v) => (!v ? '' : String(v).slice(0, 10))
 
@@ -17,10 +22,10 @@ function 출고관리() {
     return res.json()
   }
 
-  const apiPost = async (url, body) => {
+  const apiPost = async (url, body, headers = {}) => {
     const res = await fetch(`${API_BASE}${url}`, {
       method: 'POST',
-      headers: { 'Content-Type': 'application/json' },
+      headers: { 'Content-Type': 'application/json', ...headers },
       body: JSON.stringify(body),
     })
     if (!res.ok) {
@@ -135,15 +140,6 @@ function 출고관리() {
     }
   }
 
-  const detailToPayload = (detail) => ({
-    id: { orderCd: detail.ORDER_CD, seqNo: detail.SEQ_NO },
-    itemCd: detail.ITEM_CD,
-    orderQty: detail.ORDER_QTY,
-    whCd: detail.whCd ?? detail.WH_CD ?? null,
-    status: detail.status ?? detail.STATUS ?? 'o2',
-    remark: detail.remark ?? detail.REMARK ?? null,
-  })
-
   // ========= 주문 목록 로딩 =========
   useEffect(() => {
     ;(async () => {
@@ -284,32 +280,38 @@ function 출고관리() {
   const handleSave = async () => {
     if (!selectedOrderCd || !orderHeader) return
 
-    // 저장할 때만: pending -> whCd 반영, status o3로 저장
-    const payloadDetails = currentDetails.map((d) => {
-      const whCd = d.PENDING_WAREHOUSE ? d.PENDING_WAREHOUSE : d.WAREHOUSE || null
-      const status = whCd ? 'o3' : d.STATUS_CODE || 'o2'
-
-      return detailToPayload({
-        ...d,
-        whCd,
-        status,
-      })
-    })
-
-    const payload = {
-      orderCd: orderHeader.ORDER_CD,
-      orderDt: orderHeader.ORDER_DT,
-      custCd: orderHeader.CUST_CD,
-      custEmp: orderHeader.CUST_EMP,
-      remark: orderHeader.REMARK,
-      details: payloadDetails,
+    // 창고가 정해진 출고대기(o2) 라인만 출고 처리 (재고 차감 + o3 전환은 서버 출고 API에서)
+    const lines = currentDetails
+      .filter((d) => d.STATUS_CODE === 'o2' && (d.PENDING_WAREHOUSE || d.WAREHOUSE))
+      .map((d) => ({
+        orderCd: d.ORDER_CD,
+        seqNo: d.SEQ_NO,
+        itemCd: d.ITEM_CD,
+        fromWhCd: d.PENDING_WAREHOUSE || d.WAREHOUSE,
+        qty: d.ORDER_QTY,
+      }))
+    if (lines.length === 0) {
+      alert('출고할 라인이 없습니다. 창고를 선택하세요.')
+      return
     }
 
     try {
-      await apiPost('/api/order', payload)
+      const result = await withIdempotencyKey(`ship:${selectedOrderCd}`, (headers) =>
+        apiPost('/api/inout/out/bulk', { lines }, headers)
+      )
       await loadOrder(selectedOrderCd)
       setHasUnsavedChanges(false)
-      alert('저장 완료')
+
+      // 라인별 결과 (재고 부족 / 이미 출고된 라인 등은 실패로 돌아옴)
+      const failed = (result?.lines ?? []).filter((l) => !l.success)
+      if (failed.length > 0) {
+        alert(
+          `출고 ${result.successCount}건 완료, ${failed.length}건 실패\n` +
+            failed.map((l) => `${l.refCd}-${l.refSeq}: ${l.message}`).join('\n')
+        )
+      } else {
+        alert('저장 완료')
+      }
     } catch (e) {
       console.error(e)
       alert('저장 실패 (콘솔 확인)')
@@ -327,7 +329,7 @@ function 출고관리() {
         const stockQty = Number(s?.stockQty ?? 0)
         const allocQty = Number(s?.allocQty ?? 0)
         const availQty = Number(stockQty - allocQty)
-        return { whCd, stockQty, allocQty, availQty }
+        return { itemCd, whCd, stockQty, allocQty, availQty }
       })
       .filter((x) => x.whCd)
       .sort((a, b) => String(a.whCd).localeCompare(String(b.whCd), 'ko'))
@@ -335,6 +337,19 @@ function 출고관리() {
     return options
   }
 
+  // 창고 선택 모달이 열려 있는 동안 해당 품목의 재고 변동을 받아 창고별 재고/가용에 반영 (SSE)
+  const modalItemCd = showWarehouseModal ? selectedDetailForWarehouse?.ITEM_CD : null
+  useStockEvents(
+    { base: API_BASE, itemCds: [modalItemCd], enabled: !!modalItemCd },
+    (changes) =>
+      setWarehouseOptions((prev) =>
+        applyStockChanges(prev, changes, (c) => c.itemCd === modalItemCd)
+          .map((w) => ({ ...w, availQty: w.stockQty - w.allocQty }))
+          .sort((a, b) => String(a.whCd).localeCompare(String(b.whCd), 'ko'))
+      ),
+    () => fetchWarehousesByItem(modalItemCd).then(setWarehouseOptions).catch(() => {})
+  )
+
   const handleOpenWarehouseModal = async (detail) => {
     if (!detail) return
     if (detail.isLocked || detail.STATUS_CODE === 'o3') return
@@ -0,0 +1,202 @@
+package com.example.sms.config;
+
+import com.example.sms.service.IdempotencyStore;
+import com.example.sms.service.IdempotencyStore.Begin;
+import com.example.sms.service.IdempotencyStore.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Idempotency-Key 헤더가 있는 쓰기 요청(POST/PUT/PATCH/DELETE /api/**) 중복 처리
+ * - 같은 키로 다시 오면 처음 응답을 그대로 돌려줌 (응답 헤더 Idempotent-Replayed: true)
+ * - 처음 요청이 아직 처리 중이면 끝날 때까지 기다렸다가 같은 응답 (더블클릭 / 타임아웃 재시도)
+ * - 같은 키로 본문이 다른 요청이 오면 422
+ * - 2xx 응답만 보관 (컨트롤러가 일시적인 오류도 400으로 돌려주므로, 실패 응답은 보관하지 않고 재시도 시 다시 실행)
+ * - 헤더가 없는 요청은 기존과 동일하게 처리
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final IdempotencyStore store;
+
+    @Value("${sms.idempotency.max-request-bytes:1048576}")
+    private int maxRequestBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String key = request.getHeader(KEY_HEADER);
+        return key == null || key.isBlank()
+                || !WRITE_METHODS.contains(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            writeText(response, HttpServletResponse.SC_BAD_REQUEST, KEY_HEADER + " 길이는 " + MAX_KEY_LENGTH + "자 이하여야 합니다.");
+            return;
+        }
+        String method = request.getMethod();
+        String uri = request.getRequestURI() + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        String keyHash = sha256((method + " " + uri + "\n" + key).getBytes(StandardCharsets.UTF_8));
+
+        // JSON 본문은 미리 읽어 해시 (같은 키로 다른 요청이 오는 것 방지), multipart / form / 큰 본문은 비교하지 않음
+        byte[] body = null;
+        HttpServletRequest req = request;
+        if (isHashable(request)) {
+            body = request.getInputStream().readAllBytes();
+            req = new CachedBodyRequest(request, body);
+        }
+        String requestHash = body == null ? null : sha256(body);
+
+        Begin begin = store.begin(keyHash);
+        switch (begin.state()) {
+            case REPLAY -> {
+                StoredResponse stored = begin.response();
+                if (stored.requestHash() != null && requestHash != null && !stored.requestHash().equals(requestHash)) {
+                    writeText(response, 422, "같은 " + KEY_HEADER + "로 다른 내용의 요청이 들어왔습니다.");
+                    return;
+                }
+                replay(response, stored);
+            }
+            case IN_PROGRESS -> writeText(response, HttpServletResponse.SC_CONFLICT, "같은 요청을 처리 중입니다. 잠시 후 다시 시도하세요.");
+            case EXECUTE -> execute(req, response, chain, keyHash, method, uri, requestHash);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         String keyHash, String method, String uri, String requestHash) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapped = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            chain.doFilter(request, wrapped);
+            // 2xx가 아닌 응답 / 비동기 응답은 저장하지 않음 (재시도 시 다시 실행)
+            if (isStorable(wrapped.getStatus()) && !request.isAsyncStarted()) {
+                stored = new StoredResponse(wrapped.getStatus(), wrapped.getContentType(), wrapped.getContentAsByteArray(), requestHash);
+            }
+        } finally {
+            store.complete(keyHash, method, uri, stored);
+            wrapped.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isStorable(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    private static void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) response.setContentType(stored.contentType());
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private static void writeText(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getOutputStream().write(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean isHashable(HttpServletRequest request) {
+        String ct = request.getContentType() == null ? "" : request.getContentType().toLowerCase();
+        if (ct.startsWith("multipart/") || ct.startsWith("application/x-www-form-urlencoded")) return false;
+        long length = request.getContentLengthLong();
+        return length <= maxRequestBytes && (length >= 0 || ct.isEmpty()); // 길이를 모르는 본문(chunked)은 비교하지 않음
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 미리 읽은 본문을 컨트롤러에서 다시 읽을 수 있도록 감싸기
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String enc = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    enc != null ? Charset.forName(enc) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
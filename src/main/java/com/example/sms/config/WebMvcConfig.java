@@ -12,6 +12,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000") // 리액트 주소
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(IdempotencyFilter.REPLAYED_HEADER)
                 .allowCredentials(true) // 🍪 쿠키(JSESSIONID) 허용 필수
                 .maxAge(3600);
     }
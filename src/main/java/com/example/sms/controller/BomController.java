@@ -5,6 +5,7 @@ import com.example.sms.entity.BomMst;
 import com.example.sms.entity.ItemMst;
 import com.example.sms.repository.BomRepository;
 import com.example.sms.repository.ItemRepository;
+import com.example.sms.service.BomExplodeService;
 import com.example.sms.service.LogService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +21,7 @@ public class BomController {
     private final BomRepository bomRepository;
     private final ItemRepository itemRepository;
     private final LogService logService;
+    private final BomExplodeService bomExplodeService;
 
     private static final String MENU_NAME = "BOM 관리";
 
@@ -44,6 +46,7 @@ public class BomController {
 
         // 3. 저장 (JPA가 알아서 Insert/Update 수행)
         BomMst saved = bomRepository.save(bomMst);
+        bomExplodeService.invalidateOnCommit(saved.getPItemCd());
 
         // 4. [로그용] 이름 조회 (제품명, 자재명)
         String pItemNm = itemRepository.findById(saved.getPItemCd())
@@ -80,6 +83,7 @@ public class BomController {
 
         // 3. 삭제
         bomRepository.delete(target);
+        bomExplodeService.invalidateOnCommit(pItemCd);
 
         // 4. 로그 저장
         String targetInfo = pItemNm + " (자재: " + sItemNm + ")";
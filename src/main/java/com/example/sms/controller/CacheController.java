@@ -0,0 +1,53 @@
+package com.example.sms.controller;
+
+import com.example.sms.service.IdempotencyStore;
+import com.example.sms.service.ItemSearchIndex;
+import com.example.sms.service.MasterCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final MasterCacheService masterCacheService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final IdempotencyStore idempotencyStore;
+
+    // 마스터 캐시 현황 (적중/미적중/제거 건수)
+    @GetMapping("/stats")
+    public ResponseEntity<List<Map<String, Object>>> stats() {
+        return ResponseEntity.ok(masterCacheService.stats());
+    }
+
+    // 전체 비우기 (DB를 직접 수정한 경우 등)
+    @PostMapping("/clear")
+    public ResponseEntity<Void> clear() {
+        masterCacheService.invalidateAll();
+        return ResponseEntity.ok().build();
+    }
+
+    // 품목 검색 인덱스 현황
+    @GetMapping("/item-search/stats")
+    public ResponseEntity<Map<String, Object>> itemSearchStats() {
+        return ResponseEntity.ok(itemSearchIndex.stats());
+    }
+
+    // Idempotency-Key 저장소 현황 (재응답/대기 합류 건수 등)
+    @GetMapping("/idempotency/stats")
+    public ResponseEntity<Map<String, Object>> idempotencyStats() {
+        return ResponseEntity.ok(idempotencyStore.stats());
+    }
+
+    // 품목 검색 인덱스 재구성 (DB를 직접 수정한 경우 등)
+    @PostMapping("/item-search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildItemSearch() {
+        itemSearchIndex.rebuild();
+        return ResponseEntity.ok(itemSearchIndex.stats());
+    }
+}
@@ -3,6 +3,7 @@ package com.example.sms.controller;
 import com.example.sms.entity.CustMst;
 import com.example.sms.repository.CustRepository;
 import com.example.sms.service.LogService;
+import com.example.sms.service.MasterCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +17,7 @@ public class CustController {
 
     private final CustRepository custRepository;
     private final LogService logService;
+    private final MasterCacheService masterCacheService;
 
     private static final String MENU_NAME = "거래처 관리";
 
@@ -70,6 +72,7 @@ public class CustController {
         String actionType = exists ? "수정" : "등록";
 
         CustMst saved = custRepository.save(cust);
+        masterCacheService.invalidateCustOnCommit(saved.getCustCd());
 
         // 로그: 메뉴명, 행위, 키, 이름
         logService.saveLog(MENU_NAME, actionType, saved.getCustCd(), saved.getCustNm());
@@ -84,6 +87,7 @@ public class CustController {
                 .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 거래처입니다."));
 
         custRepository.delete(target);
+        masterCacheService.invalidateCustOnCommit(custCd);
         logService.saveLog(MENU_NAME, "삭제", target.getCustCd(), target.getCustNm());
 
         return ResponseEntity.ok().build();
@@ -1,21 +1,26 @@
 package com.example.sms.controller;
 
+import com.example.sms.dto.CursorPageDto;
 import com.example.sms.dto.ItemResponseDto;
 import com.example.sms.entity.ItemMst;
-import com.example.sms.entity.ItemTypeMst;
 import com.example.sms.repository.ItemRepository;
-import com.example.sms.repository.ItemTypeRepository;
+import com.example.sms.service.BomExplodeService;
+import com.example.sms.service.ItemSearchIndex;
+import com.example.sms.service.ItemTypeHierarchy;
 import com.example.sms.service.LogService;
+import com.example.sms.service.MasterCacheService;
+import com.example.sms.service.ReplenishmentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.function.Function;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,26 +29,32 @@ import java.util.stream.Collectors;
 public class ItemController {
 
     private final ItemRepository itemRepository;
-    private final ItemTypeRepository itemTypeRepository;
+    private final ItemTypeHierarchy itemTypeHierarchy;
     private final LogService logService;
+    private final BomExplodeService bomExplodeService;
+    private final MasterCacheService masterCacheService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ReplenishmentService replenishmentService;
 
     private static final String MENU_NAME = "품목 관리";
+    private static final int MAX_PAGE_SIZE = 500;
+    // 목록 페이지 조회에서 선택/정렬 가능한 필드 (typePath는 선택만 가능)
+    private static final List<String> ROW_FIELDS = List.of("itemCd", "itemNm", "itemFlag", "itemSpec", "itemUnit",
+            "itemCost", "minQty", "maxQty", "remark", "typeCd", "typePath");
 
     // ✅ 발주관리 자재팝업용: 자재(ITEM_FLAG=01)만 조회
     // GET /api/item/materials
     @GetMapping("/materials")
     public List<ItemResponseDto> getMaterials() {
 
-        // 분류 경로 표시도 같이 하려면 typeMap 필요
-        List<ItemTypeMst> allTypes = itemTypeRepository.findAll();
-        Map<String, ItemTypeMst> typeMap = allTypes.stream()
-                .collect(Collectors.toMap(ItemTypeMst::getTypeCd, Function.identity()));
+        // 분류 경로는 계층 스냅샷에서 (분류 조회 없음)
+        ItemTypeHierarchy.Snapshot types = itemTypeHierarchy.snapshot();
 
         List<ItemMst> items = itemRepository.findByItemFlag("01");
 
         return items.stream()
                 .map(item -> {
-                    String path = buildTypePath(item.getTypeCd(), typeMap);
+                    String path = types.path(item.getTypeCd());
                     return ItemResponseDto.fromEntity(item, path);
                 })
                 .collect(Collectors.toList());
@@ -54,16 +65,14 @@ public class ItemController {
     @GetMapping("/products")
     public List<ItemResponseDto> getProducts() {
 
-        // 분류 경로 표시도 같이 하려면 typeMap 필요
-        List<ItemTypeMst> allTypes = itemTypeRepository.findAll();
-        Map<String, ItemTypeMst> typeMap = allTypes.stream()
-                .collect(Collectors.toMap(ItemTypeMst::getTypeCd, Function.identity()));
+        // 분류 경로는 계층 스냅샷에서 (분류 조회 없음)
+        ItemTypeHierarchy.Snapshot types = itemTypeHierarchy.snapshot();
 
         List<ItemMst> items = itemRepository.findByItemFlag("02");
 
         return items.stream()
                 .map(item -> {
-                    String path = buildTypePath(item.getTypeCd(), typeMap);
+                    String path = types.path(item.getTypeCd());
                     return ItemResponseDto.fromEntity(item, path);
                 })
                 .collect(Collectors.toList());
@@ -73,12 +82,11 @@ public class ItemController {
     @GetMapping
     public List<ItemResponseDto> getItemList(
             @RequestParam(required = false, defaultValue = "") String searchText,
-            @RequestParam(required = false) String typeCd
+            @RequestParam(required = false) String typeCd,
+            @RequestParam(defaultValue = "200") int limit
     ) {
-        // 1. 모든 분류 정보 로딩 (경로 표시용)
-        List<ItemTypeMst> allTypes = itemTypeRepository.findAll();
-        Map<String, ItemTypeMst> typeMap = allTypes.stream()
-                .collect(Collectors.toMap(ItemTypeMst::getTypeCd, Function.identity()));
+        // 1. 분류 계층 스냅샷 (경로 표시 / 하위 분류 펼치기용, 분류 조회 없음)
+        ItemTypeHierarchy.Snapshot types = itemTypeHierarchy.snapshot();
 
         List<ItemMst> items;
 
@@ -87,30 +95,96 @@ public class ItemController {
             if (searchText.isEmpty()) {
                 items = itemRepository.findAll();
             } else {
-                items = itemRepository.searchByText(searchText);
+                items = itemSearchIndex.search(searchText, null, limit); // 검색어는 인덱스로 (상위 limit건, 일치도 순)
             }
         }
         // Case B: 분류 필터가 있을 때
         else {
-            List<String> targetTypeCds = new ArrayList<>();
-            collectSubTypesInMemory(allTypes, typeCd, targetTypeCds);
+            List<String> targetTypeCds = types.subtreeCodes(typeCd);
 
             if (searchText.isEmpty()) {
                 items = itemRepository.findByTypeCdIn(targetTypeCds);
             } else {
-                items = itemRepository.searchByTypesAndText(targetTypeCds, searchText);
+                items = itemSearchIndex.search(searchText, targetTypeCds, limit);
             }
         }
 
         // 2. DTO 변환 (분류 경로 포함)
         return items.stream()
                 .map(item -> {
-                    String path = buildTypePath(item.getTypeCd(), typeMap);
+                    String path = types.path(item.getTypeCd());
                     return ItemResponseDto.fromEntity(item, path);
                 })
                 .collect(Collectors.toList());
     }
 
+    // 1-1. 목록 페이지 조회 (필요한 컬럼만 조회, 전체 목록 대신 사용)
+    // - itemFlag: 01(자재) / 02(제품) / 없으면 전체, typeCd: 하위 분류 포함
+    // - fields: 응답에 담을 필드 (쉼표 구분, 없으면 전체)
+    // - cursor 또는 keyset=true: 품목코드 순 커서 조회 (COUNT 없음, withCount=true면 전체 건수 포함)
+    // - 그 외: page/size/sort 조회 (sort는 ROW_FIELDS 중 typePath 제외)
+    @GetMapping("/page")
+    public ResponseEntity<?> getItemPage(
+            @RequestParam(required = false) String itemFlag,
+            @RequestParam(required = false) String typeCd,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean withCount,
+            Pageable pageable
+    ) {
+        try {
+            ItemTypeHierarchy.Snapshot types = itemTypeHierarchy.snapshot();
+            String flag = itemFlag == null || itemFlag.isBlank() ? null : itemFlag;
+            boolean allTypes = typeCd == null || typeCd.isBlank();
+            List<String> typeCds = allTypes ? List.of("") : types.subtreeCodes(typeCd);
+            List<String> selected = selectFields(fields);
+            int limit = Math.max(1, Math.min(pageable.isPaged() ? pageable.getPageSize() : 50, MAX_PAGE_SIZE));
+
+            if (cursor == null && !keyset) {
+                Page<ItemRepository.ItemRowView> page = itemRepository.findRows(flag, allTypes, typeCds,
+                        PageRequest.of(pageable.isPaged() ? pageable.getPageNumber() : 0, limit, rowSort(pageable.getSort())));
+                return ResponseEntity.ok(page.map(r -> toRow(r, selected, types)));
+            }
+
+            String cursorCd = cursor == null || cursor.isBlank() ? null : CursorPageDto.decodeCursor(cursor)[1];
+            List<ItemRepository.ItemRowView> rows = itemRepository.seekRows(flag, allTypes, typeCds, cursorCd, Limit.of(limit + 1));
+            boolean hasNext = rows.size() > limit;
+            if (hasNext) rows = rows.subList(0, limit);
+
+            return ResponseEntity.ok(CursorPageDto.<Map<String, Object>>builder()
+                    .content(rows.stream().map(r -> toRow(r, selected, types)).toList())
+                    .size(limit)
+                    .hasNext(hasNext)
+                    .nextCursor(hasNext ? CursorPageDto.encodeCursor(null, rows.get(rows.size() - 1).getItemCd()) : null)
+                    .totalCount(withCount ? itemRepository.countRows(flag, allTypes, typeCds) : null)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // 자재/제품 팝업 페이지 조회 (사용법은 /page와 동일)
+    @GetMapping("/materials/page")
+    public ResponseEntity<?> getMaterialPage(@RequestParam(required = false) String typeCd,
+                                             @RequestParam(required = false) String fields,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "false") boolean keyset,
+                                             @RequestParam(defaultValue = "false") boolean withCount,
+                                             Pageable pageable) {
+        return getItemPage("01", typeCd, fields, cursor, keyset, withCount, pageable);
+    }
+
+    @GetMapping("/products/page")
+    public ResponseEntity<?> getProductPage(@RequestParam(required = false) String typeCd,
+                                            @RequestParam(required = false) String fields,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "false") boolean keyset,
+                                            @RequestParam(defaultValue = "false") boolean withCount,
+                                            Pageable pageable) {
+        return getItemPage("02", typeCd, fields, cursor, keyset, withCount, pageable);
+    }
+
     // 2. 저장 (기존 그대로)
     @PostMapping
     public ResponseEntity<ItemMst> saveItem(@RequestBody ItemMst item) {
@@ -121,6 +195,9 @@ public class ItemController {
         String actionType = exists ? "수정" : "등록";
 
         ItemMst saved = itemRepository.save(item);
+        masterCacheService.invalidateItemOnCommit(saved.getItemCd());
+        itemSearchIndex.upsertOnCommit(saved);
+        replenishmentService.markChangedOnCommit(List.of(saved.getItemCd())); // 최소/최대재고 수정 → 재주문점 재평가
         logService.saveLog(MENU_NAME, actionType, saved.getItemCd(), saved.getItemNm());
 
         return ResponseEntity.ok(saved);
@@ -134,33 +211,58 @@ public class ItemController {
                 .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 품목입니다."));
 
         itemRepository.delete(target);
+        bomExplodeService.invalidateOnCommit(itemCd); // 이 품목이 포함된 BOM 전개 캐시 제거
+        masterCacheService.invalidateItemOnCommit(itemCd);
+        itemSearchIndex.removeOnCommit(itemCd);
         logService.saveLog(MENU_NAME, "삭제", target.getItemCd(), target.getItemNm());
 
         return ResponseEntity.ok().build();
     }
 
     // --- Helper Methods ---
-    private String buildTypePath(String currentTypeCd, Map<String, ItemTypeMst> typeMap) {
-        if (currentTypeCd == null || !typeMap.containsKey(currentTypeCd)) return "-";
-        List<String> pathNames = new ArrayList<>();
-        ItemTypeMst current = typeMap.get(currentTypeCd);
-        while (current != null) {
-            pathNames.add(0, current.getTypeNm());
-            if (current.getParent() != null) {
-                current = typeMap.get(current.getParent().getTypeCd());
-            } else {
-                current = null;
+    private static List<String> selectFields(String fields) {
+        if (fields == null || fields.isBlank()) return ROW_FIELDS;
+        List<String> selected = new ArrayList<>();
+        for (String f : fields.split(",")) {
+            String name = f.trim();
+            if (name.isEmpty()) continue;
+            if (!ROW_FIELDS.contains(name)) throw new IllegalArgumentException("선택할 수 없는 필드입니다: " + name);
+            if (!selected.contains(name)) selected.add(name);
+        }
+        return selected.isEmpty() ? ROW_FIELDS : selected;
+    }
+
+    // 허용된 필드만 정렬에 사용, 마지막에 품목코드를 붙여 페이지 간 순서 고정
+    private static Sort rowSort(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order o : sort) {
+            if (!ROW_FIELDS.contains(o.getProperty()) || "typePath".equals(o.getProperty())) {
+                throw new IllegalArgumentException("정렬할 수 없는 필드입니다: " + o.getProperty());
             }
+            orders.add(o);
         }
-        return String.join(" > ", pathNames);
+        if (orders.stream().noneMatch(o -> "itemCd".equals(o.getProperty()))) orders.add(Sort.Order.asc("itemCd"));
+        return Sort.by(orders);
     }
 
-    private void collectSubTypesInMemory(List<ItemTypeMst> allTypes, String currentCd, List<String> result) {
-        result.add(currentCd);
-        for (ItemTypeMst type : allTypes) {
-            if (type.getParent() != null && Objects.equals(type.getParent().getTypeCd(), currentCd)) {
-                collectSubTypesInMemory(allTypes, type.getTypeCd(), result);
+    private static Map<String, Object> toRow(ItemRepository.ItemRowView r, List<String> fields, ItemTypeHierarchy.Snapshot types) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String f : fields) {
+            switch (f) {
+                case "itemCd" -> row.put(f, r.getItemCd());
+                case "itemNm" -> row.put(f, r.getItemNm());
+                case "itemFlag" -> row.put(f, r.getItemFlag());
+                case "itemSpec" -> row.put(f, r.getItemSpec());
+                case "itemUnit" -> row.put(f, r.getItemUnit());
+                case "itemCost" -> row.put(f, r.getItemCost());
+                case "minQty" -> row.put(f, r.getMinQty());
+                case "maxQty" -> row.put(f, r.getMaxQty());
+                case "remark" -> row.put(f, r.getRemark());
+                case "typeCd" -> row.put(f, r.getTypeCd());
+                case "typePath" -> row.put(f, types.path(r.getTypeCd()));
+                default -> { }
             }
         }
+        return row;
     }
 }
@@ -1,18 +1,21 @@
 package com.example.sms.controller;
 
+import com.example.sms.dto.CursorPageDto;
+import com.example.sms.dto.InboundBulkReq;
 import com.example.sms.dto.ItemInOutDto;
+import com.example.sms.dto.OutboundBulkReq;
 import com.example.sms.dto.StockHistoryDto;
-import com.example.sms.entity.OrderDetMst;
-import com.example.sms.entity.PurchaseDetMst;
 import com.example.sms.service.ItemInOutService;
 import com.example.sms.service.OrderService;
 import com.example.sms.service.PurchaseService;
+import com.example.sms.service.StatusCounterService;
+import com.example.sms.service.StatusCounterService.DocType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -26,31 +29,32 @@ public class ItemInOutController {
     private final ItemInOutService itemInOutService;
     private final PurchaseService purchaseService;
     private final OrderService orderService;
+    private final StatusCounterService statusCounterService;
 
-    // ✅ [수정] 정렬 파라미터(sort) 추가 및 서비스로 전달
+    // ✅ 입출고 통합 목록 (정렬/페이징은 DB에서 처리)
+    // GET /api/inout?sort=DESC&page=0&size=50            → offset 방식
+    // GET /api/inout?sort=DESC&size=50&cursor={nextCursor} → 이전 응답의 nextCursor로 다음 페이지
     @GetMapping
-    public ResponseEntity<List<ItemInOutDto>> getList(
-            @RequestParam(defaultValue = "DESC") String sort
+    public ResponseEntity<CursorPageDto<ItemInOutDto>> getList(
+            @RequestParam(defaultValue = "DESC") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor
     ) {
-        return ResponseEntity.ok(itemInOutService.getInOutList(sort));
+        return ResponseEntity.ok(itemInOutService.getInOutList(sort, page, size, cursor));
     }
 
     // 1. 입고 대기 목록 (발주 확정 건) 조회
-    // ✅ [수정] 프론트엔드에서 보내는 sort 파라미터 처리 (간단한 정렬 로직 추가)
+    // ✅ 상태 인덱스로 p2 라인만 조회, 정렬(발주번호 → 순번)은 DB에서
+    // size를 주면 페이지(Page)로, 없으면 기존처럼 전체 목록
     @GetMapping("/waiting-purchase")
-    public ResponseEntity<List<PurchaseDetMst>> getWaitingPurchases(
-            @RequestParam(defaultValue = "DESC") String sort
+    public ResponseEntity<?> getWaitingPurchases(
+            @RequestParam(defaultValue = "DESC") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size
     ) {
-        List<PurchaseDetMst> list = purchaseService.getWaitingForInboundList();
-
-        // (선택) 여기서도 정렬이 필요하다면 간단히 ID(발주번호) 순으로 정렬
-        if ("DESC".equalsIgnoreCase(sort)) {
-            list.sort(Comparator.comparing((PurchaseDetMst d) -> d.getId().getPurchaseCd()).reversed());
-        } else {
-            list.sort(Comparator.comparing(d -> d.getId().getPurchaseCd()));
-        }
-
-        return ResponseEntity.ok(list);
+        if (size != null) return ResponseEntity.ok(purchaseService.getWaitingForInboundPage(sort, page, size));
+        return ResponseEntity.ok(purchaseService.getWaitingForInboundList(sort));
     }
 
     // 2. 발주 건 -> 입고 처리 (확정)
@@ -73,22 +77,39 @@ public class ItemInOutController {
         }
     }
 
+    // 2-1. 발주 건 일괄 입고 (발주 전체 또는 라인 목록, 한 트랜잭션)
+    @PostMapping("/in/bulk")
+    public ResponseEntity<?> registerInboundBulk(@RequestBody InboundBulkReq req) {
+        try {
+            return ResponseEntity.ok(itemInOutService.registerInboundBulk(req));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.badRequest().body("오류 발생: " + e.getMessage());
+        }
+    }
+
     // 3. 출고 대기 목록 (주문 확정 건) 조회
-    // ✅ [수정] sort 파라미터 추가
+    // ✅ 상태 인덱스로 o2 라인만 조회, 정렬(주문번호 → 순번)은 DB에서
     @GetMapping("/waiting-order")
-    public ResponseEntity<List<OrderDetMst>> getWaitingOrders(
-            @RequestParam(defaultValue = "DESC") String sort
+    public ResponseEntity<?> getWaitingOrders(
+            @RequestParam(defaultValue = "DESC") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size
     ) {
-        List<OrderDetMst> list = orderService.getWaitingForOutboundList();
-
-        // (선택) ID(주문번호) 순 정렬
-        if ("DESC".equalsIgnoreCase(sort)) {
-            list.sort(Comparator.comparing((OrderDetMst d) -> d.getId().getOrderCd()).reversed());
-        } else {
-            list.sort(Comparator.comparing(d -> d.getId().getOrderCd()));
-        }
+        if (size != null) return ResponseEntity.ok(orderService.getWaitingForOutboundPage(sort, page, size));
+        return ResponseEntity.ok(orderService.getWaitingForOutboundList(sort));
+    }
 
-        return ResponseEntity.ok(list);
+    // 3-1. 작업 대기열 깊이 (대시보드용, 메모리 카운터 조회)
+    // GET /api/inout/queues → { inbound: 입고대기(p2) 건수, outbound: 출고대기(o2) 건수, purchase: {상태: 건수}, order: {...} }
+    @GetMapping("/queues")
+    public ResponseEntity<Map<String, Object>> getQueueDepths() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("inbound", statusCounterService.count(DocType.PURCHASE, "p2"));
+        body.put("outbound", statusCounterService.count(DocType.ORDER, "o2"));
+        body.put("purchase", statusCounterService.counts(DocType.PURCHASE));
+        body.put("order", statusCounterService.counts(DocType.ORDER));
+        return ResponseEntity.ok(body);
     }
 
     // 4. 주문 건 -> 출고 처리 (확정)
@@ -111,6 +132,17 @@ public class ItemInOutController {
         }
     }
 
+    // 4-1. 주문 라인 일괄 출고 (라인별 성공/실패 결과 반환)
+    @PostMapping("/out/bulk")
+    public ResponseEntity<?> registerOutboundBulk(@RequestBody OutboundBulkReq req) {
+        try {
+            return ResponseEntity.ok(itemInOutService.registerOutboundBulk(req));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.badRequest().body("오류 발생: " + e.getMessage());
+        }
+    }
+
     // 5. 재고 이력 조회 (재고관리 화면 우측)
     @GetMapping("/history")
     public ResponseEntity<List<StockHistoryDto>> getHistory(
@@ -3,13 +3,23 @@ package com.example.sms.controller;
 import com.example.sms.entity.ItemStock;
 import com.example.sms.entity.ItemStockId;
 import com.example.sms.repository.ItemStockRepository;
+import com.example.sms.service.StockEventBus;
+import com.example.sms.service.StockReconcileService;
+import com.example.sms.service.StockSnapshotService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -17,6 +27,9 @@ import java.math.BigDecimal;
 public class ItemStockController {
 
     private final ItemStockRepository itemStockRepository;
+    private final StockSnapshotService stockSnapshotService;
+    private final StockReconcileService stockReconcileService;
+    private final StockEventBus stockEventBus;
 
     // 목록 + 필터 + 페이징
     // GET /api/stocks?itemCd=ITEM001&whCd=WH001&page=0&size=20
@@ -130,6 +143,53 @@ public class ItemStockController {
         return itemStockRepository.summary();
     }
 
+    // ✅ 시점 재고 (일별 체크포인트 + 이후 이력)
+// GET /api/stocks/as-of?asOf=2025-01-01T00:00:00&whCd=WH01
+    @GetMapping("/as-of")
+    public StockSnapshotService.AsOfResult asOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+            @RequestParam(required = false) String itemCd,
+            @RequestParam(required = false) String whCd) {
+        return stockSnapshotService.stockAsOf(asOf, itemCd, whCd);
+    }
+
+    // ✅ 체크포인트 (재)생성 - from 없으면 마지막 체크포인트 다음 날부터, to 없으면 전일까지
+// POST /api/stocks/snapshots/build?from=2025-01-01
+    @PostMapping("/snapshots/build")
+    public StockSnapshotService.BuildResult buildSnapshots(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return stockSnapshotService.buildUpTo(to, from);
+    }
+
+    // ✅ 재고 ↔ 수불부 정합성 점검 (fix=true면 차이만큼 ADJUST 이력 생성)
+// POST /api/stocks/reconcile?fix=false
+    @PostMapping("/reconcile")
+    public StockReconcileService.ReconcileResult reconcile(@RequestParam(defaultValue = "false") boolean fix) {
+        return stockReconcileService.run(fix);
+    }
+
+    // ✅ 마지막 정합성 점검 결과
+// GET /api/stocks/reconcile/last
+    @GetMapping("/reconcile/last")
+    public StockReconcileService.ReconcileResult lastReconcile() {
+        return stockReconcileService.lastResult();
+    }
+
+    // ✅ 재고 변동 실시간 구독 (SSE, event: stock → [{itemCd, whCd, qtyDelta, allocDelta}])
+// GET /api/stocks/events?itemCd=A,B&whCd=WH01
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestParam(required = false) List<String> itemCd,
+                             @RequestParam(required = false) List<String> whCd) {
+        return stockEventBus.subscribe(itemCd, whCd);
+    }
+
+    // GET /api/stocks/events/stats
+    @GetMapping("/events/stats")
+    public Map<String, Object> eventStats() {
+        return stockEventBus.stats();
+    }
+
     // ✅ 특정 품목의 창고별 재고 목록
 // GET /api/stocks/by-item/{itemCd}
     @GetMapping("/by-item/{itemCd}")
@@ -1,20 +1,35 @@
 package com.example.sms.controller;
 
+import com.example.sms.dto.CursorPageDto;
 import com.example.sms.dto.StockHistoryDto;
 import com.example.sms.entity.CustMst;
 import com.example.sms.entity.ItemStockHis;
-import com.example.sms.repository.CustRepository;
 import com.example.sms.repository.ItemStockHisRepository;
+import com.example.sms.service.MasterCacheService;
+import com.example.sms.service.StockExportService;
+import com.example.sms.service.StockLedgerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
@@ -22,86 +37,177 @@ import java.time.format.DateTimeFormatter;
 public class ItemStockHisController {
 
     private final ItemStockHisRepository itemStockHisRepository;
-    private final CustRepository custRepository;
+    private final MasterCacheService masterCacheService;
+    private final StockLedgerService stockLedgerService;
+    private final StockExportService stockExportService;
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     // 목록 조회 (잔고 포함)
+    // - cursor 또는 keyset=true: 커서 기반 조회 (COUNT 없음, withCount=true면 전체 건수 포함)
+    // - 그 외: 기존 page/size 조회
     @GetMapping
-    public ResponseEntity<Page<StockHistoryDto>> list(
+    public ResponseEntity<?> list(
             @RequestParam(required = false) String itemCd,
             @RequestParam(required = false) String whCd,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDt,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean withCount,
             Pageable pageable
     ) {
-        // 1. Repository에서 Projection으로 조회 (Native Query 실행)
-        Page<ItemStockHisRepository.HistoryWithBalanceProjection> page =
-                itemStockHisRepository.findHistoryWithBalance(itemCd, whCd, fromDt, toDt, pageable);
-
-        // 2. DTO 변환 (거래처명 매핑 포함)
-        Page<StockHistoryDto> dtoPage = page.map(h -> {
-            String custNm = "";
-            if (h.getCustCd() != null && !h.getCustCd().isBlank()) {
-                custNm = custRepository.findById(h.getCustCd())
-                        .map(CustMst::getCustNm)
-                        .orElse("");
-            }
-
-            return StockHistoryDto.builder()
-                    .stkHisCd(h.getStkHisCd())
-                    .ioDt(h.getTrxDt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")))
-                    .ioType(h.getIoType())
-                    .itemCd(h.getItemCd())
-                    .whCd(h.getWhCd())
-                    .qty(h.getQty())
-                    .balance(h.getBalance())
-                    .refNo(h.getRefNo())
-                    .custCd(h.getCustCd())
-                    .custNm(custNm)
-                    .refNo(h.getRefNo())
-                    .remark(h.getRemark())
-                    .build();
-        });
-
-        return ResponseEntity.ok(dtoPage);
+        boolean byWh = whCd != null && !whCd.isBlank();
+        if (cursor == null && !keyset) {
+            // 1. Repository에서 Projection으로 조회 (Native Query 실행)
+            Page<ItemStockHisRepository.HistoryWithBalanceProjection> page =
+                    itemStockHisRepository.findHistoryWithBalance(itemCd, whCd, fromDt, toDt, pageable);
+
+            // 2. DTO 변환 (거래처명 매핑 포함)
+            Map<String, String> custNames = custNames(page.getContent().stream()
+                    .map(ItemStockHisRepository.HistoryWithBalanceProjection::getCustCd).toList());
+            return ResponseEntity.ok(page.map(h -> toDto(h, custNames, byWh)));
+        }
+
+        int limit = pageLimit(pageable);
+        Object[] c = decodeCursor(cursor);
+        List<ItemStockHisRepository.HistoryWithBalanceProjection> rows = itemStockHisRepository.seekHistoryWithBalance(
+                itemCd, whCd, fromDt, toDt, (LocalDateTime) c[0], (String) c[1], limit + 1);
+
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) rows = rows.subList(0, limit);
+        Map<String, String> custNames = custNames(rows.stream()
+                .map(ItemStockHisRepository.HistoryWithBalanceProjection::getCustCd).toList());
+
+        ItemStockHisRepository.HistoryWithBalanceProjection last = hasNext ? rows.get(rows.size() - 1) : null;
+        return ResponseEntity.ok(CursorPageDto.<StockHistoryDto>builder()
+                .content(rows.stream().map(h -> toDto(h, custNames, byWh)).toList())
+                .size(limit)
+                .hasNext(hasNext)
+                .nextCursor(last != null ? encodeCursor(last.getTrxDt(), last.getStkHisCd()) : null)
+                .totalCount(withCount ? itemStockHisRepository.countHistory(itemCd, whCd, fromDt, toDt) : null)
+                .build());
     }
 
-    //목록조회 잔고 미포함
+    //목록조회 잔고 미포함 (cursor/keyset 사용법은 위와 동일, keyset 조회의 품목/창고는 일치 조건)
     @GetMapping("/his")
-    public ResponseEntity<Page<StockHistoryDto>> Iolist(
+    public ResponseEntity<?> Iolist(
             @RequestParam(required = false) String itemCd,
             @RequestParam(required = false) String whCd,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDt,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean withCount,
             Pageable pageable
     ) {
-        // 1. JPQL search 메서드 호출 (Page<ItemStockHis> 반환)
-        Page<ItemStockHis> page = itemStockHisRepository.search(itemCd, whCd, fromDt, toDt, pageable);
-
-        // 2. DTO 변환 (엔티티 필드에 직접 접근)
-        Page<StockHistoryDto> dtoPage = page.map(h -> {
-            String custNm = "";
-            if (h.getCustCd() != null && !h.getCustCd().isBlank()) {
-                custNm = custRepository.findById(h.getCustCd())
-                        .map(CustMst::getCustNm)
-                        .orElse("");
-            }
-
-            return StockHistoryDto.builder()
-                    .stkHisCd(h.getStkHisCd())
-                    .ioDt(h.getTrxDt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")))
-                    .ioType(h.getIoType())
-                    .itemCd(h.getItemCd())
-                    .whCd(h.getWhCd())
-                    .qty(h.getQtyDelta())
-                    .balance(java.math.BigDecimal.ZERO)
-                    .refNo(h.getRefNo())
-                    .custCd(h.getCustCd())
-                    .custNm(custNm)
-                    .remark(h.getRemark())
-                    .build();
-        });
-
-        return ResponseEntity.ok(dtoPage);
+        if (cursor == null && !keyset) {
+            // 1. JPQL search 메서드 호출 (Page<ItemStockHis> 반환)
+            Page<ItemStockHis> page = itemStockHisRepository.search(itemCd, whCd, fromDt, toDt, pageable);
+
+            // 2. DTO 변환 (엔티티 필드에 직접 접근)
+            Map<String, String> custNames = custNames(page.getContent().stream().map(ItemStockHis::getCustCd).toList());
+            return ResponseEntity.ok(page.map(h -> toDto(h, custNames)));
+        }
+
+        int limit = pageLimit(pageable);
+        Object[] c = decodeCursor(cursor);
+        List<ItemStockHis> rows = itemStockHisRepository.seek(
+                itemCd, whCd, fromDt, toDt, (LocalDateTime) c[0], (String) c[1], Limit.of(limit + 1));
+
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) rows = rows.subList(0, limit);
+        Map<String, String> custNames = custNames(rows.stream().map(ItemStockHis::getCustCd).toList());
+
+        ItemStockHis last = hasNext ? rows.get(rows.size() - 1) : null;
+        Long total = withCount ? itemStockHisRepository.countHistory(itemCd, whCd, fromDt, toDt) : null;
+        return ResponseEntity.ok(CursorPageDto.<StockHistoryDto>builder()
+                .content(rows.stream().map(h -> toDto(h, custNames)).toList())
+                .size(limit)
+                .hasNext(hasNext)
+                .nextCursor(last != null ? encodeCursor(last.getTrxDt(), last.getStkHisCd()) : null)
+                .totalCount(total)
+                .build());
+    }
+
+    // 수불부 CSV 내보내기 (조건은 목록 조회와 동일, 전체 건을 스트리밍으로 전송)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String itemCd,
+            @RequestParam(required = false) String whCd,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDt,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDt
+    ) {
+        String fileName = "stock_ledger_" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + ".csv";
+        StreamingResponseBody body = out -> stockExportService.writeLedgerCsv(itemCd, whCd, fromDt, toDt, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    private static int pageLimit(Pageable pageable) {
+        int size = pageable.isPaged() ? pageable.getPageSize() : 20;
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // 커서 = (거래일시, 이력번호) : 마지막으로 받은 행의 바로 다음부터 조회
+    private static String encodeCursor(LocalDateTime trxDt, String stkHisCd) {
+        return CursorPageDto.encodeCursor(trxDt.toString(), stkHisCd);
+    }
+
+    private static Object[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return new Object[]{null, null};
+        String[] parts = CursorPageDto.decodeCursor(cursor);
+        try {
+            return new Object[]{LocalDateTime.parse(parts[0]), parts[1]};
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor);
+        }
+    }
+
+    // 페이지 내 거래처명 일괄 조회
+    private Map<String, String> custNames(List<String> custCds) {
+        Set<String> codes = custCds.stream().filter(cd -> cd != null && !cd.isBlank()).collect(Collectors.toSet());
+        if (codes.isEmpty()) return Map.of();
+        return masterCacheService.custs(codes).values().stream()
+                .collect(Collectors.toMap(CustMst::getCustCd, cm -> cm.getCustNm() == null ? "" : cm.getCustNm()));
+    }
+
+    // 창고 조건으로 조회하면 잔고(balance)는 그 창고의 잔고, 아니면 품목 전체 잔고
+    private static StockHistoryDto toDto(ItemStockHisRepository.HistoryWithBalanceProjection h, Map<String, String> custNames,
+                                         boolean byWh) {
+        return StockHistoryDto.builder()
+                .stkHisCd(h.getStkHisCd())
+                .ioDt(h.getTrxDt().format(DATE_TIME))
+                .ioType(h.getIoType())
+                .itemCd(h.getItemCd())
+                .whCd(h.getWhCd())
+                .qty(h.getQty())
+                .balance(byWh ? h.getWhBalance() : h.getBalance())
+                .whBalance(h.getWhBalance())
+                .custCd(h.getCustCd())
+                .custNm(custNames.getOrDefault(h.getCustCd(), ""))
+                .refNo(h.getRefNo())
+                .remark(h.getRemark())
+                .build();
+    }
+
+    private static StockHistoryDto toDto(ItemStockHis h, Map<String, String> custNames) {
+        return StockHistoryDto.builder()
+                .stkHisCd(h.getStkHisCd())
+                .ioDt(h.getTrxDt().format(DATE_TIME))
+                .ioType(h.getIoType())
+                .itemCd(h.getItemCd())
+                .whCd(h.getWhCd())
+                .qty(h.getQtyDelta())
+                .balance(BigDecimal.ZERO)
+                .refNo(h.getRefNo())
+                .custCd(h.getCustCd())
+                .custNm(custNames.getOrDefault(h.getCustCd(), ""))
+                .remark(h.getRemark())
+                .build();
     }
 
     // 단건 조회 (필요 시 DTO로 변경 권장, 현재는 엔티티 그대로 반환)
@@ -121,7 +227,7 @@ public class ItemStockHisController {
 
         LocalDateTime trx = body.getTrxDt() == null ? LocalDateTime.now() : body.getTrxDt();
 
-        ItemStockHis saved = itemStockHisRepository.save(
+        ItemStockHis saved = stockLedgerService.save(
                 ItemStockHis.builder()
                         .stkHisCd(body.getStkHisCd())
                         .itemCd(body.getItemCd())
@@ -141,11 +247,26 @@ public class ItemStockHisController {
         return ResponseEntity.ok(saved);
     }
 
-    // 삭제
+    // 삭제 (이후 이력 잔고 재계산)
     @DeleteMapping("/{stkHisCd}")
-    @Transactional
     public ResponseEntity<Void> delete(@PathVariable String stkHisCd) {
-        itemStockHisRepository.deleteById(stkHisCd);
+        stockLedgerService.delete(stkHisCd);
         return ResponseEntity.ok().build();
     }
+
+    // 기존 이력 잔고 백필 (all=false: 잔고가 비어 있는 품목만)
+    @PostMapping("/balance/backfill")
+    public ResponseEntity<StockLedgerService.BackfillResult> backfillBalance(
+            @RequestParam(defaultValue = "false") boolean all
+    ) {
+        return ResponseEntity.ok(stockLedgerService.backfill(all));
+    }
+
+    // 저장된 잔고 검증 (이력 누계와 비교)
+    @GetMapping("/balance/verify")
+    public ResponseEntity<StockLedgerService.VerifyResult> verifyBalance(
+            @RequestParam(required = false) String itemCd
+    ) {
+        return ResponseEntity.ok(stockLedgerService.verify(itemCd));
+    }
 }
\ No newline at end of file
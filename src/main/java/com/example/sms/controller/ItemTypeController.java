@@ -3,6 +3,8 @@ package com.example.sms.controller;
 import com.example.sms.entity.ItemTypeMst;
 import com.example.sms.repository.ItemTypeRepository;
 import com.example.sms.repository.ItemRepository;
+import com.example.sms.service.ItemSearchIndex;
+import com.example.sms.service.ItemTypeHierarchy;
 import com.example.sms.service.LogService; // ✅ 로그 서비스 임포트
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +22,8 @@ public class ItemTypeController {
     private final ItemTypeRepository itemTypeRepository;
     private final ItemRepository itemRepository;
     private final LogService logService; // ✅ 로그 서비스 주입
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemTypeHierarchy itemTypeHierarchy;
 
     private static final String MENU_NAME = "자재 분류 관리"; // ✅ 메뉴명 정의
 
@@ -56,6 +60,7 @@ public class ItemTypeController {
                 .build();
 
         ItemTypeMst saved = itemTypeRepository.save(itemType);
+        itemTypeHierarchy.rebuildOnCommit(); // 계층 스냅샷 교체
 
         // ✅ 로그 기록
         logService.saveLog(MENU_NAME, actionType, saved.getTypeCd(), saved.getTypeNm());
@@ -77,6 +82,7 @@ public class ItemTypeController {
 
         // 분류 삭제
         itemTypeRepository.delete(target);
+        itemTypeHierarchy.rebuildOnCommit();
 
         // ✅ 로그 기록
         logService.saveLog(MENU_NAME, "삭제", typeCd, targetName);
@@ -92,5 +98,6 @@ public class ItemTypeController {
             }
         }
         itemRepository.deleteByTypeCd(type.getTypeCd());
+        itemSearchIndex.removeTypesOnCommit(List.of(type.getTypeCd()));
     }
 }
\ No newline at end of file
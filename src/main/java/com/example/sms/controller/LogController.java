@@ -2,12 +2,14 @@ package com.example.sms.controller;
 
 import com.example.sms.entity.LogMst;
 import com.example.sms.repository.LogRepository;
+import com.example.sms.service.AuditLogWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/logs") // 프론트엔드에서 호출하는 주소
@@ -15,10 +17,17 @@ import java.util.List;
 public class LogController {
 
     private final LogRepository logRepository;
+    private final AuditLogWriter auditLogWriter;
 
     // 로그 전체 조회 (최신순)
     @GetMapping
     public List<LogMst> getLogs() {
         return logRepository.findAllByOrderByLogNoDesc();
     }
-}
\ No newline at end of file
+
+    // 로그 저장 큐 상태 (대기 건수, 버려진 건수 등)
+    @GetMapping("/writer-stats")
+    public Map<String, Object> getWriterStats() {
+        return auditLogWriter.stats();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.sms.controller;
+
+import com.example.sms.service.MasterImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/import")
+public class MasterImportController {
+
+    private final MasterImportService masterImportService;
+
+    // 마스터 CSV 가져오기 등록 (type: item / bom / cust) → 작업번호 즉시 반환, 처리는 백그라운드
+    // - 첫 줄은 헤더 (ITEM_CD 또는 itemCd 형식), UTF-8
+    @PostMapping("/{type}")
+    public ResponseEntity<?> upload(@PathVariable String type, @RequestParam("file") MultipartFile file) {
+        try {
+            MasterImportService.MasterType masterType = masterType(type);
+            if (file.isEmpty()) throw new IllegalArgumentException("빈 파일입니다.");
+
+            // 요청이 끝나면 업로드 임시 파일이 지워지므로 작업용 파일로 옮겨 둠
+            Path tmp = Files.createTempFile("sms-import-", ".csv");
+            file.transferTo(tmp);
+            return ResponseEntity.ok(masterImportService.start(masterType, tmp, file.getOriginalFilename()));
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().body("오류 발생: " + e.getMessage());
+        }
+    }
+
+    // 작업 진행 상황 (읽은 행 / 저장 / 오류 건수, 오류 행 목록)
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<MasterImportService.ImportJob> job(@PathVariable String jobId) {
+        return masterImportService.job(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<MasterImportService.ImportJob>> jobs() {
+        return ResponseEntity.ok(masterImportService.jobs());
+    }
+
+    private static MasterImportService.MasterType masterType(String type) {
+        try {
+            return MasterImportService.MasterType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("지원하지 않는 가져오기 대상입니다: " + type + " (item / bom / cust)");
+        }
+    }
+}
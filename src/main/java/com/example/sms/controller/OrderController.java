@@ -5,8 +5,11 @@ import com.example.sms.dto.OrderDto;
 import com.example.sms.entity.OrderDetMst;
 import com.example.sms.entity.OrderMst;
 import com.example.sms.service.OrderService;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,12 +29,26 @@ public class OrderController {
     public ResponseEntity<List<OrderMst>> list(
             @RequestParam(defaultValue = "DESC") String sort
     ) {
-        List<OrderMst> orderList = orderService.getOrderList(sort);
-        // 각 OrderMst에 상세 정보(details)를 채워 넣음
-        orderList.forEach(order ->
-                order.setDetails(orderService.getOrderDetails(order.getOrderCd()))
-        );
-        return ResponseEntity.ok(orderList);
+        // 상세는 주문별 조회 대신 한 번에 조회해서 채움
+        return ResponseEntity.ok(orderService.getOrderListWithDetails(sort));
+    }
+
+    // ✅ 1-1) 주문 목록 페이지 (헤더 + 상세, 거래처명/품목명 포함)
+    // - fromDt/toDt: 주문일자 범위, custCd: 거래처, status: 상세 상태 (o1/o2/...)
+    // - page/size/sort (sort: orderDt, orderCd, custCd)
+    @GetMapping("/browse")
+    public ResponseEntity<?> browse(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDt,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDt,
+            @RequestParam(required = false) String custCd,
+            @RequestParam(required = false) String status,
+            Pageable pageable
+    ) {
+        try {
+            return ResponseEntity.ok(orderService.browseOrders(fromDt, toDt, custCd, status, pageable));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // ✅ 2) 주문 단건 조회 (custNm 포함)
@@ -66,6 +83,27 @@ public class OrderController {
         return ResponseEntity.ok(Map.of("message", "삭제 완료"));
     }
 
+    // ✅ 상태 전환 (주문 전체 또는 지정 라인, 전환 가능한 라인만 변경)
+    // POST /api/order/{orderCd}/status  { "status": "o2", "seqNos": [1, 2] }  → 이전 상태별 변경 건수
+    @PostMapping("/{orderCd}/status")
+    public ResponseEntity<?> changeStatus(@PathVariable String orderCd, @RequestBody StatusForm form) {
+        try {
+            return ResponseEntity.ok(orderService.transition(orderCd, form.getSeqNos(), form.getStatus()));
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ 상태 전환 (조건 지정: 품목/창고)
+    @PostMapping("/status")
+    public ResponseEntity<?> changeStatusWhere(@RequestBody StatusForm form) {
+        try {
+            return ResponseEntity.ok(orderService.transitionWhere(form.getItemCd(), form.getWhCd(), form.getStatus()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @Data
     public static class OrderForm {
         private String orderCd;
@@ -75,4 +113,12 @@ public class OrderController {
         private String remark;
         private List<OrderDetMst> details; // 저장은 엔티티 구조 그대로 받기
     }
+
+    @Data
+    public static class StatusForm {
+        private String status;
+        private List<Integer> seqNos; // 비어 있으면 주문 전체 라인
+        private String itemCd;        // 조건 지정 전환용
+        private String whCd;
+    }
 }
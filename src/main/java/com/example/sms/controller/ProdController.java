@@ -9,6 +9,7 @@ import com.example.sms.entity.ProdResult;
 import com.example.sms.repository.ItemIoRepository;
 import com.example.sms.repository.ProdRepository;
 import com.example.sms.repository.ProdResultRepository;
+import com.example.sms.service.MrpService;
 import com.example.sms.service.ProdService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +30,7 @@ public class ProdController {
     private final ProdResultRepository prodResultRepository;
     private final ItemIoRepository itemIoRepository; // ✅ Repository 추가됨
     private final ProdService prodService;
+    private final MrpService mrpService;
 
     // 목록 + 필터 + 페이징
     @GetMapping
@@ -38,6 +40,15 @@ public class ProdController {
         return prodRepository.search(itemCd, status, pageable);
     }
 
+    // ===========================
+    // ✅ MRP: 진행 중 생산계획 전체의 자재 부족량 / 발주 제안
+    // GET /api/prods/mrp
+    // ===========================
+    @GetMapping("/mrp")
+    public MrpService.MrpResult mrp() {
+        return mrpService.run();
+    }
+
     // 단건 조회
     @GetMapping("/{prodNo}")
     public Prod detail(@PathVariable String prodNo) {
@@ -4,6 +4,8 @@ import com.example.sms.dto.PurchaseDetDto;
 import com.example.sms.entity.PurchaseDetMst;
 import com.example.sms.entity.PurchaseMst;
 import com.example.sms.service.PurchaseService;
+import com.example.sms.service.ReplenishmentService;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +21,7 @@ import java.util.Map;
 public class PurchaseController {
 
     private final PurchaseService purchaseService;
+    private final ReplenishmentService replenishmentService;
 
     // 1. 발주 목록 조회
     @GetMapping
@@ -63,6 +66,49 @@ public class PurchaseController {
         return ResponseEntity.ok().build();
     }
 
+    // 6. 상태 전환 (발주 전체 또는 지정 라인, 전환 가능한 라인만 변경)
+    // POST /api/purchase/{purchaseCd}/status  { "status": "p2", "seqNos": [1, 2] }  → 이전 상태별 변경 건수
+    @PostMapping("/{purchaseCd}/status")
+    public ResponseEntity<?> changeStatus(@PathVariable String purchaseCd, @RequestBody StatusForm form) {
+        try {
+            return ResponseEntity.ok(purchaseService.transition(purchaseCd, form.getSeqNos(), form.getStatus()));
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // 7. 상태 전환 (조건 지정: 품목/창고)
+    // POST /api/purchase/status  { "status": "p9", "itemCd": "I001" }
+    @PostMapping("/status")
+    public ResponseEntity<?> changeStatusWhere(@RequestBody StatusForm form) {
+        try {
+            return ResponseEntity.ok(purchaseService.transitionWhere(form.getItemCd(), form.getWhCd(), form.getStatus()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // 8. 재주문점 보충 수동 실행
+    // POST /api/purchase/replenish?mode=FULL|CHANGED&draft=true  (draft=false면 부족 품목만 조회)
+    @PostMapping("/replenish")
+    public ResponseEntity<?> replenish(
+            @RequestParam(defaultValue = "FULL") ReplenishmentService.Mode mode,
+            @RequestParam(defaultValue = "false") boolean draft
+    ) {
+        try {
+            return ResponseEntity.ok(replenishmentService.run(mode, draft));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // 9. 마지막 자동 보충 결과 (없으면 204)
+    @GetMapping("/replenish/last")
+    public ResponseEntity<ReplenishmentService.ReplenishResult> lastReplenish() {
+        ReplenishmentService.ReplenishResult last = replenishmentService.lastResult();
+        return last == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(last);
+    }
+
     // ✅ 프론트엔드 JSON 데이터를 받을 DTO (내부 클래스)
     @Data
     public static class PurchaseForm {
@@ -75,4 +121,12 @@ public class PurchaseController {
         // 상세 리스트 (PurchaseDetMst 엔티티 구조 그대로 매핑)
         private List<PurchaseDetMst> details;
     }
+
+    @Data
+    public static class StatusForm {
+        private String status;
+        private List<Integer> seqNos; // 비어 있으면 발주 전체 라인
+        private String itemCd;        // 조건 지정 전환용
+        private String whCd;
+    }
 }
\ No newline at end of file
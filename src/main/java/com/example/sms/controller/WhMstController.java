@@ -3,6 +3,7 @@ package com.example.sms.controller;
 import com.example.sms.entity.WhMst;
 import com.example.sms.repository.WhMstRepository;
 import com.example.sms.service.LogService;
+import com.example.sms.service.MasterCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +17,7 @@ public class WhMstController {
 
     private final WhMstRepository whMstRepository;
     private final LogService logService;
+    private final MasterCacheService masterCacheService;
 
     private static final String MENU_NAME = "창고 관리";
 
@@ -45,6 +47,7 @@ public class WhMstController {
 
         // 저장
         WhMst saved = whMstRepository.save(whMst);
+        masterCacheService.invalidateWhOnCommit(saved.getWhCd());
 
         // 로그 기록
         logService.saveLog(MENU_NAME, actionType, saved.getWhCd(), saved.getWhNm());
@@ -59,6 +62,7 @@ public class WhMstController {
                 .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 창고입니다."));
 
         whMstRepository.delete(target);
+        masterCacheService.invalidateWhOnCommit(whCd);
 
         // 로그 기록
         logService.saveLog(MENU_NAME, "삭제", target.getWhCd(), target.getWhNm());
@@ -0,0 +1,37 @@
+package com.example.sms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@Builder
+public class CursorPageDto<T> {
+    private List<T> content;    // 현재 페이지 데이터
+    private int size;           // 요청 페이지 크기
+    private boolean hasNext;    // 다음 페이지 존재 여부
+    private String nextCursor;  // 다음 페이지 요청 시 그대로 넘길 커서 (없으면 null)
+    private Long totalCount;    // 전체 건수 (요청한 경우에만, 아니면 null)
+
+    // 커서 = Base64(값1|값2) : 화면에서는 내용을 몰라도 되도록 불투명하게 전달
+    public static String encodeCursor(String first, String second) {
+        String raw = (first == null ? "" : first) + "|" + second;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) throw new IllegalArgumentException("잘못된 커서입니다.");
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.sms.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter @Setter
+public class InboundBulkReq {
+    // 발주번호만 주면 해당 발주의 확정(p2) 라인 전체 입고
+    private String purchaseCd;
+    // 라인별 창고를 주지 않았을 때 사용할 기본 입고창고
+    private String toWhCd;
+    private String remark;
+    // 특정 라인만 입고할 때 (purchaseCd가 다른 라인도 섞을 수 있음)
+    private List<Line> lines;
+
+    @Getter @Setter
+    public static class Line {
+        private String purchaseCd;
+        private Integer seqNo;
+        private String toWhCd;  // 없으면 상단 toWhCd
+        private Integer qty;    // 없으면 발주수량
+        private String remark;
+    }
+}
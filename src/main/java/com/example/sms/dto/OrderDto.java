@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Getter
 @Setter
@@ -28,4 +29,7 @@ public class OrderDto {
 
     @JsonAlias({"REMARK", "remark"})
     private String remark;
+
+    // 목록 페이지 조회 시 상세 (단건/목록 DTO 조회에서는 null)
+    private List<OrderDetDto> details;
 }
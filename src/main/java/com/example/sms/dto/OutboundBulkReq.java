@@ -0,0 +1,23 @@
+package com.example.sms.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter @Setter
+public class OutboundBulkReq {
+    private String fromWhCd; // 라인별 창고를 주지 않았을 때 사용할 기본 출고창고
+    private String remark;
+    private List<Line> lines;
+
+    @Getter @Setter
+    public static class Line {
+        private String orderCd;
+        private Integer seqNo;
+        private String itemCd;   // (선택) 주면 주문 라인의 품목과 일치하는지 확인
+        private String fromWhCd; // 없으면 상단 fromWhCd → 주문 라인 창고
+        private Integer qty;     // 없으면 주문수량
+        private String remark;
+    }
+}
@@ -16,7 +16,8 @@ public class StockHistoryDto {
     private String itemCd;      // 품목
     private String whCd;        // 창고
     private BigDecimal qty;     // 변동 수량 (qtyDelta)
-    private BigDecimal balance; // 누적 잔고
+    private BigDecimal balance; // 누적 잔고 (창고 조건 조회 시 해당 창고, 아니면 품목 전체)
+    private BigDecimal whBalance; // 창고별 누적 잔고
     private String custCd;      // 거래처 코드
     private String custNm;      // 거래처 명 (화면 표시용)
     private String refNo;
@@ -0,0 +1,53 @@
+package com.example.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 멱등 키 처리 결과 (Idempotency-Key 헤더로 들어온 쓰기 요청의 응답 보관)
+ * - 메모리에서 밀려났거나 서버 재시작 후 재전송된 요청을 위한 보조 저장소
+ * - 저장/조회/만료 삭제는 IdempotencyStore가 JDBC로 처리
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Table(name = "TB_IDEMPOTENCY", indexes = {
+        @Index(name = "IX_IDEMPOTENCY_EXPIRES", columnList = "EXPIRES_DT")   // 만료분 삭제
+})
+public class IdempotencyRec {
+
+    // SHA-256(메서드 + URI + 키)
+    @Id
+    @Column(name = "KEY_HASH", length = 64)
+    private String keyHash;
+
+    @Column(name = "REQ_METHOD", length = 10)
+    private String reqMethod;
+
+    @Column(name = "REQ_URI", length = 300)
+    private String reqUri;
+
+    // 요청 본문 SHA-256 (같은 키로 다른 본문이 오면 거부, multipart 등은 null)
+    @Column(name = "REQ_HASH", length = 64)
+    private String reqHash;
+
+    @Column(name = "STATUS_CD", nullable = false)
+    private Integer statusCd;
+
+    @Column(name = "CONTENT_TYPE", length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(name = "RESPONSE_BODY")
+    private String responseBody;
+
+    @Column(name = "CREATED_DT", nullable = false)
+    private LocalDateTime createdDt;
+
+    @Column(name = "EXPIRES_DT", nullable = false)
+    private LocalDateTime expiresDt;
+}
@@ -8,7 +8,10 @@ import lombok.*;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
 @Builder
-@Table(name = "TB_ITEMMST")
+@Table(name = "TB_ITEMMST", indexes = {
+        @Index(name = "IX_ITEMMST_FLAG_CD", columnList = "ITEM_FLAG, ITEM_CD"), // 자재/제품 팝업 (코드 순)
+        @Index(name = "IX_ITEMMST_TYPE", columnList = "TYPE_CD")              // 분류 필터
+})
 public class ItemMst {
     @Id
     @Column(name = "ITEM_CD", length = 20)
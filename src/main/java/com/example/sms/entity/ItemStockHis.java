@@ -11,7 +11,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
 @Builder
-@Table(name = "TB_ITEMSTOCK_HIS")
+@Table(name = "TB_ITEMSTOCK_HIS", indexes = {
+        @Index(name = "IX_STKHIS_DT", columnList = "TRX_DT, STK_HIS_CD"),
+        @Index(name = "IX_STKHIS_ITEM_DT", columnList = "ITEM_CD, TRX_DT, STK_HIS_CD"),
+        @Index(name = "IX_STKHIS_ITEM_WH_DT", columnList = "ITEM_CD, WH_CD, TRX_DT, STK_HIS_CD"),
+        @Index(name = "IX_STKHIS_WH_DT", columnList = "WH_CD, TRX_DT, STK_HIS_CD")
+})
 public class ItemStockHis {
 
     @Id
@@ -53,4 +58,17 @@ public class ItemStockHis {
 
     @Column(name = "REMARK", length = 100)
     private String remark;
+
+    // 처리 후 잔고 (StockLedgerService에서 저장 직전에 기록)
+    @Column(name = "BAL_QTY", precision = 18, scale = 3)
+    private BigDecimal balQty;      // 품목 + 창고 기준
+
+    @Column(name = "ITEM_BAL_QTY", precision = 18, scale = 3)
+    private BigDecimal itemBalQty;  // 품목 전체 기준
+
+    public void stampBalance(LocalDateTime trxDt, BigDecimal balQty, BigDecimal itemBalQty) {
+        this.trxDt = trxDt;
+        this.balQty = balQty;
+        this.itemBalQty = itemBalQty;
+    }
 }
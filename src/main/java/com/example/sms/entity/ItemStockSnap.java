@@ -0,0 +1,25 @@
+package com.example.sms.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * 일별 마감 재고 (SNAP_DT 일자 종료 시점의 품목+창고 재고, 0인 행은 저장하지 않음)
+ * - StockSnapshotService가 매일 전일자분을 생성
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Table(name = "TB_ITEMSTOCK_SNAP")
+public class ItemStockSnap {
+
+    @EmbeddedId
+    private ItemStockSnapId id;
+
+    @Column(name = "STOCK_QTY", precision = 18, scale = 3)
+    private BigDecimal stockQty;
+}
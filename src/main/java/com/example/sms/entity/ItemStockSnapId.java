@@ -0,0 +1,26 @@
+package com.example.sms.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode
+public class ItemStockSnapId implements Serializable {
+
+    @Column(name = "SNAP_DT")
+    private LocalDate snapDt;
+
+    @Column(name = "ITEM_CD", length = 20)
+    private String itemCd;
+
+    @Column(name = "WH_CD", length = 10)
+    private String whCd;
+}
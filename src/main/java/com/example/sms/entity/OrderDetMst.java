@@ -1,9 +1,12 @@
 package com.example.sms.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -12,7 +15,9 @@ import lombok.ToString;
 @Getter
 @Setter
 @ToString
-@Table(name = "TB_ORDER_DET")
+@Table(name = "TB_ORDER_DET", indexes = {
+        @Index(name = "IX_ORDER_DET_STATUS", columnList = "STATUS, ORDER_CD, SEQ_NO")     // 상태 필터 / 출고대기 목록
+})
 public class OrderDetMst {
 
     @EmbeddedId
@@ -33,4 +38,9 @@ public class OrderDetMst {
 
     @Column(name = "REMARK", length = 200)
     private String remark;
+
+    // 저장 요청의 라인 순번 (화면은 id 없이 seqNo로 보냄, 기존 라인과 비교용 / DB 매핑 X, 응답에는 포함하지 않음)
+    @Transient
+    @JsonProperty(value = "seqNo", access = JsonProperty.Access.WRITE_ONLY)
+    private Integer seqNo;
 }
@@ -12,7 +12,10 @@ import java.util.List;
 @Getter
 @Setter
 @ToString
-@Table(name = "TB_ORDER")
+@Table(name = "TB_ORDER", indexes = {
+        @Index(name = "IX_ORDER_DT", columnList = "ORDER_DT, ORDER_CD"),          // 주문 목록 (일자 순 페이지)
+        @Index(name = "IX_ORDER_CUST_DT", columnList = "CUST_CD, ORDER_DT")       // 거래처 필터
+})
 public class OrderMst {
 
     @Id
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 
 // 1. [중요] ID 타입을 String -> BomId로 변경
@@ -15,6 +17,10 @@ public interface BomRepository extends JpaRepository<BomMst, BomId> {
     @Query("SELECT b FROM BomMst b JOIN FETCH b.sItem WHERE b.pItemCd = :pItemCd ORDER BY b.seqNo ASC")
     List<BomMst> findByPItemCd(@Param("pItemCd") String pItemCd);
 
+    // 조회: 여러 제품의 BOM 한 번에 (BOM 전개 시 레벨 단위 조회용)
+    @Query("SELECT b FROM BomMst b WHERE b.pItemCd IN :pItemCds ORDER BY b.pItemCd ASC, b.seqNo ASC")
+    List<BomMst> findByPItemCdIn(@Param("pItemCds") Collection<String> pItemCds);
+
     // 삭제 1: 품목 삭제 시 관련 BOM 전체 삭제 (기존 유지)
     @Modifying
     @Query("DELETE FROM BomMst b WHERE b.pItemCd = :itemCd OR b.sItemCd = :itemCd")
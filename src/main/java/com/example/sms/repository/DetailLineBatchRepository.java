@@ -0,0 +1,155 @@
+package com.example.sms.repository;
+
+import com.example.sms.entity.OrderDetMst;
+import com.example.sms.entity.PurchaseDetMst;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 주문(TB_ORDER_DET) / 발주(TB_PURCHASE_DET) 상세 JDBC batch 반영
+ * - 저장 시 바뀐 라인만 INSERT / UPDATE / DELETE (LineDiff 결과)
+ * - UPDATE는 저장 전에 읽은 상태 조건(STATUS = ?)을 붙여 그 사이 입고/출고/상태 전환된 라인을 덮어쓰지 않음
+ * - 파생 삭제(deleteByIdXxx)는 건별 조회 후 건별 DELETE이므로 헤더 삭제 시에도 여기서 한 문장으로 삭제
+ */
+@Repository
+@RequiredArgsConstructor
+public class DetailLineBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_ORDER = """
+        INSERT INTO TB_ORDER_DET (ORDER_CD, SEQ_NO, ITEM_CD, ORDER_QTY, WH_CD, STATUS, REMARK)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+    private static final String UPDATE_ORDER = """
+        UPDATE TB_ORDER_DET SET ITEM_CD = ?, ORDER_QTY = ?, WH_CD = ?, STATUS = ?, REMARK = ?
+         WHERE ORDER_CD = ? AND SEQ_NO = ? AND STATUS = ?
+        """;
+    private static final String DELETE_ORDER = "DELETE FROM TB_ORDER_DET WHERE ORDER_CD = ? AND SEQ_NO = ?";
+
+    private static final String INSERT_PURCHASE = """
+        INSERT INTO TB_PURCHASE_DET (PURCHASE_CD, SEQ_NO, ITEM_CD, PURCHASE_QTY, STATUS, WH_CD, ITEM_COST, REMARK)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    private static final String UPDATE_PURCHASE = """
+        UPDATE TB_PURCHASE_DET SET ITEM_CD = ?, PURCHASE_QTY = ?, STATUS = ?, WH_CD = ?, ITEM_COST = ?, REMARK = ?
+         WHERE PURCHASE_CD = ? AND SEQ_NO = ? AND STATUS = ?
+        """;
+    private static final String DELETE_PURCHASE = "DELETE FROM TB_PURCHASE_DET WHERE PURCHASE_CD = ? AND SEQ_NO = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ---- 주문 상세 ----
+
+    public void insertOrderLines(List<OrderDetMst> lines) {
+        if (lines.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_ORDER, lines, BATCH_SIZE, (ps, d) -> {
+            ps.setString(1, d.getId().getOrderCd());
+            ps.setInt(2, d.getId().getSeqNo());
+            ps.setString(3, d.getItemCd());
+            setInt(ps, 4, d.getOrderQty());
+            ps.setString(5, d.getWhCd());
+            ps.setString(6, d.getStatus());
+            ps.setString(7, d.getRemark());
+        });
+    }
+
+    /**
+     * @param storedStatus 순번 → 저장 전에 읽은 상태
+     * @return 변경된 라인 수 (lines.size()보다 작으면 그 사이 상태가 바뀐 라인이 있음)
+     */
+    public int updateOrderLines(List<OrderDetMst> lines, Map<Integer, String> storedStatus) {
+        if (lines.isEmpty()) return 0;
+        return affected(jdbcTemplate.batchUpdate(UPDATE_ORDER, lines, BATCH_SIZE, (ps, d) -> {
+            ps.setString(1, d.getItemCd());
+            setInt(ps, 2, d.getOrderQty());
+            ps.setString(3, d.getWhCd());
+            ps.setString(4, d.getStatus());
+            ps.setString(5, d.getRemark());
+            ps.setString(6, d.getId().getOrderCd());
+            ps.setInt(7, d.getId().getSeqNo());
+            ps.setString(8, storedStatus.get(d.getId().getSeqNo()));
+        }));
+    }
+
+    public void deleteOrderLines(String orderCd, List<Integer> seqNos) {
+        if (seqNos.isEmpty()) return;
+        jdbcTemplate.batchUpdate(DELETE_ORDER, seqNos, BATCH_SIZE, (ps, seq) -> {
+            ps.setString(1, orderCd);
+            ps.setInt(2, seq);
+        });
+    }
+
+    public int deleteAllOrderLines(String orderCd) {
+        return jdbcTemplate.update("DELETE FROM TB_ORDER_DET WHERE ORDER_CD = ?", orderCd);
+    }
+
+    // ---- 발주 상세 ----
+
+    public void insertPurchaseLines(List<PurchaseDetMst> lines) {
+        if (lines.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_PURCHASE, lines, BATCH_SIZE, (ps, d) -> {
+            ps.setString(1, d.getId().getPurchaseCd());
+            ps.setInt(2, d.getId().getSeqNo());
+            ps.setString(3, d.getItemCd());
+            setInt(ps, 4, d.getPurchaseQty());
+            ps.setString(5, d.getStatus());
+            ps.setString(6, d.getWhCd());
+            setInt(ps, 7, d.getItemCost());
+            ps.setString(8, d.getRemark());
+        });
+    }
+
+    /**
+     * @param storedStatus 순번 → 저장 전에 읽은 상태
+     * @return 변경된 라인 수 (lines.size()보다 작으면 그 사이 상태가 바뀐 라인이 있음)
+     */
+    public int updatePurchaseLines(List<PurchaseDetMst> lines, Map<Integer, String> storedStatus) {
+        if (lines.isEmpty()) return 0;
+        return affected(jdbcTemplate.batchUpdate(UPDATE_PURCHASE, lines, BATCH_SIZE, (ps, d) -> {
+            ps.setString(1, d.getItemCd());
+            setInt(ps, 2, d.getPurchaseQty());
+            ps.setString(3, d.getStatus());
+            ps.setString(4, d.getWhCd());
+            setInt(ps, 5, d.getItemCost());
+            ps.setString(6, d.getRemark());
+            ps.setString(7, d.getId().getPurchaseCd());
+            ps.setInt(8, d.getId().getSeqNo());
+            ps.setString(9, storedStatus.get(d.getId().getSeqNo()));
+        }));
+    }
+
+    public void deletePurchaseLines(String purchaseCd, List<Integer> seqNos) {
+        if (seqNos.isEmpty()) return;
+        jdbcTemplate.batchUpdate(DELETE_PURCHASE, seqNos, BATCH_SIZE, (ps, seq) -> {
+            ps.setString(1, purchaseCd);
+            ps.setInt(2, seq);
+        });
+    }
+
+    public int deleteAllPurchaseLines(String purchaseCd) {
+        return jdbcTemplate.update("DELETE FROM TB_PURCHASE_DET WHERE PURCHASE_CD = ?", purchaseCd);
+    }
+
+    // batch 결과 합계 (드라이버가 건수를 알려주지 않으면(SUCCESS_NO_INFO) 1건으로 봄)
+    private static int affected(int[][] counts) {
+        int n = 0;
+        for (int[] batch : counts) {
+            for (int c : batch) n += c == Statement.SUCCESS_NO_INFO ? 1 : Math.max(c, 0);
+        }
+        return n;
+    }
+
+    private static void setInt(PreparedStatement ps, int idx, Integer v) throws SQLException {
+        if (v == null) ps.setNull(idx, Types.INTEGER);
+        else ps.setInt(idx, v);
+    }
+}
@@ -2,6 +2,8 @@ package com.example.sms.repository;
 
 import com.example.sms.entity.ItemIo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +19,91 @@ public interface ItemIoRepository extends JpaRepository<ItemIo, String> {
     List<ItemIo> findByRefTbOrderByIoDtDesc(String refTb);
     List<ItemIo> findByRefTbOrderByIoDtAsc(String refTb);
 
+    // 자재 예약이 걸려 있는(해제되지 않은) 생산번호 목록
+    @Query("""
+        select distinct r.refCd
+        from ItemIo r
+        where r.refTb = 'TB_PROD' and r.ioType = 'RESERVE'
+          and not exists (
+              select 1 from ItemIo u
+              where u.refTb = 'TB_PROD' and u.ioType = 'UNRESERVE' and u.refCd = r.refCd
+          )
+    """)
+    List<String> findReservedProdNos();
 
-}
\ No newline at end of file
+    // ✅ 입출고 통합 목록 (완료 내역 + 입고대기(p2) + 출고대기(o2))
+    // - 품목/헤더는 조인으로 한 번에 가져오고, 정렬/페이징은 DB에서 처리
+    String IN_OUT_UNION = """
+        SELECT io.IO_CD AS rowKey, io.IO_CD AS ioCd, io.IO_DT AS ioDt, io.IO_TYPE AS ioType,
+               io.ITEM_CD AS itemCd, i.ITEM_NM AS itemNm, i.ITEM_SPEC AS itemSpec, io.QTY AS qty,
+               io.FROM_WH_CD AS fromWhCd, io.TO_WH_CD AS toWhCd,
+               io.REF_CD AS refCd, io.REF_SEQ AS refSeq, io.REMARK AS remark, 'COMPLETE' AS status
+          FROM TB_ITEM_IO io
+          LEFT JOIN TB_ITEMMST i ON i.ITEM_CD = io.ITEM_CD
+        UNION ALL
+        SELECT 'WAIT-IN-' || d.PURCHASE_CD || '-' || d.SEQ_NO, d.PURCHASE_CD, TO_CHAR(p.PURCHASE_DT, 'YYYY-MM-DD'), 'WAIT_IN',
+               d.ITEM_CD, NVL(i.ITEM_NM, '미등록'), NVL(i.ITEM_SPEC, '-'), d.PURCHASE_QTY,
+               NULL, NULL,
+               d.PURCHASE_CD, d.SEQ_NO, '입고 대기 (발주확정)', 'WAITING'
+          FROM TB_PURCHASE_DET d
+          JOIN TB_PURCHASE p ON p.PURCHASE_CD = d.PURCHASE_CD
+          LEFT JOIN TB_ITEMMST i ON i.ITEM_CD = d.ITEM_CD
+         WHERE d.STATUS = 'p2'
+        UNION ALL
+        SELECT 'WAIT-OUT-' || d.ORDER_CD || '-' || d.SEQ_NO, d.ORDER_CD, TO_CHAR(o.ORDER_DT, 'YYYY-MM-DD'), 'WAIT_OUT',
+               d.ITEM_CD, NVL(i.ITEM_NM, '미등록'), NVL(i.ITEM_SPEC, '-'), d.ORDER_QTY,
+               NULL, NULL,
+               d.ORDER_CD, d.SEQ_NO, '출고 대기 (주문확정)', 'WAITING'
+          FROM TB_ORDER_DET d
+          JOIN TB_ORDER o ON o.ORDER_CD = d.ORDER_CD
+          LEFT JOIN TB_ITEMMST i ON i.ITEM_CD = d.ITEM_CD
+         WHERE d.STATUS = 'o2'
+        """;
+
+    // 일자 없는 행의 정렬/커서용 일자 (가장 오래된 것으로 취급)
+    // - Oracle은 ''를 NULL로 보므로 커서에 빈 값을 넣으면 비교가 항상 거짓이 되어 행이 빠지거나 반복됨
+    String NULL_IO_DT = "0000-00-00";
+
+    // 정렬/커서 비교용 sortDt = NVL(ioDt, NULL_IO_DT)
+    String IN_OUT_SORTED = "SELECT * FROM (SELECT x.*, NVL(x.ioDt, '" + NULL_IO_DT + "') AS sortDt FROM (" + IN_OUT_UNION + ") x) u ";
+
+    // 최신순 (cursor가 있으면 해당 위치 다음부터 = keyset, 없으면 offset)
+    @Query(value = IN_OUT_SORTED
+            + "WHERE (:cursorDt IS NULL OR u.sortDt < :cursorDt OR (u.sortDt = :cursorDt AND u.rowKey < :cursorKey)) "
+            + "ORDER BY u.sortDt DESC, u.rowKey DESC "
+            + "OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY",
+            nativeQuery = true)
+    List<InOutRowView> findInOutDesc(@Param("cursorDt") String cursorDt,
+                                     @Param("cursorKey") String cursorKey,
+                                     @Param("offset") int offset,
+                                     @Param("limit") int limit);
+
+    // 오래된순
+    @Query(value = IN_OUT_SORTED
+            + "WHERE (:cursorDt IS NULL OR u.sortDt > :cursorDt OR (u.sortDt = :cursorDt AND u.rowKey > :cursorKey)) "
+            + "ORDER BY u.sortDt ASC, u.rowKey ASC "
+            + "OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY",
+            nativeQuery = true)
+    List<InOutRowView> findInOutAsc(@Param("cursorDt") String cursorDt,
+                                    @Param("cursorKey") String cursorKey,
+                                    @Param("offset") int offset,
+                                    @Param("limit") int limit);
+
+    interface InOutRowView {
+        String getRowKey();
+        String getIoCd();
+        String getIoDt();
+        String getSortDt();     // NVL(ioDt, NULL_IO_DT) - 커서용
+        String getIoType();
+        String getItemCd();
+        String getItemNm();
+        String getItemSpec();
+        Integer getQty();
+        String getFromWhCd();
+        String getToWhCd();
+        String getRefCd();
+        Integer getRefSeq();
+        String getRemark();
+        String getStatus();
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.sms.repository;
 
 import com.example.sms.entity.ItemMst;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -48,4 +51,47 @@ public interface ItemRepository extends JpaRepository<ItemMst, String> {
 
 
     void deleteByTypeCd(String typeCd);
-}
\ No newline at end of file
+
+    // 4. 목록 화면/팝업용 페이지 조회 (화면에 필요한 컬럼만, 정렬은 Pageable)
+    // - itemFlag: null이면 전체 / allTypes=false면 typeCds(하위 분류까지 펼친 목록)로 제한
+    @Query(value = "SELECT " + ROW_COLUMNS + " FROM ItemMst i " + ROW_FILTER,
+           countQuery = "SELECT count(i) FROM ItemMst i " + ROW_FILTER)
+    Page<ItemRowView> findRows(@Param("itemFlag") String itemFlag,
+                               @Param("allTypes") boolean allTypes,
+                               @Param("typeCds") List<String> typeCds,
+                               Pageable pageable);
+
+    // 4-1. keyset: 품목코드 순으로 커서 다음부터 limit 건 (COUNT 없음, PK/IX_ITEMMST_FLAG_CD 범위 조회)
+    @Query("SELECT " + ROW_COLUMNS + " FROM ItemMst i " + ROW_FILTER +
+           " AND (:cursorCd IS NULL OR i.itemCd > :cursorCd) ORDER BY i.itemCd")
+    List<ItemRowView> seekRows(@Param("itemFlag") String itemFlag,
+                               @Param("allTypes") boolean allTypes,
+                               @Param("typeCds") List<String> typeCds,
+                               @Param("cursorCd") String cursorCd,
+                               Limit limit);
+
+    @Query("SELECT count(i) FROM ItemMst i " + ROW_FILTER)
+    long countRows(@Param("itemFlag") String itemFlag,
+                   @Param("allTypes") boolean allTypes,
+                   @Param("typeCds") List<String> typeCds);
+
+    String ROW_COLUMNS = "i.itemCd AS itemCd, i.itemNm AS itemNm, i.itemFlag AS itemFlag, i.itemSpec AS itemSpec, " +
+            "i.itemUnit AS itemUnit, i.itemCost AS itemCost, i.minQty AS minQty, i.maxQty AS maxQty, " +
+            "i.remark AS remark, i.typeCd AS typeCd";
+    String ROW_FILTER = "WHERE (:itemFlag IS NULL OR i.itemFlag = :itemFlag) " +
+            "AND (:allTypes = true OR i.typeCd IN :typeCds)";
+
+    // 목록용 Projection (엔티티 대신 필요한 컬럼만)
+    interface ItemRowView {
+        String getItemCd();
+        String getItemNm();
+        String getItemFlag();
+        String getItemSpec();
+        String getItemUnit();
+        Double getItemCost();
+        Integer getMinQty();
+        Integer getMaxQty();
+        String getRemark();
+        String getTypeCd();
+    }
+}
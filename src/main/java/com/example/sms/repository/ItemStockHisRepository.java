@@ -1,6 +1,7 @@
 package com.example.sms.repository;
 
 import com.example.sms.entity.ItemStockHis;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -30,7 +31,57 @@ public interface ItemStockHisRepository extends JpaRepository<ItemStockHis, Stri
                               @Param("toDt") LocalDateTime toDt,
                               Pageable pageable);
 
+    // 2-1. 복합 검색 (keyset: 커서 다음부터 limit 건, COUNT 없음)
+    // - 품목/창고는 일치 조건, 조건 조합별 쿼리를 나눠 (trxDt, stkHisCd) 인덱스를 범위 조회
+    //   (품목: IX_STKHIS_ITEM_DT, 창고: IX_STKHIS_WH_DT, 품목+창고: IX_STKHIS_ITEM_WH_DT, 없음: IX_STKHIS_DT)
+    // - 기간/커서가 없으면 SEEK_MIN_DT / SEEK_MAX_DT로 채워 항상 범위 조건으로 비교 (":x IS NULL OR" 조건은 인덱스 범위 조회 불가)
+    LocalDateTime SEEK_MIN_DT = LocalDateTime.of(1900, 1, 1, 0, 0);
+    LocalDateTime SEEK_MAX_DT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    String SEEK_MAX_KEY = "~";
+
+    String SEEK_RANGE = "h.trxDt >= :fromDt AND h.trxDt <= :toDt " +
+            "AND h.trxDt <= :cursorDt AND (h.trxDt < :cursorDt OR h.stkHisCd < :cursorKey) ";
+    String SEEK_ORDER = "ORDER BY h.trxDt DESC, h.stkHisCd DESC";
+
+    @Query("SELECT h FROM ItemStockHis h WHERE " + SEEK_RANGE + SEEK_ORDER)
+    List<ItemStockHis> seekAll(@Param("fromDt") LocalDateTime fromDt, @Param("toDt") LocalDateTime toDt,
+                               @Param("cursorDt") LocalDateTime cursorDt, @Param("cursorKey") String cursorKey,
+                               Limit limit);
+
+    @Query("SELECT h FROM ItemStockHis h WHERE h.itemCd = :itemCd AND " + SEEK_RANGE + SEEK_ORDER)
+    List<ItemStockHis> seekByItem(@Param("itemCd") String itemCd,
+                                  @Param("fromDt") LocalDateTime fromDt, @Param("toDt") LocalDateTime toDt,
+                                  @Param("cursorDt") LocalDateTime cursorDt, @Param("cursorKey") String cursorKey,
+                                  Limit limit);
+
+    @Query("SELECT h FROM ItemStockHis h WHERE h.whCd = :whCd AND " + SEEK_RANGE + SEEK_ORDER)
+    List<ItemStockHis> seekByWh(@Param("whCd") String whCd,
+                                @Param("fromDt") LocalDateTime fromDt, @Param("toDt") LocalDateTime toDt,
+                                @Param("cursorDt") LocalDateTime cursorDt, @Param("cursorKey") String cursorKey,
+                                Limit limit);
+
+    @Query("SELECT h FROM ItemStockHis h WHERE h.itemCd = :itemCd AND h.whCd = :whCd AND " + SEEK_RANGE + SEEK_ORDER)
+    List<ItemStockHis> seekByItemWh(@Param("itemCd") String itemCd, @Param("whCd") String whCd,
+                                    @Param("fromDt") LocalDateTime fromDt, @Param("toDt") LocalDateTime toDt,
+                                    @Param("cursorDt") LocalDateTime cursorDt, @Param("cursorKey") String cursorKey,
+                                    Limit limit);
+
+    default List<ItemStockHis> seek(String itemCd, String whCd, LocalDateTime fromDt, LocalDateTime toDt,
+                                    LocalDateTime cursorDt, String cursorKey, Limit limit) {
+        boolean item = itemCd != null && !itemCd.isBlank();
+        boolean wh = whCd != null && !whCd.isBlank();
+        LocalDateTime from = fromDt != null ? fromDt : SEEK_MIN_DT;
+        LocalDateTime to = toDt != null ? toDt : SEEK_MAX_DT;
+        LocalDateTime cDt = cursorDt != null ? cursorDt : SEEK_MAX_DT;
+        String cKey = cursorDt != null ? cursorKey : SEEK_MAX_KEY;
+        if (item && wh) return seekByItemWh(itemCd, whCd, from, to, cDt, cKey, limit);
+        if (item) return seekByItem(itemCd, from, to, cDt, cKey, limit);
+        if (wh) return seekByWh(whCd, from, to, cDt, cKey, limit);
+        return seekAll(from, to, cDt, cKey, limit);
+    }
+
     // ✅ 3. 수불부 조회 (잔고, 참조번호, 품목명 포함)
+    // - 잔고는 기록 시점에 저장된 값 사용 (StockLedgerService) → 윈도우 함수 재계산 없음
     @Query(value = """
         SELECT 
             h.stk_his_cd  AS stkHisCd, 
@@ -43,11 +94,8 @@ public interface ItemStockHisRepository extends JpaRepository<ItemStockHis, Stri
             h.cust_cd     AS custCd, 
             h.ref_no      AS refNo,     
             h.remark      AS remark,
-            /* 잔고 계산 */
-            SUM(h.qty_delta) OVER (
-                PARTITION BY h.item_cd 
-                ORDER BY h.trx_dt ASC, h.stk_his_cd ASC
-            ) AS balance
+            h.item_bal_qty AS balance,
+            h.bal_qty     AS whBalance
         FROM tb_itemstock_his h
         LEFT JOIN tb_itemmst i ON h.item_cd = i.item_cd
         WHERE (:itemCd IS NULL OR :itemCd = '' OR h.item_cd = :itemCd)
@@ -71,6 +119,84 @@ public interface ItemStockHisRepository extends JpaRepository<ItemStockHis, Stri
             Pageable pageable
     );
 
+    // ✅ 3-1. 수불부 조회 (keyset: 커서 다음부터 limit 건, COUNT 없음)
+    // - 2-1과 같은 방식: 조건 조합별 쿼리 + 범위 조건만 사용 → 해당 (품목/창고, 거래일시) 인덱스 범위 조회
+    String SEEK_BALANCE_SELECT = """
+        SELECT
+            h.stk_his_cd  AS stkHisCd,
+            h.trx_dt      AS trxDt,
+            h.io_type     AS ioType,
+            h.item_cd     AS itemCd,
+            i.item_nm     AS itemNm,
+            h.wh_cd       AS whCd,
+            h.qty_delta   AS qty,
+            h.cust_cd     AS custCd,
+            h.ref_no      AS refNo,
+            h.remark      AS remark,
+            h.item_bal_qty AS balance,
+            h.bal_qty     AS whBalance
+        FROM tb_itemstock_his h
+        LEFT JOIN tb_itemmst i ON h.item_cd = i.item_cd
+        WHERE h.trx_dt >= :fromDt AND h.trx_dt <= :toDt
+          AND h.trx_dt <= :cursorDt AND (h.trx_dt < :cursorDt OR h.stk_his_cd < :cursorKey)
+        """;
+    String SEEK_BALANCE_ORDER = " ORDER BY h.trx_dt DESC, h.stk_his_cd DESC FETCH FIRST :limit ROWS ONLY";
+
+    @Query(value = SEEK_BALANCE_SELECT + SEEK_BALANCE_ORDER, nativeQuery = true)
+    List<HistoryWithBalanceProjection> seekBalanceAll(
+            @Param("fromDt") LocalDateTime fromDt, @Param("toDt") LocalDateTime toDt,
+            @Param("cursorDt") LocalDateTime cursorDt, @Param("cursorKey") String cursorKey,
+            @Param("limit") int limit);
+
+    @Query(value = SEEK_BALANCE_SELECT + " AND h.item_cd = :itemCd" + SEEK_BALANCE_ORDER, nativeQuery = true)
+    List<HistoryWithBalanceProjection> seekBalanceByItem(
+            @Param("itemCd") String itemCd,
+            @Param("fromDt") LocalDateTime fromDt, @Param("toDt") LocalDateTime toDt,
+            @Param("cursorDt") LocalDateTime cursorDt, @Param("cursorKey") String cursorKey,
+            @Param("limit") int limit);
+
+    @Query(value = SEEK_BALANCE_SELECT + " AND h.wh_cd = :whCd" + SEEK_BALANCE_ORDER, nativeQuery = true)
+    List<HistoryWithBalanceProjection> seekBalanceByWh(
+            @Param("whCd") String whCd,
+            @Param("fromDt") LocalDateTime fromDt, @Param("toDt") LocalDateTime toDt,
+            @Param("cursorDt") LocalDateTime cursorDt, @Param("cursorKey") String cursorKey,
+            @Param("limit") int limit);
+
+    @Query(value = SEEK_BALANCE_SELECT + " AND h.item_cd = :itemCd AND h.wh_cd = :whCd" + SEEK_BALANCE_ORDER, nativeQuery = true)
+    List<HistoryWithBalanceProjection> seekBalanceByItemWh(
+            @Param("itemCd") String itemCd, @Param("whCd") String whCd,
+            @Param("fromDt") LocalDateTime fromDt, @Param("toDt") LocalDateTime toDt,
+            @Param("cursorDt") LocalDateTime cursorDt, @Param("cursorKey") String cursorKey,
+            @Param("limit") int limit);
+
+    default List<HistoryWithBalanceProjection> seekHistoryWithBalance(String itemCd, String whCd,
+                                                                      LocalDateTime fromDt, LocalDateTime toDt,
+                                                                      LocalDateTime cursorDt, String cursorKey, int limit) {
+        boolean item = itemCd != null && !itemCd.isBlank();
+        boolean wh = whCd != null && !whCd.isBlank();
+        LocalDateTime from = fromDt != null ? fromDt : SEEK_MIN_DT;
+        LocalDateTime to = toDt != null ? toDt : SEEK_MAX_DT;
+        LocalDateTime cDt = cursorDt != null ? cursorDt : SEEK_MAX_DT;
+        String cKey = cursorDt != null ? cursorKey : SEEK_MAX_KEY;
+        if (item && wh) return seekBalanceByItemWh(itemCd, whCd, from, to, cDt, cKey, limit);
+        if (item) return seekBalanceByItem(itemCd, from, to, cDt, cKey, limit);
+        if (wh) return seekBalanceByWh(whCd, from, to, cDt, cKey, limit);
+        return seekBalanceAll(from, to, cDt, cKey, limit);
+    }
+
+    // 수불부 건수 (keyset 조회에서 전체 건수를 요청한 경우만)
+    @Query(value = """
+        SELECT count(*) FROM tb_itemstock_his h
+        WHERE (:itemCd IS NULL OR :itemCd = '' OR h.item_cd = :itemCd)
+          AND (:whCd IS NULL OR :whCd = '' OR h.wh_cd = :whCd)
+          AND (:fromDt IS NULL OR h.trx_dt >= :fromDt)
+          AND (:toDt IS NULL OR h.trx_dt <= :toDt)
+        """, nativeQuery = true)
+    long countHistory(@Param("itemCd") String itemCd,
+                      @Param("whCd") String whCd,
+                      @Param("fromDt") LocalDateTime fromDt,
+                      @Param("toDt") LocalDateTime toDt);
+
     // ✅ Projection 인터페이스 수정
     interface HistoryWithBalanceProjection {
         String getStkHisCd();
@@ -80,7 +206,8 @@ public interface ItemStockHisRepository extends JpaRepository<ItemStockHis, Stri
         String getItemNm();
         String getWhCd();
         BigDecimal getQty();
-        BigDecimal getBalance();
+        BigDecimal getBalance();    // 품목 전체 잔고
+        BigDecimal getWhBalance();  // 품목 + 창고 잔고
         String getCustCd();
         String getRefNo();
         String getRemark();
@@ -2,6 +2,7 @@ package com.example.sms.repository;
 
 import com.example.sms.entity.ItemStock;
 import com.example.sms.entity.ItemStockId;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -9,8 +10,9 @@ import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemStockRepository extends JpaRepository<ItemStock, ItemStockId> {
+public interface ItemStockRepository extends JpaRepository<ItemStock, ItemStockId>, ItemStockRepositoryCustom {
 
     // 기존: GET /api/stocks?itemCd=&whCd=
     @Query("""
@@ -23,6 +25,11 @@ public interface ItemStockRepository extends JpaRepository<ItemStock, ItemStockI
                            @Param("whCd") String whCd,
                            Pageable pageable);
 
+    // ✅ 행 잠금 조회 (SELECT ... FOR UPDATE) - 여러 행을 잠글 때는 호출 측에서 키 순서대로 호출 (교착 방지)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemStock s where s.id = :id")
+    Optional<ItemStock> findForUpdate(@Param("id") ItemStockId id);
+
     // ✅ 추가1) 품목 하나의 창고별 재고 목록
     List<ItemStock> findByIdItemCd(String itemCd);
 
@@ -45,4 +52,14 @@ public interface ItemStockRepository extends JpaRepository<ItemStock, ItemStockI
         order by s.id.itemCd
     """)
     List<StockSummaryView> summary();
+
+    // ✅ 모든 재고 변동의 공통 진입점 (부족 시 예외, 증감 MERGE / 할당 해제는 ItemStockRepositoryImpl)
+    default void applyDelta(String itemCd, String whCd, BigDecimal stockDelta, BigDecimal allocDelta) {
+        BigDecimal sd = stockDelta == null ? BigDecimal.ZERO : stockDelta;
+        BigDecimal ad = allocDelta == null ? BigDecimal.ZERO : allocDelta;
+        if (mergeDelta(itemCd, whCd, sd, ad) == 0) {
+            throw new IllegalArgumentException("재고가 부족합니다. (품목: " + itemCd + ", 창고: " + whCd
+                    + ", 재고변동: " + sd + ", 할당변동: " + ad + ")");
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.sms.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * 재고 증감 SQL (ItemStockRepositoryImpl에서 JDBC로 실행)
+ */
+public interface ItemStockRepositoryCustom {
+
+    // 반환값 0 = 결과 수량이 음수가 되어 반영되지 않음 (재고/할당 부족)
+    int mergeDelta(String itemCd, String whCd, BigDecimal stockDelta, BigDecimal allocDelta);
+
+    // 반환값 0 = 재고 행 없음
+    int releaseAlloc(String itemCd, String whCd, BigDecimal qty);
+}
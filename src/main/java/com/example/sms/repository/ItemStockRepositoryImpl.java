@@ -0,0 +1,97 @@
+package com.example.sms.repository;
+
+import com.example.sms.entity.ItemStock;
+import com.example.sms.entity.ItemStockId;
+import com.example.sms.service.StockEventBus;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 재고 증감 (단일 MERGE: 행이 있으면 음수 방지 조건부 UPDATE, 없으면 INSERT)
+ * - findById → save 왕복 없이 DB에서 원자적으로 반영되므로 동시 입출고 시에도 갱신 유실이 없음
+ * - 없는 행에 동시에 MERGE하면 둘 다 NOT MATCHED로 INSERT를 시도해 늦은 쪽이 ORA-00001 → 행이 생겼으므로 한 번 더 MERGE (UPDATE로 반영)
+ * - JPA 네이티브 쿼리는 제약 위반 시 트랜잭션 전체가 rollback-only가 되므로 JDBC로 실행 (Oracle은 실패한 문장만 취소)
+ * - 실행 전 영속성 컨텍스트를 flush하고, 이미 읽어 둔 같은 재고 엔티티는 다시 읽어 값이 어긋나지 않게 함
+ * - 실제로 반영된 증감만 재고 변동 이벤트(StockEventBus)로 발행 (커밋 후 전달)
+ */
+@RequiredArgsConstructor
+public class ItemStockRepositoryImpl implements ItemStockRepositoryCustom {
+
+    private static final String MERGE_SQL = """
+        MERGE INTO TB_ITEMSTOCK s
+        USING (SELECT ? AS ITEM_CD, ? AS WH_CD, ? AS STOCK_DELTA, ? AS ALLOC_DELTA FROM DUAL) d
+        ON (s.ITEM_CD = d.ITEM_CD AND s.WH_CD = d.WH_CD)
+        WHEN MATCHED THEN
+            UPDATE SET s.STOCK_QTY = NVL(s.STOCK_QTY, 0) + d.STOCK_DELTA,
+                       s.ALLOC_QTY = NVL(s.ALLOC_QTY, 0) + d.ALLOC_DELTA
+            WHERE NVL(s.STOCK_QTY, 0) + d.STOCK_DELTA >= 0
+              AND NVL(s.ALLOC_QTY, 0) + d.ALLOC_DELTA >= 0
+        WHEN NOT MATCHED THEN
+            INSERT (ITEM_CD, WH_CD, STOCK_QTY, ALLOC_QTY)
+            VALUES (d.ITEM_CD, d.WH_CD, d.STOCK_DELTA, d.ALLOC_DELTA)
+            WHERE d.STOCK_DELTA >= 0 AND d.ALLOC_DELTA >= 0
+        """;
+
+    // 할당 해제 (예약 해제 시 사용, 0 미만으로 내려가지 않도록 보정)
+    private static final String RELEASE_ALLOC_SQL = """
+        UPDATE TB_ITEMSTOCK s
+           SET s.ALLOC_QTY = GREATEST(NVL(s.ALLOC_QTY, 0) - ?, 0)
+         WHERE s.ITEM_CD = ?
+           AND s.WH_CD = ?
+        """;
+
+    // 해제 전 현재 할당량 (행 잠금 → 실제 해제량 = MIN(할당, 요청))
+    private static final String LOCK_ALLOC_SQL = """
+        SELECT NVL(ALLOC_QTY, 0) FROM TB_ITEMSTOCK
+         WHERE ITEM_CD = ? AND WH_CD = ?
+           FOR UPDATE
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final StockEventBus stockEventBus;
+
+    @Override
+    public int mergeDelta(String itemCd, String whCd, BigDecimal stockDelta, BigDecimal allocDelta) {
+        entityManager.flush();
+        int n;
+        try {
+            n = jdbcTemplate.update(MERGE_SQL, itemCd, whCd, stockDelta, allocDelta);
+        } catch (DuplicateKeyException e) {
+            n = jdbcTemplate.update(MERGE_SQL, itemCd, whCd, stockDelta, allocDelta);
+        }
+        refreshIfLoaded(itemCd, whCd);
+        if (n > 0) stockEventBus.publish(itemCd, whCd, stockDelta, allocDelta);
+        return n;
+    }
+
+    @Override
+    public int releaseAlloc(String itemCd, String whCd, BigDecimal qty) {
+        entityManager.flush();
+        List<BigDecimal> alloc = jdbcTemplate.queryForList(LOCK_ALLOC_SQL, BigDecimal.class, itemCd, whCd);
+        if (alloc.isEmpty()) return 0;
+        int n = jdbcTemplate.update(RELEASE_ALLOC_SQL, qty, itemCd, whCd);
+        refreshIfLoaded(itemCd, whCd);
+        if (n > 0 && qty != null) {
+            BigDecimal released = alloc.get(0).min(qty).max(BigDecimal.ZERO);
+            stockEventBus.publish(itemCd, whCd, BigDecimal.ZERO, released.negate());
+        }
+        return n;
+    }
+
+    // 이 트랜잭션에서 이미 읽은 재고 엔티티만 다시 읽음 (읽지 않은 행은 프록시만 생기고 조회 없음)
+    private void refreshIfLoaded(String itemCd, String whCd) {
+        ItemStock ref = entityManager.getReference(ItemStock.class, new ItemStockId(itemCd, whCd));
+        if (Hibernate.isInitialized(ref)) {
+            entityManager.refresh(ref);
+        } else {
+            entityManager.detach(ref);
+        }
+    }
+}
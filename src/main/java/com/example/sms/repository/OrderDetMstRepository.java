@@ -2,10 +2,17 @@ package com.example.sms.repository;
 
 import com.example.sms.entity.OrderDetIdMst;
 import com.example.sms.entity.OrderDetMst;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderDetMstRepository extends JpaRepository<OrderDetMst, OrderDetIdMst> {
@@ -13,9 +20,79 @@ public interface OrderDetMstRepository extends JpaRepository<OrderDetMst, OrderD
     // 주문코드로 상세 조회 (기존)
     List<OrderDetMst> findByIdOrderCdOrderByIdSeqNoAsc(String orderCd);
 
+    // 여러 주문의 상세 한 번에 조회 (목록 화면, IN 목록은 1000건 이하로 나눠 호출)
+    List<OrderDetMst> findByIdOrderCdInOrderByIdOrderCdAscIdSeqNoAsc(Collection<String> orderCds);
+
+    // 상태별 작업 대기열 (IX_ORDER_DET_STATUS, 정렬/페이징은 DB에서)
+    List<OrderDetMst> findByStatus(String status, Sort sort);
+
+    Page<OrderDetMst> findByStatus(String status, Pageable pageable);
+
+    // 주문 삭제 전 상태별 라인 수 (상태별 건수 차감용)
+    @Query("select d.status as status, count(d) as cnt from OrderDetMst d where d.id.orderCd = :orderCd group by d.status")
+    List<StatusCountView> countByStatus(@Param("orderCd") String orderCd);
+
+    interface StatusCountView {
+        String getStatus();
+        Long getCnt();
+    }
+
     // 주문코드 기준 삭제 (기존)
     void deleteByIdOrderCd(String orderCd);
 
+    // ✅ 출고 대상 라인 잠금 조회 (SELECT ... FOR UPDATE, 순번 순서로 잠금 → 동시 출고 간 교착 방지)
+    // - 다른 요청이 먼저 잠근 라인은 그 요청이 끝난 뒤의 상태로 읽힘
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from OrderDetMst d where d.id.orderCd = :orderCd and d.id.seqNo in :seqNos order by d.id.seqNo")
+    List<OrderDetMst> findForUpdate(@Param("orderCd") String orderCd, @Param("seqNos") Collection<Integer> seqNos);
+
+    // ✅ 출고완료 처리 (주문/창고 단위 일괄 UPDATE, 출고대기(o2) 라인만 변경)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE OrderDetMst d
+           SET d.status = 'o3', d.whCd = :whCd
+         WHERE d.id.orderCd = :orderCd
+           AND d.id.seqNo IN :seqNos
+           AND d.status = 'o2'
+    """)
+    int markShipped(@Param("orderCd") String orderCd,
+                    @Param("whCd") String whCd,
+                    @Param("seqNos") List<Integer> seqNos);
+
+    // ✅ 상태 전환 (주문 단위 또는 지정 라인, 현재 상태가 fromStatus인 라인만 변경)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE OrderDetMst d
+           SET d.status = :toStatus
+         WHERE d.id.orderCd = :orderCd
+           AND (:allLines = true OR d.id.seqNo IN :seqNos)
+           AND d.status = :fromStatus
+    """)
+    int transition(@Param("orderCd") String orderCd,
+                   @Param("allLines") boolean allLines,
+                   @Param("seqNos") Collection<Integer> seqNos,
+                   @Param("fromStatus") String fromStatus,
+                   @Param("toStatus") String toStatus);
+
+    // ✅ 상태 전환 (조건 지정: 품목/창고, 빈 조건은 무시)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE OrderDetMst d
+           SET d.status = :toStatus
+         WHERE (:itemCd IS NULL OR d.itemCd = :itemCd)
+           AND (:whCd IS NULL OR d.whCd = :whCd)
+           AND d.status = :fromStatus
+    """)
+    int transitionWhere(@Param("itemCd") String itemCd,
+                        @Param("whCd") String whCd,
+                        @Param("fromStatus") String fromStatus,
+                        @Param("toStatus") String toStatus);
+
+    // 출고창고 지정 (라인 1건)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OrderDetMst d SET d.whCd = :whCd WHERE d.id.orderCd = :orderCd AND d.id.seqNo = :seqNo")
+    int updateWarehouse(@Param("orderCd") String orderCd, @Param("seqNo") Integer seqNo, @Param("whCd") String whCd);
+
     // ✅ 전체/검색 공용 (orderCd/itemCd는 부분검색, status는 정확검색)
     @Query("""
         SELECT d
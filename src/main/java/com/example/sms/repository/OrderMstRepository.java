@@ -1,8 +1,13 @@
 package com.example.sms.repository;
 
 import com.example.sms.entity.OrderMst;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface OrderMstRepository extends JpaRepository<OrderMst, String> {
@@ -11,4 +16,19 @@ public interface OrderMstRepository extends JpaRepository<OrderMst, String> {
     List<OrderMst> findAllByOrderByOrderDtDesc();
 
     List<OrderMst> findAllByOrderByOrderDtAsc();
+
+    // 주문 목록 페이지 (일자 / 거래처 / 상세 상태 필터, 상태는 해당 상태 라인이 있는 주문)
+    @Query("""
+        SELECT o FROM OrderMst o
+        WHERE (:fromDt IS NULL OR o.orderDt >= :fromDt)
+          AND (:toDt IS NULL OR o.orderDt <= :toDt)
+          AND (:custCd IS NULL OR :custCd = '' OR o.custCd = :custCd)
+          AND (:status IS NULL OR :status = '' OR EXISTS (
+                SELECT 1 FROM OrderDetMst d WHERE d.id.orderCd = o.orderCd AND d.status = :status))
+    """)
+    Page<OrderMst> browse(@Param("fromDt") LocalDate fromDt,
+                          @Param("toDt") LocalDate toDt,
+                          @Param("custCd") String custCd,
+                          @Param("status") String status,
+                          Pageable pageable);
 }
@@ -6,6 +6,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface ProdRepository extends JpaRepository<Prod, String> {
 
     @Query("""
@@ -17,4 +20,7 @@ public interface ProdRepository extends JpaRepository<Prod, String> {
     Page<Prod> search(@Param("itemCd") String itemCd,
                       @Param("status") String status,
                       Pageable pageable);
+
+    // 진행 중(미완료) 생산계획 조회 (MRP용)
+    List<Prod> findByStatusIn(Collection<String> statuses);
 }
@@ -2,8 +2,15 @@ package com.example.sms.repository;
 
 import com.example.sms.entity.PurchaseDetIdMst;
 import com.example.sms.entity.PurchaseDetMst;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PurchaseDetMstRepository extends JpaRepository<PurchaseDetMst, PurchaseDetIdMst> {
@@ -11,6 +18,85 @@ public interface PurchaseDetMstRepository extends JpaRepository<PurchaseDetMst,
     // 특정 발주번호의 상세 목록
     List<PurchaseDetMst> findByIdPurchaseCdOrderByIdSeqNoAsc(String purchaseCd);
 
+    // 상태별 작업 대기열 (IX_PURCHASE_DET_STATUS, 정렬/페이징은 DB에서)
+    List<PurchaseDetMst> findByStatus(String status, Sort sort);
+
+    Page<PurchaseDetMst> findByStatus(String status, Pageable pageable);
+
+    // 발주 삭제 전 상태별 라인 수 (상태별 건수 차감용)
+    @Query("select d.status as status, count(d) as cnt from PurchaseDetMst d where d.id.purchaseCd = :purchaseCd group by d.status")
+    List<StatusCountView> countByStatus(@Param("purchaseCd") String purchaseCd);
+
+    interface StatusCountView {
+        String getStatus();
+        Long getCnt();
+    }
+
+    // 발주의 품목 코드 (취소/삭제 시 재주문점 재평가 대상)
+    @Query("select distinct d.itemCd from PurchaseDetMst d where d.id.purchaseCd = :purchaseCd")
+    List<String> findItemCds(@Param("purchaseCd") String purchaseCd);
+
+    // ✅ 입고완료 처리 (발주/창고 단위 일괄 UPDATE, 확정(p2) 라인만 변경)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE PurchaseDetMst d
+           SET d.status = 'p3', d.whCd = :whCd
+         WHERE d.id.purchaseCd = :purchaseCd
+           AND d.id.seqNo IN :seqNos
+           AND d.status = 'p2'
+    """)
+    int markReceived(@Param("purchaseCd") String purchaseCd,
+                     @Param("whCd") String whCd,
+                     @Param("seqNos") List<Integer> seqNos);
+
+    // ✅ 상태 전환 (발주 단위 또는 지정 라인, 현재 상태가 fromStatus인 라인만 변경)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE PurchaseDetMst d
+           SET d.status = :toStatus
+         WHERE d.id.purchaseCd = :purchaseCd
+           AND (:allLines = true OR d.id.seqNo IN :seqNos)
+           AND d.status = :fromStatus
+    """)
+    int transition(@Param("purchaseCd") String purchaseCd,
+                   @Param("allLines") boolean allLines,
+                   @Param("seqNos") Collection<Integer> seqNos,
+                   @Param("fromStatus") String fromStatus,
+                   @Param("toStatus") String toStatus);
+
+    // ✅ 상태 전환 (조건 지정: 품목/창고, 빈 조건은 무시)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE PurchaseDetMst d
+           SET d.status = :toStatus
+         WHERE (:itemCd IS NULL OR d.itemCd = :itemCd)
+           AND (:whCd IS NULL OR d.whCd = :whCd)
+           AND d.status = :fromStatus
+    """)
+    int transitionWhere(@Param("itemCd") String itemCd,
+                        @Param("whCd") String whCd,
+                        @Param("fromStatus") String fromStatus,
+                        @Param("toStatus") String toStatus);
+
+    // 입고창고 지정 (라인 1건)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PurchaseDetMst d SET d.whCd = :whCd WHERE d.id.purchaseCd = :purchaseCd AND d.id.seqNo = :seqNo")
+    int updateWarehouse(@Param("purchaseCd") String purchaseCd, @Param("seqNo") Integer seqNo, @Param("whCd") String whCd);
+
     // 발주번호로 상세 전체 삭제(수정 시 갈아끼우기 용)
     void deleteByIdPurchaseCd(String purchaseCd);
+
+    // 품목별 미입고 발주수량 (p1:등록, p2:확정)
+    interface OpenQtyView {
+        String getItemCd();
+        Long getOpenQty();
+    }
+
+    @Query("""
+        select d.itemCd as itemCd, coalesce(sum(d.purchaseQty), 0) as openQty
+        from PurchaseDetMst d
+        where d.status in ('p1', 'p2')
+        group by d.itemCd
+    """)
+    List<OpenQtyView> sumOpenQtyByItem();
 }
@@ -0,0 +1,86 @@
+package com.example.sms.repository;
+
+import com.example.sms.entity.ItemIo;
+import com.example.sms.entity.ItemStockHis;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * 입출고(TB_ITEM_IO) / 재고이력(TB_ITEMSTOCK_HIS) JDBC batch INSERT
+ * - 키를 직접 지정하는 엔티티는 JPA save 시 merge(건별 SELECT)가 발생하므로 대량 등록은 여기서 처리
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_IO = """
+        INSERT INTO TB_ITEM_IO (IO_CD, IO_DT, IO_TYPE, ITEM_CD, QTY, FROM_WH_CD, TO_WH_CD, REF_TB, REF_CD, REF_SEQ, REMARK)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_HIS = """
+        INSERT INTO TB_ITEMSTOCK_HIS (STK_HIS_CD, ITEM_CD, WH_CD, TRX_DT, CUST_CD, IO_CD, IO_TYPE,
+                                      QTY_DELTA, ALLOC_DELTA, REF_TB, REF_NO, REF_SEQ, REMARK, BAL_QTY, ITEM_BAL_QTY)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertIos(List<ItemIo> ios) {
+        if (ios.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_IO, ios, BATCH_SIZE, (ps, io) -> {
+            ps.setString(1, io.getIoCd());
+            ps.setString(2, io.getIoDt());
+            ps.setString(3, io.getIoType());
+            ps.setString(4, io.getItemMst() != null ? io.getItemMst().getItemCd() : null);
+            setInt(ps, 5, io.getQty());
+            ps.setString(6, io.getFromWh() != null ? io.getFromWh().getWhCd() : null);
+            ps.setString(7, io.getToWh() != null ? io.getToWh().getWhCd() : null);
+            ps.setString(8, io.getRefTb());
+            ps.setString(9, io.getRefCd());
+            setInt(ps, 10, io.getRefSeq());
+            ps.setString(11, io.getRemark());
+        });
+    }
+
+    public void insertHistories(List<ItemStockHis> histories) {
+        if (histories.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_HIS, histories, BATCH_SIZE, (ps, h) -> {
+            ps.setString(1, h.getStkHisCd());
+            ps.setString(2, h.getItemCd());
+            ps.setString(3, h.getWhCd());
+            ps.setTimestamp(4, h.getTrxDt() != null ? Timestamp.valueOf(h.getTrxDt()) : null);
+            ps.setString(5, h.getCustCd());
+            ps.setString(6, h.getIoCd());
+            ps.setString(7, h.getIoType());
+            setDecimal(ps, 8, h.getQtyDelta());
+            setDecimal(ps, 9, h.getAllocDelta());
+            ps.setString(10, h.getRefTb());
+            ps.setString(11, h.getRefNo());
+            setInt(ps, 12, h.getRefSeq());
+            ps.setString(13, h.getRemark());
+            setDecimal(ps, 14, h.getBalQty());
+            setDecimal(ps, 15, h.getItemBalQty());
+        });
+    }
+
+    private static void setInt(PreparedStatement ps, int idx, Integer v) throws SQLException {
+        if (v == null) ps.setNull(idx, Types.INTEGER);
+        else ps.setInt(idx, v);
+    }
+
+    private static void setDecimal(PreparedStatement ps, int idx, BigDecimal v) throws SQLException {
+        if (v == null) ps.setNull(idx, Types.NUMERIC);
+        else ps.setBigDecimal(idx, v);
+    }
+}
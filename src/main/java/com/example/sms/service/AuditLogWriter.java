@@ -0,0 +1,142 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.LogMst;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 시스템 로그(TB_LOG) 비동기 일괄 저장기
+ * - 호출 트랜잭션이 커밋된 뒤에만 큐에 적재 (롤백된 작업의 로그는 남기지 않음)
+ * - 백그라운드에서 큐를 비우며 JDBC batch INSERT (업무 트랜잭션은 로그 I/O를 기다리지 않음)
+ * - 큐가 가득 차면 설정에 따라 버리거나(DROP) 호출 스레드에서 직접 저장(CALLER_RUNS)
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+
+    public enum OverflowPolicy { DROP, CALLER_RUNS }
+
+    private static final String INSERT_SQL = """
+        INSERT INTO TB_LOG (LOG_NO, LOG_DT, LOG_USER, ACTION_TYPE, MENU_NAME, TARGET_KEY, TARGET_NAME, CHANGE_CONTENTS)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate txTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+
+    // 잠금 없는 큐 + 별도 카운터로 용량 제한
+    private final ConcurrentLinkedQueue<LogMst> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong dropCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${sms.audit.capacity:10000}") int capacity,
+                          @Value("${sms.audit.batch-size:200}") int batchSize,
+                          @Value("${sms.audit.overflow:DROP}") OverflowPolicy overflowPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void submit(LogMst entry) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    private void enqueue(LogMst entry) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+                writeBatch(List.of(entry));
+            } else {
+                dropCount.incrementAndGet();
+            }
+            return;
+        }
+        queue.offer(entry);
+    }
+
+    @Scheduled(fixedDelayString = "${sms.audit.flush-interval-ms:200}")
+    public synchronized void flush() {
+        List<LogMst> batch = new ArrayList<>(batchSize);
+        LogMst e;
+        while ((e = queue.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(e);
+            if (batch.size() >= batchSize) {
+                writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) writeBatch(batch);
+    }
+
+    // 종료 시 남은 로그 저장
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void writeBatch(List<LogMst> batch) {
+        try {
+            txTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, l) -> {
+                        ps.setString(1, l.getLogNo());
+                        ps.setTimestamp(2, Timestamp.valueOf(l.getLogDt()));
+                        ps.setString(3, l.getLogUser());
+                        ps.setString(4, l.getActionType());
+                        ps.setString(5, l.getMenuName());
+                        ps.setString(6, l.getTargetKey());
+                        ps.setString(7, l.getTargetName());
+                        ps.setString(8, l.getChangeContents());
+                    }));
+            writtenCount.addAndGet(batch.size());
+        } catch (Exception ex) {
+            dropCount.addAndGet(batch.size());
+            log.error("시스템 로그 저장 실패 ({}건)", batch.size(), ex);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "queueDepth", depth.get(),
+                "capacity", capacity,
+                "dropCount", dropCount.get(),
+                "writtenCount", writtenCount.get(),
+                "overflowPolicy", overflowPolicy.name()
+        );
+    }
+}
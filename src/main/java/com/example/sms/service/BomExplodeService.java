@@ -0,0 +1,171 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.BomMst;
+import com.example.sms.repository.BomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 다단계 BOM 전개
+ * - 하위 BOM이 있는 자재(반제품)는 끝까지 펼쳐 최하위 자재 소요량으로 환산
+ * - 소요량 = 사용량 × (1 + Loss율/100)
+ * - 제품 1개당 소요량을 캐시하고, BOM 저장/삭제 시 해당 품목이 포함된 전개 결과만 무효화
+ */
+@Service
+@RequiredArgsConstructor
+public class BomExplodeService {
+
+    private final BomRepository bomRepository;
+
+    // 제품코드 → 1개당 최하위 자재 소요량
+    private final Map<String, Exploded> cache = new ConcurrentHashMap<>();
+    // 무효화가 일어날 때마다 증가 (계산 중 BOM이 바뀌면 그 결과는 캐시에 넣지 않음)
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 제품 1개 생산에 필요한 최하위 자재별 소요량
+     */
+    @Transactional(readOnly = true)
+    public Map<String, BigDecimal> perUnit(String pItemCd) {
+        Exploded hit = cache.get(pItemCd);
+        if (hit != null) return hit.perUnit();
+
+        long gen = generation.get();
+        Map<String, Exploded> computed = new HashMap<>();
+        Map<String, List<BomMst>> bomMap = loadTree(pItemCd, computed);
+
+        Exploded result = explode(pItemCd, bomMap, computed, new ArrayDeque<>());
+
+        // 전개 도중 BOM이 변경되지 않았을 때만 캐시 (하위 반제품 결과도 함께 저장)
+        if (generation.get() == gen) {
+            computed.forEach(cache::putIfAbsent);
+        }
+        return result.perUnit();
+    }
+
+    /**
+     * 생산수량 기준 소요량
+     */
+    @Transactional(readOnly = true)
+    public Map<String, BigDecimal> required(String pItemCd, BigDecimal planQty) {
+        Map<String, BigDecimal> req = new LinkedHashMap<>();
+        perUnit(pItemCd).forEach((matCd, qty) -> req.put(matCd, qty.multiply(planQty)));
+        return req;
+    }
+
+    /**
+     * 품목의 BOM이 바뀌었을 때 호출: 전개 경로에 해당 품목이 있는 캐시를 모두 제거
+     */
+    public void invalidate(String itemCd) {
+        generation.incrementAndGet();
+        cache.entrySet().removeIf(e -> e.getValue().nodes().contains(itemCd));
+    }
+
+    /**
+     * 트랜잭션 안에서 BOM을 바꾼 경우: 지금 한 번, 커밋 후 한 번 더 무효화
+     * (커밋 전에 다른 요청이 이전 BOM으로 다시 캐시하는 것 방지)
+     */
+    public void invalidateOnCommit(String itemCd) {
+        invalidate(itemCd);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(itemCd);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    // 레벨 단위로 BOM 조회 (레벨당 쿼리 1회, 이미 캐시된 반제품은 조회하지 않고 결과를 가져다 씀)
+    private Map<String, List<BomMst>> loadTree(String rootCd, Map<String, Exploded> computed) {
+        Map<String, List<BomMst>> bomMap = new HashMap<>();
+        Set<String> frontier = Set.of(rootCd);
+
+        while (!frontier.isEmpty()) {
+            for (String cd : frontier) bomMap.put(cd, new ArrayList<>());
+            for (BomMst b : bomRepository.findByPItemCdIn(frontier)) {
+                bomMap.get(b.getPItemCd()).add(b);
+            }
+
+            Set<String> next = new HashSet<>();
+            for (String cd : frontier) {
+                for (BomMst b : bomMap.get(cd)) {
+                    String child = b.getSItemCd();
+                    if (bomMap.containsKey(child) || computed.containsKey(child)) continue;
+                    Exploded cached = cache.get(child);
+                    if (cached != null) computed.put(child, cached);
+                    else next.add(child);
+                }
+            }
+            frontier = next;
+        }
+        return bomMap;
+    }
+
+    private Exploded explode(String itemCd,
+                             Map<String, List<BomMst>> bomMap,
+                             Map<String, Exploded> computed,
+                             Deque<String> path) {
+        if (path.contains(itemCd)) {
+            List<String> cycle = new ArrayList<>(path);
+            Collections.reverse(cycle);
+            cycle.add(itemCd);
+            throw new IllegalArgumentException("BOM 순환 참조: " + String.join(" > ", cycle));
+        }
+
+        Exploded done = computed.get(itemCd);
+        if (done != null) return done;
+
+        path.push(itemCd);
+        Map<String, BigDecimal> perUnit = new LinkedHashMap<>();
+        Set<String> nodes = new HashSet<>();
+        nodes.add(itemCd);
+
+        for (BomMst b : bomMap.getOrDefault(itemCd, List.of())) {
+            String child = b.getSItemCd();
+            BigDecimal qty = lineQty(b);
+            if (qty.signum() == 0) continue;
+
+            Exploded known = computed.get(child);
+            boolean isAssembly = known != null ? !known.perUnit().isEmpty()
+                    : !bomMap.getOrDefault(child, List.of()).isEmpty();
+            if (isAssembly) {
+                Exploded sub = explode(child, bomMap, computed, path);
+                sub.perUnit().forEach((matCd, q) -> perUnit.merge(matCd, q.multiply(qty), BigDecimal::add));
+                nodes.addAll(sub.nodes());
+            } else {
+                perUnit.merge(child, qty, BigDecimal::add);
+                nodes.add(child);
+            }
+        }
+        path.pop();
+
+        Exploded result = new Exploded(Collections.unmodifiableMap(perUnit), Collections.unmodifiableSet(nodes));
+        computed.put(itemCd, result);
+        return result;
+    }
+
+    private static BigDecimal lineQty(BomMst b) {
+        BigDecimal use = b.getUseQty() == null ? BigDecimal.ZERO : BigDecimal.valueOf(b.getUseQty());
+        if (b.getLossRt() == null || b.getLossRt() == 0) return use;
+        BigDecimal lossFactor = BigDecimal.ONE.add(BigDecimal.valueOf(b.getLossRt()).movePointLeft(2));
+        return use.multiply(lossFactor);
+    }
+
+    private record Exploded(Map<String, BigDecimal> perUnit, Set<String> nodes) {
+    }
+}
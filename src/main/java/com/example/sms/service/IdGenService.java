@@ -0,0 +1,75 @@
+package com.example.sms.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 공통 키 생성기 (입출고/이력/로그/주문/발주/생산 번호)
+ * - 형식: 접두어 + yyMMdd + 10자리 일련번호 (예: IO2501070000001001 → 18자리, IO_CD 20자리 이내)
+ * - 일련번호는 DB 시퀀스에서 BLOCK_SIZE 단위로 미리 받아 메모리에서 나눠주므로
+ *   같은 밀리초에 여러 건을 만들어도 중복되지 않고, 서버가 여러 대여도 구간이 겹치지 않음
+ */
+@Service
+@RequiredArgsConstructor
+public class IdGenService {
+
+    private static final String SEQ_NAME = "SEQ_SMS_KEY";
+    private static final long BLOCK_SIZE = 1000;
+    private static final long COUNTER_MOD = 10_000_000_000L; // 10자리
+    private static final DateTimeFormatter YMD = DateTimeFormatter.ofPattern("yyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 현재 사용 중인 번호 구간 (소진 시에만 교체)
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(new AtomicLong(0), 0));
+
+    @PostConstruct
+    void initSequence() {
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE " + SEQ_NAME + " START WITH 1 INCREMENT BY " + BLOCK_SIZE + " NOCACHE");
+        } catch (DataAccessException e) {
+            // 이미 존재하면(ORA-00955) 그대로 사용
+        }
+    }
+
+    public String next(String prefix) {
+        return prefix + LocalDate.now().format(YMD) + pad(nextValue() % COUNTER_MOD);
+    }
+
+    private long nextValue() {
+        while (true) {
+            Block b = current.get();
+            long v = b.next().getAndIncrement();
+            if (v < b.limit()) return v;
+
+            // 구간 소진: 한 스레드만 새 구간을 받아오고 나머지는 교체된 구간을 사용
+            synchronized (this) {
+                if (current.get() == b) {
+                    current.set(fetchBlock());
+                }
+            }
+        }
+    }
+
+    private Block fetchBlock() {
+        Long start = jdbcTemplate.queryForObject("SELECT " + SEQ_NAME + ".NEXTVAL FROM DUAL", Long.class);
+        if (start == null) throw new IllegalStateException("키 시퀀스 조회 실패: " + SEQ_NAME);
+        return new Block(new AtomicLong(start), start + BLOCK_SIZE);
+    }
+
+    private static String pad(long v) {
+        String s = Long.toString(v);
+        return "0".repeat(10 - s.length()) + s;
+    }
+
+    private record Block(AtomicLong next, long limit) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.sms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 멱등 키 저장소 (Idempotency-Key 중복 요청 처리)
+ * - 완료된 응답: 크기 / TTL 제한 LRU (JVM 내) + TB_IDEMPOTENCY (메모리에 없을 때만 조회)
+ * - 처리 중인 키: 같은 키의 동시 요청은 먼저 온 요청의 결과를 기다렸다가 그 응답을 그대로 받음
+ * - 2xx가 아닌 응답 / 예외로 끝난 요청 / 본문이 max-body-bytes를 넘는 응답은 저장하지 않음 (키 해제 → 재시도 시 다시 실행)
+ */
+@Slf4j
+@Service
+public class IdempotencyStore {
+
+    public enum State { EXECUTE, REPLAY, IN_PROGRESS }
+
+    /** 보관된 응답 */
+    public record StoredResponse(int status, String contentType, byte[] body, String requestHash) {
+    }
+
+    public record Begin(State state, StoredResponse response) {
+    }
+
+    private static final String SELECT_SQL = """
+        SELECT REQ_HASH, STATUS_CD, CONTENT_TYPE, RESPONSE_BODY
+          FROM TB_IDEMPOTENCY
+         WHERE KEY_HASH = ? AND EXPIRES_DT > ?
+        """;
+    private static final String INSERT_SQL = """
+        INSERT INTO TB_IDEMPOTENCY (KEY_HASH, REQ_METHOD, REQ_URI, REQ_HASH, STATUS_CD, CONTENT_TYPE, RESPONSE_BODY, CREATED_DT, EXPIRES_DT)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    private static final String PURGE_SQL = "DELETE FROM TB_IDEMPOTENCY WHERE EXPIRES_DT < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long waitMs;
+    private final int maxBodyBytes;
+
+    private final LinkedHashMap<String, Entry> completed;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            @Value("${sms.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${sms.idempotency.ttl-ms:86400000}") long ttlMs,
+                            @Value("${sms.idempotency.wait-ms:30000}") long waitMs,
+                            @Value("${sms.idempotency.max-body-bytes:65536}") int maxBodyBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.waitMs = waitMs;
+        this.maxBodyBytes = maxBodyBytes;
+        this.completed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyStore.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 요청 시작
+     * - EXECUTE: 처음 온 요청 → 실행 후 반드시 complete() 호출
+     * - REPLAY: 이미 처리된 요청 (또는 동시에 온 요청이 끝날 때까지 기다린 결과)
+     * - IN_PROGRESS: 먼저 온 요청이 wait-ms 안에 끝나지 않음
+     */
+    public Begin begin(String keyHash) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            StoredResponse done = memoryGet(keyHash);
+            if (done != null) {
+                replayed.incrementAndGet();
+                return new Begin(State.REPLAY, done);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(keyHash, mine);
+            if (running != null) {
+                coalesced.incrementAndGet();
+                try {
+                    StoredResponse r = running.get(waitMs, TimeUnit.MILLISECONDS);
+                    if (r != null) return new Begin(State.REPLAY, r);
+                    continue; // 먼저 온 요청이 실패 → 다시 실행 권한 시도
+                } catch (TimeoutException e) {
+                    timeouts.incrementAndGet();
+                    return new Begin(State.IN_PROGRESS, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return new Begin(State.IN_PROGRESS, null);
+                } catch (ExecutionException e) {
+                    continue;
+                }
+            }
+
+            // 실행 권한 획득 → 메모리에서 밀려났거나 재시작 전에 처리된 요청인지 DB 확인
+            StoredResponse persisted = dbGet(keyHash);
+            if (persisted != null) {
+                dbHits.incrementAndGet();
+                replayed.incrementAndGet();
+                memoryPut(keyHash, persisted);
+                inFlight.remove(keyHash, mine);
+                mine.complete(persisted);
+                return new Begin(State.REPLAY, persisted);
+            }
+            executed.incrementAndGet();
+            return new Begin(State.EXECUTE, null);
+        }
+        return new Begin(State.IN_PROGRESS, null);
+    }
+
+    /** 실행 완료 (response가 null이면 저장하지 않고 키 해제 → 재시도 시 다시 실행) */
+    public void complete(String keyHash, String method, String uri, StoredResponse response) {
+        CompletableFuture<StoredResponse> mine = inFlight.get(keyHash);
+        if (response != null && response.body() != null && response.body().length > maxBodyBytes) {
+            // 본문 없이 보관하면 재전송에 빈 응답을 돌려주게 되므로 보관하지 않음
+            log.debug("멱등 응답 본문이 커서 보관하지 않음: {} {} ({} bytes)", method, uri, response.body().length);
+            response = null;
+        }
+        if (response != null) {
+            memoryPut(keyHash, response);
+            dbPut(keyHash, method, uri, response);
+        }
+        inFlight.remove(keyHash);
+        if (mine != null) mine.complete(response);
+    }
+
+    // 만료분 삭제
+    @Scheduled(cron = "${sms.idempotency.purge-cron:0 30 * * * *}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (completed) {
+            completed.values().removeIf(e -> e.expiresAt() <= now);
+        }
+        try {
+            int n = jdbcTemplate.update(PURGE_SQL, new Timestamp(now));
+            if (n > 0) log.info("만료된 멱등 키 삭제: {}건", n);
+        } catch (DataAccessException e) {
+            log.warn("만료된 멱등 키 삭제 실패: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        synchronized (completed) {
+            size = completed.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMs", ttlMs);
+        stats.put("inFlight", inFlight.size());
+        stats.put("executed", executed.get());
+        stats.put("replayed", replayed.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("dbHits", dbHits.get());
+        stats.put("timeouts", timeouts.get());
+        return stats;
+    }
+
+    // ---- 메모리 ----
+
+    private StoredResponse memoryGet(String keyHash) {
+        long now = System.currentTimeMillis();
+        synchronized (completed) {
+            Entry e = completed.get(keyHash);
+            if (e == null) return null;
+            if (e.expiresAt() <= now) {
+                completed.remove(keyHash);
+                return null;
+            }
+            return e.response();
+        }
+    }
+
+    private void memoryPut(String keyHash, StoredResponse response) {
+        synchronized (completed) {
+            completed.put(keyHash, new Entry(response, System.currentTimeMillis() + ttlMs));
+        }
+    }
+
+    // ---- DB ----
+
+    private StoredResponse dbGet(String keyHash) {
+        try {
+            List<StoredResponse> rows = jdbcTemplate.query(SELECT_SQL, (rs, i) -> {
+                String body = rs.getString(4);
+                return new StoredResponse(rs.getInt(2), rs.getString(3),
+                        body == null ? null : body.getBytes(StandardCharsets.UTF_8), rs.getString(1));
+            }, keyHash, Timestamp.valueOf(LocalDateTime.now()));
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (DataAccessException e) {
+            log.warn("멱등 키 조회 실패 (메모리만 사용): {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void dbPut(String keyHash, String method, String uri, StoredResponse r) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            jdbcTemplate.update(INSERT_SQL, keyHash, method,
+                    uri.length() > 300 ? uri.substring(0, 300) : uri,
+                    r.requestHash(), r.status(), r.contentType(),
+                    r.body() == null ? null : new String(r.body(), StandardCharsets.UTF_8),
+                    Timestamp.valueOf(now), Timestamp.valueOf(now.plus(Duration.ofMillis(ttlMs))));
+        } catch (DuplicateKeyException e) {
+            // 다른 서버가 먼저 저장 → 무시
+        } catch (DataAccessException e) {
+            log.warn("멱등 키 저장 실패 (메모리에만 보관): {}", e.getMessage());
+        }
+    }
+
+    private record Entry(StoredResponse response, long expiresAt) {
+    }
+}
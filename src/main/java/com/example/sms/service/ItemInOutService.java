@@ -1,9 +1,15 @@
 package com.example.sms.service;
 
+import com.example.sms.dto.CursorPageDto;
+import com.example.sms.dto.InboundBulkReq;
 import com.example.sms.dto.ItemInOutDto;
+import com.example.sms.dto.OutboundBulkReq;
 import com.example.sms.dto.StockHistoryDto;
 import com.example.sms.entity.*;
 import com.example.sms.repository.*;
+import com.example.sms.service.StatusCounterService.DocType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,9 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,140 +28,92 @@ public class ItemInOutService {
     private final ItemIoRepository itemIoRepository;
     private final ItemStockRepository itemStockRepository;
     private final ItemStockHisRepository itemStockHisRepository;
-    private final ItemRepository itemRepository;
-    private final WhMstRepository whMstRepository;
+    private final MasterCacheService masterCacheService;
 
     // 날짜 및 상세 정보 조회를 위한 레포지토리
     private final PurchaseMstRepository purchaseMstRepository;
     private final PurchaseDetMstRepository purchaseDetMstRepository;
     private final OrderMstRepository orderMstRepository;
     private final OrderDetMstRepository orderDetMstRepository;
-    private final CustRepository custRepository;
-
-    // 대기 목록 조회를 위한 서비스
-    private final PurchaseService purchaseService;
-    private final OrderService orderService;
+    private final StockBatchRepository stockBatchRepository;
+    private final StockLedgerService stockLedgerService;
 
     private final LogService logService;
+    private final IdGenService idGenService;
+    private final StatusCounterService statusCounterService;
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int IN_CHUNK = 1000;          // Oracle IN 목록 최대 건수
 
-    // ID 생성 유틸
+    // ID 생성 유틸 (공통 키 생성기 사용)
     private String generateId(String prefix) {
-        return prefix + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS"));
+        return idGenService.next(prefix);
     }
 
     /**
-     * ✅ [수정됨] 전체 입출고 내역 + 대기 목록 통합 조회 및 정렬
+     * ✅ 전체 입출고 내역 + 대기 목록 통합 조회 (DB 정렬/페이징)
+     * - cursor가 있으면 해당 위치 다음부터(keyset), 없으면 page 기준(offset)
      */
-    public List<ItemInOutDto> getInOutList(String sortDirection) {
-        List<ItemInOutDto> resultList = new ArrayList<>();
-
-        // 1. [완료] 입출고 확정 내역 조회 (DB)
-        List<ItemInOutDto> completedList = itemIoRepository.findAll().stream()
-                .map(io -> ItemInOutDto.builder()
-                        .id(io.getIoCd())
-                        .ioCd(io.getIoCd())
-                        .ioDt(io.getIoDt()) // 입출고일자
-                        .ioType(io.getIoType()) // "IN" or "OUT"
-                        .itemCd(io.getItemMst().getItemCd())
-                        .itemNm(io.getItemMst().getItemNm())   // 품목명
-                        .itemSpec(io.getItemMst().getItemSpec()) // 규격
-                        .qty(io.getQty())
-                        .fromWhCd(io.getFromWh() != null ? io.getFromWh().getWhCd() : null)
-                        .toWhCd(io.getToWh() != null ? io.getToWh().getWhCd() : null)
-                        .refCd(io.getRefCd())
-                        .refSeq(io.getRefSeq())
-                        .remark(io.getRemark())
-                        .status("COMPLETE") // 완료 상태
-                        .build())
-                .collect(Collectors.toList());
-        resultList.addAll(completedList);
-
-        // 2. [대기] 발주 확정 (입고 대기) 조회
-        List<PurchaseDetMst> waitInEntities = purchaseService.getWaitingForInboundList();
-        for (PurchaseDetMst det : waitInEntities) {
-            // 발주 마스터에서 날짜 가져오기
-            String pDate = purchaseMstRepository.findById(det.getId().getPurchaseCd())
-                    .map(m -> m.getPurchaseDt().toString())
-                    .orElse("");
-
-            // 품목 정보 가져오기 (생성자 protected 문제 해결: builder 사용)
-            ItemMst item = itemRepository.findById(det.getItemCd())
-                    .orElse(ItemMst.builder().itemNm("미등록").itemSpec("-").build());
-
-            resultList.add(ItemInOutDto.builder()
-                    .id("WAIT-IN-" + det.getId().getPurchaseCd() + "-" + det.getId().getSeqNo())
-                    .ioCd(det.getId().getPurchaseCd()) // 아직 입고번호f 없으므로 발주번호 표시
-                    .ioDt(pDate) // 발주일자를 기준일로 사용
-                    .ioType("WAIT_IN") // 입고 대기
-                    .itemCd(det.getItemCd())
-                    .itemNm(item.getItemNm())
-                    .itemSpec(item.getItemSpec())
-                    .qty(det.getPurchaseQty())
-                    .refCd(det.getId().getPurchaseCd())
-                    .refSeq(det.getId().getSeqNo())
-                    .remark("입고 대기 (발주확정)")
-                    .status("WAITING") // 대기 상태
-                    .build());
+    public CursorPageDto<ItemInOutDto> getInOutList(String sortDirection, int page, int size, String cursor) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String cursorDt = null;
+        String cursorKey = null;
+        int offset = Math.max(page, 0) * limit;
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] c = CursorPageDto.decodeCursor(cursor);
+            cursorDt = c[0].isEmpty() ? ItemIoRepository.NULL_IO_DT : c[0]; // 이전 형식(빈 일자) 커서 호환
+            cursorKey = c[1];
+            offset = 0;
         }
 
-        // 3. [대기] 주문 확정 (출고 대기) 조회
-        List<OrderDetMst> waitOutEntities = orderService.getWaitingForOutboundList();
-        for (OrderDetMst det : waitOutEntities) {
-            // 주문 마스터에서 날짜 가져오기
-            String oDate = orderMstRepository.findById(det.getId().getOrderCd())
-                    .map(m -> m.getOrderDt().toString())
-                    .orElse("");
-
-            // 품목 정보 가져오기 (builder 사용)
-            ItemMst item = itemRepository.findById(det.getItemCd())
-                    .orElse(ItemMst.builder().itemNm("미등록").itemSpec("-").build());
-
-            resultList.add(ItemInOutDto.builder()
-                    .id("WAIT-OUT-" + det.getId().getOrderCd() + "-" + det.getId().getSeqNo())
-                    .ioCd(det.getId().getOrderCd())
-                    .ioDt(oDate) // 주문일자를 기준일로 사용
-                    .ioType("WAIT_OUT") // 출고 대기
-                    .itemCd(det.getItemCd())
-                    .itemNm(item.getItemNm())
-                    .itemSpec(item.getItemSpec())
-                    .qty(det.getOrderQty())
-                    .refCd(det.getId().getOrderCd())
-                    .refSeq(det.getId().getSeqNo())
-                    .remark("출고 대기 (주문확정)")
-                    .status("WAITING")
-                    .build());
-        }
-
-        // 4. 통합 정렬 (Java Stream Sort)
-        // 날짜(ioDt) 기준 정렬, null은 마지막에 위치
-        Comparator<ItemInOutDto> comparator = Comparator.comparing(ItemInOutDto::getIoDt, Comparator.nullsLast(Comparator.naturalOrder()));
+        // 다음 페이지 존재 여부 확인을 위해 1건 더 조회
+        List<ItemIoRepository.InOutRowView> rows = "ASC".equalsIgnoreCase(sortDirection)
+                ? itemIoRepository.findInOutAsc(cursorDt, cursorKey, offset, limit + 1)
+                : itemIoRepository.findInOutDesc(cursorDt, cursorKey, offset, limit + 1);
+
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) rows = rows.subList(0, limit);
+
+        List<ItemInOutDto> content = rows.stream()
+                .map(r -> ItemInOutDto.builder()
+                        .id(r.getRowKey())
+                        .ioCd(r.getIoCd())
+                        .ioDt(r.getIoDt())
+                        .ioType(r.getIoType())
+                        .itemCd(r.getItemCd())
+                        .itemNm(r.getItemNm())
+                        .itemSpec(r.getItemSpec())
+                        .qty(r.getQty())
+                        .fromWhCd(r.getFromWhCd())
+                        .toWhCd(r.getToWhCd())
+                        .refCd(r.getRefCd())
+                        .refSeq(r.getRefSeq())
+                        .remark(r.getRemark())
+                        .status(r.getStatus())
+                        .build())
+                .collect(Collectors.toList());
 
-        if ("DESC".equalsIgnoreCase(sortDirection)) {
-            comparator = comparator.reversed();
+        String nextCursor = null;
+        if (hasNext) {
+            ItemIoRepository.InOutRowView last = rows.get(rows.size() - 1);
+            nextCursor = CursorPageDto.encodeCursor(last.getSortDt(), last.getRowKey());
         }
 
-        return resultList.stream()
-                .sorted(comparator)
-                .collect(Collectors.toList());
+        return CursorPageDto.<ItemInOutDto>builder()
+                .content(content)
+                .size(limit)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     // --- (아래부터는 기존 로직 유지, 일부 리팩토링 없음) ---
 
     @Transactional
     public void updateStock(String itemCd, String whCd, BigDecimal qty, boolean isIncrease) {
-        ItemStockId id = ItemStockId.builder().itemCd(itemCd).whCd(whCd).build();
-        ItemStock stock = itemStockRepository.findById(id)
-                .orElse(ItemStock.builder().id(id).stockQty(BigDecimal.ZERO).allocQty(BigDecimal.ZERO).build());
-
-        BigDecimal current = stock.getStockQty();
-        BigDecimal next = isIncrease ? current.add(qty) : current.subtract(qty);
-
-        if (next.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("재고가 부족합니다. (현재: " + current + ", 요청: " + qty + ")");
-        }
-
-        stock.setStockQty(next);
-        itemStockRepository.save(stock);
+        // 조회 후 저장(read-modify-write) 대신 DB에서 조건부 증감 (음수 재고 방지는 WHERE 절에서 처리)
+        itemStockRepository.applyDelta(itemCd, whCd, isIncrease ? qty : qty.negate(), BigDecimal.ZERO);
     }
 
     @Transactional
@@ -169,13 +125,17 @@ public class ItemInOutService {
             custCd = orderMstRepository.findById(refCd).map(OrderMst::getCustCd).orElse(null);
         }
 
-        ItemStockHis history = ItemStockHis.builder()
+        stockLedgerService.save(buildStockHistory(ioCd, itemCd, whCd, ioType, qtyDelta, refTb, refCd, custCd));
+    }
+
+    private ItemStockHis buildStockHistory(String ioCd, String itemCd, String whCd, String ioType, BigDecimal qtyDelta,
+                                           String refTb, String refCd, String custCd) {
+        return ItemStockHis.builder()
                 .stkHisCd(generateId("HIS"))
                 .itemCd(itemCd).whCd(whCd).trxDt(LocalDateTime.now()).custCd(custCd)
                 .ioCd(ioCd).ioType(ioType).qtyDelta(qtyDelta).allocDelta(BigDecimal.ZERO)
                 .refTb(refTb).refNo(refCd).remark(ioType.equals("IN") ? "입고" : "출고")
                 .build();
-        itemStockHisRepository.save(history);
     }
 
     @Transactional
@@ -183,8 +143,14 @@ public class ItemInOutService {
         String ioCd = generateId("IO");
         String ioDt = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
 
-        ItemMst itemMst = itemRepository.findById(itemCd).orElseThrow(() -> new IllegalArgumentException("품목 오류: " + itemCd));
-        WhMst toWh = whMstRepository.findById(toWhCd).orElseThrow(() -> new IllegalArgumentException("창고 오류: " + toWhCd));
+        ItemMst itemMst = masterCacheService.item(itemCd).orElseThrow(() -> new IllegalArgumentException("품목 오류: " + itemCd));
+        WhMst toWh = masterCacheService.wh(toWhCd).orElseThrow(() -> new IllegalArgumentException("창고 오류: " + toWhCd));
+
+        // 발주 라인을 먼저 입고완료(p2 → p3, 입고창고 지정)로 변경 → 이미 입고된 라인이면 재고 반영 전에 실패
+        if (purchaseDetMstRepository.markReceived(purchaseCd, toWhCd, List.of(seqNo)) == 0) {
+            throw new IllegalArgumentException("확정(p2) 상태의 발주 라인만 입고할 수 있습니다. (" + purchaseCd + "-" + seqNo + ")");
+        }
+        statusCounterService.changedOnCommit(DocType.PURCHASE, "p2", "p3", 1);
 
         ItemIo itemIo = new ItemIo();
         itemIo.setIoCd(ioCd); itemIo.setIoDt(ioDt); itemIo.setIoType("IN");
@@ -194,66 +160,303 @@ public class ItemInOutService {
 
         updateStock(itemCd, toWhCd, BigDecimal.valueOf(qty), true);
         saveStockHistory(ioCd, itemCd, toWhCd, "IN", BigDecimal.valueOf(qty), "TB_PURCHASE", purchaseCd);
-        purchaseService.updateDetailStatus(purchaseCd, seqNo, "p3");
-        purchaseService.updateDetailWarehouse(purchaseCd, seqNo, toWhCd);
         logService.saveLog("입고 관리", "등록", ioCd, "발주번호: " + purchaseCd + ", 품목: " + itemCd);
     }
 
+    /**
+     * ✅ 발주 라인 일괄 입고 (한 트랜잭션)
+     * - 품목/창고/발주헤더는 각각 1회 조회, 입출고/이력은 일괄 저장
+     * - 재고는 (품목, 창고)별로 합산해서 1회씩만 반영
+     */
     @Transactional
-    public void registerOutboundFromOrder(String orderCd, Integer seqNo, String itemCd, String fromWhCd, Integer qty, String remark) {
-        // [1] 요청 데이터 확인 로그
-        System.out.println(">>> [출고요청] 주문번호:" + orderCd + " / 순번:" + seqNo + " / 품목:" + itemCd + " / 창고:" + fromWhCd + " / 수량:" + qty);
-
-        // 1. 재고 부족 체크
-        ItemStockId stockId = ItemStockId.builder().itemCd(itemCd).whCd(fromWhCd).build();
-        ItemStock currentStock = itemStockRepository.findById(stockId)
-                .orElseThrow(() -> new IllegalArgumentException("해당 창고에 품목 정보가 없습니다."));
-
-        if (currentStock.getStockQty().compareTo(BigDecimal.valueOf(qty)) < 0) {
-            throw new IllegalArgumentException("재고가 부족합니다. (현재고: " + currentStock.getStockQty() + ", 요청: " + qty + ")");
+    public BulkResult registerInboundBulk(InboundBulkReq req) {
+        if (req == null) throw new IllegalArgumentException("요청 데이터가 없습니다.");
+
+        // 1. 대상 발주 라인 확정
+        List<PurchaseDetMst> dets;
+        Map<PurchaseDetIdMst, InboundBulkReq.Line> lineReq = new HashMap<>();
+        if (req.getLines() != null && !req.getLines().isEmpty()) {
+            for (InboundBulkReq.Line l : req.getLines()) {
+                String cd = l.getPurchaseCd() != null ? l.getPurchaseCd() : req.getPurchaseCd();
+                if (cd == null || l.getSeqNo() == null) throw new IllegalArgumentException("발주번호/순번은 필수입니다.");
+                PurchaseDetIdMst id = new PurchaseDetIdMst();
+                id.setPurchaseCd(cd);
+                id.setSeqNo(l.getSeqNo());
+                lineReq.put(id, l);
+            }
+            dets = purchaseDetMstRepository.findAllById(lineReq.keySet());
+            if (dets.size() != lineReq.size()) throw new IllegalArgumentException("발주 상세 정보를 찾을 수 없는 라인이 있습니다.");
+        } else if (req.getPurchaseCd() != null && !req.getPurchaseCd().isBlank()) {
+            dets = purchaseDetMstRepository.findByIdPurchaseCdOrderByIdSeqNoAsc(req.getPurchaseCd()).stream()
+                    .filter(d -> "p2".equals(d.getStatus()))
+                    .collect(Collectors.toList());
+        } else {
+            throw new IllegalArgumentException("발주번호 또는 입고 라인은 필수입니다.");
         }
-
-        String ioCd = generateId("IO");
+        if (dets.isEmpty()) throw new IllegalArgumentException("입고할 발주 라인(확정 p2)이 없습니다.");
+
+        // 2. 마스터 일괄 조회
+        Map<String, ItemMst> itemMap = masterCacheService.items(
+                dets.stream().map(PurchaseDetMst::getItemCd).collect(Collectors.toSet()));
+        Set<String> whCds = new HashSet<>();
+        for (PurchaseDetMst d : dets) whCds.add(inboundWhCd(req, lineReq.get(d.getId()), d));
+        Map<String, WhMst> whMap = masterCacheService.whs(whCds);
+        Map<String, String> custMap = new HashMap<>();
+        purchaseMstRepository.findAllById(dets.stream().map(d -> d.getId().getPurchaseCd()).collect(Collectors.toSet()))
+                .forEach(m -> custMap.put(m.getPurchaseCd(), m.getCustCd()));
+
+        // 3. 입출고/이력 생성 + 재고 증감 합산
         String ioDt = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        List<ItemIo> ios = new ArrayList<>();
+        List<ItemStockHis> histories = new ArrayList<>();
+        Map<ItemStockId, BigDecimal> deltas = new HashMap<>();
+        Map<String, Map<String, List<Integer>>> received = new TreeMap<>(); // purchaseCd → whCd → seqNos
+
+        for (PurchaseDetMst d : dets) {
+            String purchaseCd = d.getId().getPurchaseCd();
+            Integer seqNo = d.getId().getSeqNo();
+            if (!"p2".equals(d.getStatus())) {
+                throw new IllegalArgumentException("확정(p2) 상태가 아닌 라인입니다: " + purchaseCd + "-" + seqNo + " (" + d.getStatus() + ")");
+            }
+            InboundBulkReq.Line l = lineReq.get(d.getId());
+            String whCd = inboundWhCd(req, l, d);
+            Integer qty = (l != null && l.getQty() != null) ? l.getQty() : d.getPurchaseQty();
+            if (qty == null || qty <= 0) throw new IllegalArgumentException("입고수량은 1 이상이어야 합니다: " + purchaseCd + "-" + seqNo);
+
+            ItemMst itemMst = itemMap.get(d.getItemCd());
+            if (itemMst == null) throw new IllegalArgumentException("품목 오류: " + d.getItemCd());
+            WhMst toWh = whMap.get(whCd);
+            if (toWh == null) throw new IllegalArgumentException("창고 오류: " + whCd);
+
+            String ioCd = generateId("IO");
+            ItemIo itemIo = new ItemIo();
+            itemIo.setIoCd(ioCd); itemIo.setIoDt(ioDt); itemIo.setIoType("IN");
+            itemIo.setItemMst(itemMst); itemIo.setQty(qty); itemIo.setToWh(toWh);
+            itemIo.setRemark(l != null && l.getRemark() != null ? l.getRemark() : req.getRemark());
+            itemIo.setRefTb("TB_PURCHASE"); itemIo.setRefCd(purchaseCd); itemIo.setRefSeq(seqNo);
+            ios.add(itemIo);
+
+            histories.add(buildStockHistory(ioCd, d.getItemCd(), whCd, "IN", BigDecimal.valueOf(qty),
+                    "TB_PURCHASE", purchaseCd, custMap.get(purchaseCd)));
+            deltas.merge(new ItemStockId(d.getItemCd(), whCd), BigDecimal.valueOf(qty), BigDecimal::add);
+            received.computeIfAbsent(purchaseCd, k -> new TreeMap<>())
+                    .computeIfAbsent(whCd, k -> new ArrayList<>()).add(seqNo);
+        }
 
-        ItemMst itemMst = itemRepository.findById(itemCd).orElseThrow(() -> new IllegalArgumentException("품목 오류"));
-        WhMst fromWh = whMstRepository.findById(fromWhCd).orElseThrow(() -> new IllegalArgumentException("창고 오류"));
+        // 4. 라인 선점 (p2 → p3 조건부 UPDATE): 같은 발주를 동시에 입고하면 늦은 쪽은 행 잠금 대기 후 0건 → 재고 반영 전에 전체 취소
+        received.forEach((purchaseCd, byWh) -> byWh.forEach((whCd, seqNos) -> {
+            for (int i = 0; i < seqNos.size(); i += IN_CHUNK) {
+                List<Integer> chunk = seqNos.subList(i, Math.min(i + IN_CHUNK, seqNos.size()));
+                if (purchaseDetMstRepository.markReceived(purchaseCd, whCd, chunk) != chunk.size()) {
+                    throw new IllegalStateException("이미 입고 처리된 발주 라인이 있습니다. 다시 조회 후 처리하세요. (" + purchaseCd + ")");
+                }
+            }
+        }));
+
+        // 5. 입출고/재고/이력 반영 (재고 행은 키 정렬 순서로 갱신 → 동시 입고 간 교착 방지)
+        stockBatchRepository.insertIos(ios);
+        deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(ItemStockId::getItemCd).thenComparing(ItemStockId::getWhCd)))
+                .forEach(e -> itemStockRepository.applyDelta(e.getKey().getItemCd(), e.getKey().getWhCd(), e.getValue(), BigDecimal.ZERO));
+        stockLedgerService.insertAll(histories);
+        statusCounterService.changedOnCommit(DocType.PURCHASE, "p2", "p3", dets.size());
+
+        List<String> purchaseCds = dets.stream().map(d -> d.getId().getPurchaseCd()).distinct().sorted().toList();
+        String targetKey = purchaseCds.size() > 1 ? purchaseCds.get(0) + " 외 " + (purchaseCds.size() - 1) + "건" : purchaseCds.get(0);
+        logService.saveLog("입고 관리", "일괄등록", targetKey,
+                "입고 라인: " + dets.size() + "건", "발주번호: " + String.join(", ", purchaseCds));
+
+        return new BulkResult(ios.size(), ios.stream().map(ItemIo::getIoCd).collect(Collectors.toList()));
+    }
 
-        // 2. 이력 저장
-        ItemIo itemIo = new ItemIo();
-        itemIo.setIoCd(ioCd);
-        itemIo.setIoDt(ioDt);
-        itemIo.setIoType("OUT");
-        itemIo.setItemMst(itemMst);
-        itemIo.setQty(qty);
-        itemIo.setFromWh(fromWh);
-        itemIo.setRemark(remark);
-        itemIo.setRefTb("TB_ORDER");
-        itemIo.setRefCd(orderCd);
-        itemIo.setRefSeq(seqNo);
-        itemIoRepository.save(itemIo);
+    private static String inboundWhCd(InboundBulkReq req, InboundBulkReq.Line l, PurchaseDetMst d) {
+        if (l != null && l.getToWhCd() != null && !l.getToWhCd().isBlank()) return l.getToWhCd();
+        if (req.getToWhCd() != null && !req.getToWhCd().isBlank()) return req.getToWhCd();
+        if (d.getWhCd() != null && !d.getWhCd().isBlank()) return d.getWhCd();
+        throw new IllegalArgumentException("입고창고는 필수입니다: " + d.getId().getPurchaseCd() + "-" + d.getId().getSeqNo());
+    }
 
-        // 3. 재고 차감
-        updateStock(itemCd, fromWhCd, BigDecimal.valueOf(qty), false);
-        saveStockHistory(ioCd, itemCd, fromWhCd, "OUT", BigDecimal.valueOf(qty).negate(), "TB_ORDER", orderCd);
+    @Transactional
+    public void registerOutboundFromOrder(String orderCd, Integer seqNo, String itemCd, String fromWhCd, Integer qty, String remark) {
+        OutboundBulkReq.Line line = new OutboundBulkReq.Line();
+        line.setOrderCd(orderCd);
+        line.setSeqNo(seqNo);
+        line.setItemCd(itemCd);
+        line.setFromWhCd(fromWhCd);
+        line.setQty(qty);
+        line.setRemark(remark);
+
+        OutboundBulkReq req = new OutboundBulkReq();
+        req.setLines(List.of(line));
+
+        OutboundResult result = registerOutboundBulk(req);
+        if (result.getFailCount() > 0) {
+            throw new IllegalArgumentException(result.getLines().get(0).getMessage());
+        }
+    }
 
-        // =================================================================
-        // 🔥 [절대 서비스 호출 금지] 레포지토리로 직접 꺼내서 수정해야 합니다.
-        // =================================================================
-        OrderDetIdMst detId = new OrderDetIdMst();
-        detId.setOrderCd(orderCd);
-        detId.setSeqNo(seqNo);
+    /**
+     * ✅ 주문 라인 일괄 출고
+     * - 주문 라인을 잠근 뒤 상태(o2) 확인 → 다른 요청이 먼저 출고한 라인은 라인별 실패로 반환
+     * - 관련 재고 행을 (품목, 창고) 순서로 잠근 뒤 한 시점의 재고로 전체 라인 가용성 확인
+     * - 실패한 라인은 건너뛰고 라인별 사유 반환, 성공 라인만 반영
+     * - 입출고/이력은 JDBC batch, 주문 라인 상태(o3)는 주문·창고 단위 UPDATE 1회
+     */
+    @Transactional
+    public OutboundResult registerOutboundBulk(OutboundBulkReq req) {
+        if (req == null || req.getLines() == null || req.getLines().isEmpty()) {
+            throw new IllegalArgumentException("출고 라인은 필수입니다.");
+        }
+
+        // 1. 주문 라인 / 품목 / 창고 / 주문헤더 일괄 조회
+        Map<OrderDetIdMst, OutboundBulkReq.Line> lineReq = new LinkedHashMap<>();
+        List<LineResult> results = new ArrayList<>();
+        for (OutboundBulkReq.Line l : req.getLines()) {
+            if (l.getOrderCd() == null || l.getSeqNo() == null) {
+                results.add(LineResult.fail(l.getOrderCd(), l.getSeqNo(), "주문번호/순번은 필수입니다."));
+                continue;
+            }
+            OrderDetIdMst id = new OrderDetIdMst();
+            id.setOrderCd(l.getOrderCd());
+            id.setSeqNo(l.getSeqNo());
+            if (lineReq.putIfAbsent(id, l) != null) {
+                results.add(LineResult.fail(l.getOrderCd(), l.getSeqNo(), "중복된 라인입니다."));
+            }
+        }
 
-        OrderDetMst det = orderDetMstRepository.findById(detId)
-                .orElseThrow(() -> new IllegalArgumentException("주문 상세 정보를 찾을 수 없습니다."));
+        // 주문 라인은 (주문번호, 순번) 순서로 잠가서 조회 → 동시에 같은 라인을 출고하면 늦은 쪽은 먼저 끝난 결과(o3)를 보고 라인별 실패 처리
+        Map<String, List<Integer>> seqByOrder = new TreeMap<>();
+        lineReq.keySet().forEach(id -> seqByOrder.computeIfAbsent(id.getOrderCd(), k -> new ArrayList<>()).add(id.getSeqNo()));
+        Map<OrderDetIdMst, OrderDetMst> detMap = new HashMap<>();
+        seqByOrder.forEach((orderCd, seqNos) -> {
+            Collections.sort(seqNos);
+            for (int i = 0; i < seqNos.size(); i += IN_CHUNK) {
+                orderDetMstRepository.findForUpdate(orderCd, seqNos.subList(i, Math.min(i + IN_CHUNK, seqNos.size())))
+                        .forEach(d -> detMap.put(d.getId(), d));
+            }
+        });
+        Map<String, ItemMst> itemMap = masterCacheService.items(
+                detMap.values().stream().map(OrderDetMst::getItemCd).collect(Collectors.toSet()));
+        Set<String> whCds = new HashSet<>();
+        lineReq.forEach((id, l) -> {
+            String wh = outboundWhCd(req, l, detMap.get(id));
+            if (wh != null) whCds.add(wh);
+        });
+        Map<String, WhMst> whMap = masterCacheService.whs(whCds);
+        Map<String, String> custMap = new HashMap<>();
+        orderMstRepository.findAllById(lineReq.keySet().stream().map(OrderDetIdMst::getOrderCd).collect(Collectors.toSet()))
+                .forEach(m -> custMap.put(m.getOrderCd(), m.getCustCd()));
+
+        // 2. 재고 행 잠금 (키 정렬 순서로 잠가서 동시 출고 간 교착 방지) → 잠긴 시점의 재고 스냅샷
+        Map<ItemStockId, BigDecimal> remain = new HashMap<>();
+        lineReq.forEach((id, l) -> {
+            OrderDetMst d = detMap.get(id);
+            String wh = outboundWhCd(req, l, d);
+            if (d != null && wh != null) remain.put(new ItemStockId(d.getItemCd(), wh), BigDecimal.ZERO);
+        });
+        remain.keySet().stream()
+                .sorted(Comparator.comparing(ItemStockId::getItemCd).thenComparing(ItemStockId::getWhCd))
+                .forEach(id -> itemStockRepository.findForUpdate(id)
+                        .ifPresent(st -> remain.put(id, st.getStockQty() == null ? BigDecimal.ZERO : st.getStockQty())));
+
+        // 3. 라인별 검증 + 반영 대상 생성
+        String ioDt = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        List<ItemIo> ios = new ArrayList<>();
+        List<ItemStockHis> histories = new ArrayList<>();
+        Map<ItemStockId, BigDecimal> deltas = new LinkedHashMap<>();
+        Map<String, Map<String, List<Integer>>> shipped = new LinkedHashMap<>(); // orderCd → whCd → seqNos
+
+        for (Map.Entry<OrderDetIdMst, OutboundBulkReq.Line> e : lineReq.entrySet()) {
+            String orderCd = e.getKey().getOrderCd();
+            Integer seqNo = e.getKey().getSeqNo();
+            OutboundBulkReq.Line l = e.getValue();
+            OrderDetMst d = detMap.get(e.getKey());
+
+            if (d == null) {
+                results.add(LineResult.fail(orderCd, seqNo, "주문 상세 정보를 찾을 수 없습니다."));
+                continue;
+            }
+            if (!"o2".equals(d.getStatus())) {
+                results.add(LineResult.fail(orderCd, seqNo, "출고대기(o2) 상태가 아닙니다. (현재: " + d.getStatus() + ")"));
+                continue;
+            }
+            if (l.getItemCd() != null && !l.getItemCd().isBlank() && !l.getItemCd().equals(d.getItemCd())) {
+                results.add(LineResult.fail(orderCd, seqNo, "품목이 주문 내용과 다릅니다. (주문: " + d.getItemCd() + ")"));
+                continue;
+            }
+            String whCd = outboundWhCd(req, l, d);
+            WhMst fromWh = whCd == null ? null : whMap.get(whCd);
+            if (fromWh == null) {
+                results.add(LineResult.fail(orderCd, seqNo, "창고 오류: " + whCd));
+                continue;
+            }
+            ItemMst itemMst = itemMap.get(d.getItemCd());
+            if (itemMst == null) {
+                results.add(LineResult.fail(orderCd, seqNo, "품목 오류: " + d.getItemCd()));
+                continue;
+            }
+            Integer qty = l.getQty() != null ? l.getQty() : d.getOrderQty();
+            if (qty == null || qty <= 0) {
+                results.add(LineResult.fail(orderCd, seqNo, "출고수량은 1 이상이어야 합니다."));
+                continue;
+            }
+
+            ItemStockId stockId = new ItemStockId(d.getItemCd(), whCd);
+            BigDecimal avail = remain.get(stockId);
+            BigDecimal q = BigDecimal.valueOf(qty);
+            if (avail.compareTo(q) < 0) {
+                results.add(LineResult.fail(orderCd, seqNo, "재고가 부족합니다. (현재고: " + avail + ", 요청: " + qty + ")"));
+                continue;
+            }
+            remain.put(stockId, avail.subtract(q));
+
+            String ioCd = generateId("IO");
+            ItemIo itemIo = new ItemIo();
+            itemIo.setIoCd(ioCd); itemIo.setIoDt(ioDt); itemIo.setIoType("OUT");
+            itemIo.setItemMst(itemMst); itemIo.setQty(qty); itemIo.setFromWh(fromWh);
+            itemIo.setRemark(l.getRemark() != null ? l.getRemark() : req.getRemark());
+            itemIo.setRefTb("TB_ORDER"); itemIo.setRefCd(orderCd); itemIo.setRefSeq(seqNo);
+            ios.add(itemIo);
+
+            histories.add(buildStockHistory(ioCd, d.getItemCd(), whCd, "OUT", q.negate(), "TB_ORDER", orderCd, custMap.get(orderCd)));
+            deltas.merge(stockId, q.negate(), BigDecimal::add);
+            shipped.computeIfAbsent(orderCd, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(whCd, k -> new ArrayList<>()).add(seqNo);
+            results.add(LineResult.ok(orderCd, seqNo, ioCd));
+        }
 
-        det.setStatus("o3");   // 상태: 출고완료
-        det.setWhCd(fromWhCd); // 창고: 출고 창고 저장
+        // 4. 반영 (성공 라인만)
+        if (!ios.isEmpty()) {
+            stockBatchRepository.insertIos(ios);
+            deltas.forEach((id, qty) -> itemStockRepository.applyDelta(id.getItemCd(), id.getWhCd(), qty, BigDecimal.ZERO));
+            stockLedgerService.insertAll(histories);
+
+            // 라인은 잠겨 있고 o2임을 확인했으므로 건수가 어긋나지 않음 (어긋나면 잠금 누락 → 전체 롤백)
+            shipped.forEach((orderCd, byWh) -> byWh.forEach((whCd, seqNos) -> {
+                for (int i = 0; i < seqNos.size(); i += IN_CHUNK) {
+                    List<Integer> chunk = seqNos.subList(i, Math.min(i + IN_CHUNK, seqNos.size()));
+                    if (orderDetMstRepository.markShipped(orderCd, whCd, chunk) != chunk.size()) {
+                        throw new IllegalStateException("주문 라인 상태가 변경되었습니다. 다시 조회 후 처리하세요. (" + orderCd + ")");
+                    }
+                }
+            }));
+            statusCounterService.changedOnCommit(DocType.ORDER, "o2", "o3", ios.size());
+
+            List<String> orderCds = new ArrayList<>(shipped.keySet());
+            String targetKey = orderCds.size() > 1 ? orderCds.get(0) + " 외 " + (orderCds.size() - 1) + "건" : orderCds.get(0);
+            logService.saveLog("출고 관리", "등록", targetKey,
+                    "출고 라인: " + ios.size() + "건", "주문번호: " + String.join(", ", orderCds));
+        }
 
-        orderDetMstRepository.save(det); // UPDATE 쿼리 발생
-        // =================================================================
+        int okCount = (int) results.stream().filter(LineResult::isSuccess).count();
+        return new OutboundResult(okCount, results.size() - okCount, results);
+    }
 
-        System.out.println(">>> [출고완료] 상태(o3) 및 창고(" + fromWhCd + ") 업데이트 완료");
+    private static String outboundWhCd(OutboundBulkReq req, OutboundBulkReq.Line l, OrderDetMst d) {
+        if (l.getFromWhCd() != null && !l.getFromWhCd().isBlank()) return l.getFromWhCd();
+        if (req.getFromWhCd() != null && !req.getFromWhCd().isBlank()) return req.getFromWhCd();
+        if (d != null && d.getWhCd() != null && !d.getWhCd().isBlank()) return d.getWhCd();
+        return null;
     }
 
     public List<StockHistoryDto> getStockHistory(String type, String code) {
@@ -261,10 +464,11 @@ public class ItemInOutService {
                 ? itemStockHisRepository.findByItemCdOrderByTrxDtDesc(code)
                 : itemStockHisRepository.findByWhCdOrderByTrxDtDesc(code);
 
+        Map<String, CustMst> custMap = masterCacheService.custs(
+                list.stream().map(ItemStockHis::getCustCd).filter(Objects::nonNull).collect(Collectors.toSet()));
         return list.stream().map(h -> {
-            String custNm = h.getCustCd() != null
-                    ? custRepository.findById(h.getCustCd()).map(CustMst::getCustNm).orElse("")
-                    : "";
+            CustMst cust = h.getCustCd() != null ? custMap.get(h.getCustCd()) : null;
+            String custNm = cust != null && cust.getCustNm() != null ? cust.getCustNm() : "";
             return StockHistoryDto.builder()
                     .stkHisCd(h.getStkHisCd())
                     .ioDt(h.getTrxDt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")))
@@ -272,6 +476,7 @@ public class ItemInOutService {
                     .itemCd(h.getItemCd())
                     .whCd(h.getWhCd())
                     .qty(h.getQtyDelta())
+                    .balance("ITEM".equals(type) ? h.getItemBalQty() : h.getBalQty())
                     .custCd(h.getCustCd())
                     .custNm(custNm)
                     .remark(h.getRemark())
@@ -284,4 +489,37 @@ public class ItemInOutService {
                 .map(ItemStock::getStockQty)
                 .orElse(BigDecimal.ZERO);
     }
-}
\ No newline at end of file
+
+    @Getter
+    @AllArgsConstructor
+    public static class BulkResult {
+        private int count;
+        private List<String> ioCds;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class LineResult {
+        private String refCd;
+        private Integer refSeq;
+        private boolean success;
+        private String ioCd;
+        private String message;
+
+        static LineResult ok(String refCd, Integer refSeq, String ioCd) {
+            return new LineResult(refCd, refSeq, true, ioCd, null);
+        }
+
+        static LineResult fail(String refCd, Integer refSeq, String message) {
+            return new LineResult(refCd, refSeq, false, null, message);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class OutboundResult {
+        private int successCount;
+        private int failCount;
+        private List<LineResult> lines;
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.ItemMst;
+import com.example.sms.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 품목 검색 인덱스 (품목코드 + 품목명 1/2/3-gram, JVM 내)
+ * - LIKE '%검색어%' 전체 스캔 대신 3-gram 목록 교집합 → 후보만 실제 포함 여부 확인
+ * - 3자 미만 검색어(볼트, 나사 등 한글 2음절 품목명)는 2-gram / 1-gram 목록을 바로 후보로 사용 (전체 순회 없음)
+ * - 정규화: NFKC(전각/호환 자모 → 표준 한글, 전각 영숫자 → 반각) + 소문자 + 공백 제거
+ * - 품목 저장/삭제 시 커밋 후 해당 품목만 갱신 (삭제는 표시 후 일정 비율 넘으면 재구성)
+ * - 인덱스는 기동 시 구성, 구성 전 요청은 DB 검색으로 처리
+ * - 재구성(전체 조회 → 교체) 중 커밋된 품목 변경은 모아 두었다가 교체 직후 순서대로 다시 반영 → 조회 이후 변경 유실 없음
+ * - 문서는 엔티티가 아닌 불변 Row로 보관, 검색 결과는 호출마다 새 ItemMst로 만들어 반환
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    private static final int MAX_LIMIT = 500;
+    private static final double REBUILD_RATIO = 0.2; // 삭제 표시 비율이 넘으면 재구성
+
+    // gram 키: 3-gram은 문자 3개(16비트씩 48비트), 2-gram / 1-gram은 그 위 비트로 구분
+    private static final long BIGRAM = 1L << 48;
+    private static final long UNIGRAM = 2L << 48;
+
+    private final ItemRepository itemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 아래 상태는 lock으로 보호
+    private final List<Doc> docs = new ArrayList<>();                  // 문서번호 → 문서 (삭제 시 null)
+    private final Map<String, Integer> docIdByCd = new HashMap<>();     // 품목코드 → 문서번호
+    private final Map<Long, IntList> postings = new HashMap<>();        // gram → 문서번호 목록 (오름차순)
+    private int deleted;
+    private int rebuilding;                                             // 진행 중인 재구성 수
+    private final List<Runnable> pending = new ArrayList<>();           // 재구성 중 변경 (교체 후 재반영)
+    private volatile boolean built;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    /** 전체 재구성 (DB 전체 조회, 조회 시작 이후의 변경은 교체 후 다시 반영) */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            rebuilding++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<ItemMst> all = itemRepository.findAll();
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                docs.clear();
+                docIdByCd.clear();
+                postings.clear();
+                deleted = 0;
+                for (ItemMst item : all) addDoc(item);
+                replayed = pending.size();
+                pending.forEach(Runnable::run);
+                built = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("품목 검색 인덱스 구성: {}건 (재반영 {}건), gram {}개, {}ms",
+                    all.size(), replayed, postings.size(), System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (--rebuilding == 0) pending.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /** 품목 저장 후 (트랜잭션 중이면 커밋 후 반영) */
+    public void upsertOnCommit(ItemMst item) {
+        onCommit(() -> upsert(item));
+    }
+
+    public void removeOnCommit(String itemCd) {
+        onCommit(() -> remove(itemCd));
+    }
+
+    /** 분류 삭제로 품목이 함께 삭제된 경우 */
+    public void removeTypesOnCommit(Collection<String> typeCds) {
+        Set<String> types = new HashSet<>(typeCds);
+        onCommit(() -> apply(() -> {
+            List<String> targets = new ArrayList<>();
+            for (Doc d : docs) {
+                if (d != null && d.row().typeCd() != null && types.contains(d.row().typeCd())) {
+                    targets.add(d.row().itemCd());
+                }
+            }
+            targets.forEach(this::removeDoc);
+        }));
+    }
+
+    private void upsert(ItemMst item) {
+        apply(() -> {
+            removeDoc(item.getItemCd());
+            addDoc(item);
+        });
+    }
+
+    private void remove(String itemCd) {
+        apply(() -> removeDoc(itemCd));
+    }
+
+    // 변경 반영 (write lock 안에서 실행): 구성된 인덱스에 바로 반영하고, 재구성 중이면 교체 후 재반영하도록 보관
+    // 첫 구성 전(재구성도 시작 전)의 변경은 이미 커밋되었으므로 이후 전체 조회에 포함됨
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding > 0) pending.add(change);
+            if (built) change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * 검색 (순위: 코드 일치 > 코드 시작 > 이름 시작 > 코드 포함 > 이름 포함, 같은 순위는 이름 짧은 순 → 코드 순)
+     * @param typeCds 분류 필터 (null이면 전체, 하위 분류까지 펼친 목록)
+     */
+    public List<ItemMst> search(String text, Collection<String> typeCds, int limit) {
+        String q = normalize(text);
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (!built) return searchDb(text, typeCds, max);
+        Set<String> types = typeCds == null ? null : new HashSet<>(typeCds);
+
+        // 점수 큰(나쁜) 순으로 꺼내는 힙 → 상위 max건만 유지
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.<Hit>naturalOrder().reversed());
+        lock.readLock().lock();
+        try {
+            if (q.isEmpty()) return List.of();
+            IntList candidates = candidates(q);
+            if (candidates != null) {
+                for (int i = 0; i < candidates.size; i++) collect(docs.get(candidates.values[i]), q, types, top, max);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Comparator.naturalOrder());
+        return hits.stream().map(h -> h.doc().row().toItem()).toList();
+    }
+
+    // 인덱스 구성 전 (기동 직후) 검색: 기존 DB LIKE 검색
+    private List<ItemMst> searchDb(String text, Collection<String> typeCds, int max) {
+        if (text == null || text.isBlank()) return List.of();
+        List<ItemMst> found = typeCds == null
+                ? itemRepository.searchByText(text)
+                : itemRepository.searchByTypesAndText(new ArrayList<>(typeCds), text);
+        return found.size() > max ? found.subList(0, max) : found;
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("built", built);
+            stats.put("items", docIdByCd.size());
+            stats.put("deletedSlots", deleted);
+            stats.put("grams", postings.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- 내부 ----
+
+    private void collect(Doc d, String q, Set<String> types, PriorityQueue<Hit> top, int max) {
+        if (d == null) return;
+        if (types != null && (d.row().typeCd() == null || !types.contains(d.row().typeCd()))) return;
+        int rank = rank(d, q);
+        if (rank < 0) return;
+        top.add(new Hit(rank, d));
+        if (top.size() > max) top.poll();
+    }
+
+    private static int rank(Doc d, String q) {
+        if (d.cd().equals(q)) return 0;
+        if (d.cd().startsWith(q)) return 1;
+        if (d.nm().startsWith(q)) return 2;
+        if (d.cd().contains(q)) return 3;
+        if (d.nm().contains(q)) return 4;
+        return -1;
+    }
+
+    // 후보 문서: 1~2자는 해당 gram 목록 그대로, 3자 이상은 모든 3-gram을 포함하는 문서 (가장 짧은 목록부터 교집합)
+    private IntList candidates(String q) {
+        if (q.length() == 1) return postings.get(UNIGRAM | q.charAt(0));
+        if (q.length() == 2) return postings.get(BIGRAM | ((long) q.charAt(0) << 16) | q.charAt(1));
+        List<IntList> lists = new ArrayList<>();
+        for (long g : grams(q)) {
+            IntList p = postings.get(g);
+            if (p == null) return null;
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(l -> l.size));
+        IntList result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.size > 0; i++) result = intersect(result, lists.get(i));
+        return result;
+    }
+
+    private static IntList intersect(IntList a, IntList b) {
+        IntList out = new IntList(Math.min(a.size, b.size));
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            int x = a.values[i], y = b.values[j];
+            if (x == y) { out.add(x); i++; j++; }
+            else if (x < y) i++;
+            else j++;
+        }
+        return out;
+    }
+
+    private void addDoc(ItemMst item) {
+        if (item.getItemCd() == null) return;
+        Doc d = new Doc(Row.of(item), normalize(item.getItemCd()), normalize(item.getItemNm()));
+        int id = docs.size();
+        docs.add(d);
+        docIdByCd.put(item.getItemCd(), id);
+        Set<Long> gs = new HashSet<>();
+        addGrams(d.cd(), gs);
+        addGrams(d.nm(), gs);
+        // 문서번호는 계속 증가하므로 뒤에 붙이면 오름차순 유지
+        for (long g : gs) postings.computeIfAbsent(g, k -> new IntList(4)).add(id);
+    }
+
+    // 문서만 비우고 gram 목록의 번호는 남겨둠 (검색 시 null 문서는 건너뜀)
+    private void removeDoc(String itemCd) {
+        Integer id = docIdByCd.remove(itemCd);
+        if (id != null) {
+            docs.set(id, null);
+            deleted++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        boolean needed;
+        lock.readLock().lock();
+        try {
+            needed = deleted > 1000 && deleted > docs.size() * REBUILD_RATIO;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (needed) rebuild();
+    }
+
+    // 색인용: 1-gram, 2-gram, 3-gram 전부
+    private static void addGrams(String s, Set<Long> out) {
+        for (int i = 0; i < s.length(); i++) {
+            out.add(UNIGRAM | s.charAt(i));
+            if (i + 1 < s.length()) out.add(BIGRAM | ((long) s.charAt(i) << 16) | s.charAt(i + 1));
+        }
+        out.addAll(grams(s));
+    }
+
+    // 3-gram
+    private static List<Long> grams(String s) {
+        if (s.length() < 3) return List.of();
+        List<Long> out = new ArrayList<>(s.length() - 2);
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            out.add(((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2));
+        }
+        return out;
+    }
+
+    static String normalize(String s) {
+        if (s == null) return "";
+        String n = Normalizer.normalize(s, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(n.length());
+        for (int i = 0; i < n.length(); i++) {
+            char c = n.charAt(i);
+            if (!Character.isWhitespace(c)) sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private void onCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private record Doc(Row row, String cd, String nm) {
+    }
+
+    // 색인된 품목 값 (불변, 조회 시점의 엔티티와 분리)
+    private record Row(String itemCd, String itemNm, String itemFlag, String itemSpec, String itemUnit,
+                       Double itemCost, Integer minQty, Integer maxQty, String remark, String typeCd) {
+        static Row of(ItemMst i) {
+            return new Row(i.getItemCd(), i.getItemNm(), i.getItemFlag(), i.getItemSpec(), i.getItemUnit(),
+                    i.getItemCost(), i.getMinQty(), i.getMaxQty(), i.getRemark(), i.getTypeCd());
+        }
+
+        ItemMst toItem() {
+            return ItemMst.builder()
+                    .itemCd(itemCd).itemNm(itemNm).itemFlag(itemFlag).itemSpec(itemSpec).itemUnit(itemUnit)
+                    .itemCost(itemCost).minQty(minQty).maxQty(maxQty).remark(remark).typeCd(typeCd)
+                    .build();
+        }
+    }
+
+    private record Hit(int rank, Doc doc) implements Comparable<Hit> {
+        @Override
+        public int compareTo(Hit o) {
+            if (rank != o.rank) return Integer.compare(rank, o.rank);
+            if (doc.nm().length() != o.doc.nm().length()) return Integer.compare(doc.nm().length(), o.doc.nm().length());
+            return doc.cd().compareTo(o.doc.cd());
+        }
+    }
+
+    // 박싱 없는 int 목록
+    private static final class IntList {
+        private int[] values;
+        private int size;
+
+        IntList(int capacity) {
+            values = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+}
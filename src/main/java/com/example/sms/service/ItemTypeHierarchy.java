@@ -0,0 +1,214 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.ItemTypeMst;
+import com.example.sms.repository.ItemTypeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * 품목 분류 계층 (JVM 내 스냅샷)
+ * - 분류 전체를 한 번 읽어 부모→자식 배열, 전체 경로("대 > 중 > 소"), 오일러 투어 구간을 미리 계산
+ * - 하위 분류 여부: tin[조상] <= tin[대상] < tout[조상] 비교 한 번
+ * - 하위 분류 목록: 투어 순서 배열의 연속 구간
+ * - 분류 저장/삭제 시 커밋 후 새 스냅샷으로 통째 교체 (조회 중인 요청은 이전 스냅샷을 그대로 사용)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemTypeHierarchy {
+
+    private static final String NO_PATH = "-";
+
+    private final ItemTypeRepository itemTypeRepository;
+
+    private volatile Snapshot snapshot;
+
+    public Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) s = snapshot = build(itemTypeRepository.findAll());
+            }
+        }
+        return s;
+    }
+
+    public void rebuild() {
+        snapshot = build(itemTypeRepository.findAll());
+    }
+
+    /** 분류 저장/삭제 후 (트랜잭션 중이면 커밋 후 재구성) */
+    public void rebuildOnCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild();
+                }
+            });
+        } else {
+            rebuild();
+        }
+    }
+
+    public String path(String typeCd) {
+        return snapshot().path(typeCd);
+    }
+
+    public List<String> subtreeCodes(String typeCd) {
+        return snapshot().subtreeCodes(typeCd);
+    }
+
+    // ---- 구성 ----
+
+    private static Snapshot build(List<ItemTypeMst> types) {
+        int n = types.size();
+        String[] codes = new String[n];
+        String[] names = new String[n];
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            codes[i] = types.get(i).getTypeCd();
+            names[i] = types.get(i).getTypeNm();
+            index.put(codes[i], i);
+        }
+
+        // 부모 번호 (부모 분류가 없거나 목록에 없으면 최상위로 취급)
+        int[] parent = new int[n];
+        int[] childCount = new int[n];
+        for (int i = 0; i < n; i++) {
+            ItemTypeMst p = types.get(i).getParent();
+            Integer pi = p == null ? null : index.get(p.getTypeCd()); // 프록시의 ID 조회는 초기화 없이 가능
+            parent[i] = pi == null ? -1 : pi;
+            if (parent[i] >= 0) childCount[parent[i]]++;
+        }
+        int[][] children = new int[n][];
+        for (int i = 0; i < n; i++) children[i] = new int[childCount[i]];
+        int[] filled = new int[n];
+        Integer[] byCode = new Integer[n];
+        for (int i = 0; i < n; i++) byCode[i] = i;
+        Arrays.sort(byCode, Comparator.comparing(i -> codes[i])); // 자식은 코드 순 (화면 트리와 같은 순서)
+        List<Integer> roots = new ArrayList<>();
+        for (int i : byCode) {
+            if (parent[i] >= 0) children[parent[i]][filled[parent[i]]++] = i;
+            else roots.add(i);
+        }
+
+        // 오일러 투어 (반복문, 루트부터 깊이 우선) + 경로
+        int[] tin = new int[n];
+        int[] tout = new int[n];
+        int[] order = new int[n];
+        String[] paths = new String[n];
+        boolean[] visited = new boolean[n];
+        int timer = 0;
+        Deque<int[]> stack = new ArrayDeque<>(); // {노드, 다음에 볼 자식 위치}
+        for (int root : roots) {
+            visited[root] = true;
+            tin[root] = timer;
+            order[timer++] = root;
+            paths[root] = names[root];
+            stack.push(new int[]{root, 0});
+            while (!stack.isEmpty()) {
+                int[] top = stack.peek();
+                int node = top[0];
+                if (top[1] < children[node].length) {
+                    int child = children[node][top[1]++];
+                    if (visited[child]) continue;
+                    visited[child] = true;
+                    tin[child] = timer;
+                    order[timer++] = child;
+                    paths[child] = paths[node] + " > " + names[child];
+                    stack.push(new int[]{child, 0});
+                } else {
+                    tout[node] = timer;
+                    stack.pop();
+                }
+            }
+        }
+        // 순환 참조 등으로 루트에서 닿지 않는 분류는 단독 노드로 처리
+        for (int i = 0; i < n; i++) {
+            if (!visited[i]) {
+                log.warn("분류 계층에서 닿지 않는 분류(순환 참조?): {}", codes[i]);
+                tin[i] = timer;
+                order[timer++] = i;
+                tout[i] = timer;
+                paths[i] = names[i];
+            }
+        }
+        return new Snapshot(codes, index, parent, children, paths, tin, tout, order);
+    }
+
+    /** 불변 스냅샷 (여러 스레드가 공유) */
+    public static final class Snapshot {
+        private final String[] codes;
+        private final Map<String, Integer> index;
+        private final int[] parent;
+        private final int[][] children;
+        private final String[] paths;
+        private final int[] tin;
+        private final int[] tout;
+        private final int[] order; // 투어 순서 → 노드 번호
+
+        private Snapshot(String[] codes, Map<String, Integer> index, int[] parent, int[][] children,
+                         String[] paths, int[] tin, int[] tout, int[] order) {
+            this.codes = codes;
+            this.index = index;
+            this.parent = parent;
+            this.children = children;
+            this.paths = paths;
+            this.tin = tin;
+            this.tout = tout;
+            this.order = order;
+        }
+
+        /** 전체 경로 (없는 분류면 "-") */
+        public String path(String typeCd) {
+            Integer i = typeCd == null ? null : index.get(typeCd);
+            return i == null ? NO_PATH : paths[i];
+        }
+
+        /** 자신 포함 하위 분류 코드 (없는 분류면 자신만) */
+        public List<String> subtreeCodes(String typeCd) {
+            Integer i = index.get(typeCd);
+            if (i == null) return List.of(typeCd);
+            List<String> result = new ArrayList<>(tout[i] - tin[i]);
+            for (int t = tin[i]; t < tout[i]; t++) result.add(codes[order[t]]);
+            return result;
+        }
+
+        /** typeCd가 ancestorCd 자신이거나 그 하위 분류인지 */
+        public boolean isInSubtree(String ancestorCd, String typeCd) {
+            if (ancestorCd == null || typeCd == null) return false;
+            Integer a = index.get(ancestorCd);
+            Integer t = index.get(typeCd);
+            if (a == null || t == null) return ancestorCd.equals(typeCd);
+            return tin[a] <= tin[t] && tin[t] < tout[a];
+        }
+
+        public boolean contains(String typeCd) {
+            return typeCd != null && index.containsKey(typeCd);
+        }
+
+        public String parentCd(String typeCd) {
+            Integer i = index.get(typeCd);
+            return i == null || parent[i] < 0 ? null : codes[parent[i]];
+        }
+
+        public List<String> childCds(String typeCd) {
+            Integer i = index.get(typeCd);
+            if (i == null) return List.of();
+            List<String> result = new ArrayList<>(children[i].length);
+            for (int c : children[i]) result.add(codes[c]);
+            return result;
+        }
+
+        public int size() {
+            return codes.length;
+        }
+    }
+}
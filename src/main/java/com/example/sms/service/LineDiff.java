@@ -0,0 +1,109 @@
+package com.example.sms.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * 상세 라인 비교 (순번 기준)
+ * - 기존 라인과 저장할 라인을 비교해 추가 / 변경 / 삭제할 라인만 구함 → 바뀐 행만 DB에 반영
+ * - 같은 순번이라도 다른 라인(예: 삭제된 순번을 다른 품목이 다시 사용)이면 기존 라인 삭제 + 새 라인 추가
+ */
+@Getter
+public final class LineDiff<L> {
+
+    private final List<L> inserts = new ArrayList<>();
+    private final List<L> updates = new ArrayList<>();
+    private final List<Integer> deletes = new ArrayList<>();
+    private int unchanged;
+    @Getter(AccessLevel.NONE)
+    private final Set<Integer> replaced = new HashSet<>(); // 삭제 후 다시 추가하는 순번
+    @Getter(AccessLevel.NONE)
+    private final Map<Integer, L> existing;
+    @Getter(AccessLevel.NONE)
+    private final Map<Integer, L> target;
+
+    private LineDiff(Map<Integer, L> existing, Map<Integer, L> target) {
+        this.existing = existing;
+        this.target = target;
+    }
+
+    /**
+     * 저장할 라인에 순번 부여
+     * - 모든 라인에 순번이 있고 중복이 없으면 그 순번 그대로 (화면에서 기존 순번을 넘겨준 경우)
+     * - 아니면 기존 방식대로 들어온 순서대로 1부터
+     */
+    public static <L> Map<Integer, L> bySeqNo(List<L> lines, Function<L, Integer> seqOf) {
+        Map<Integer, L> keyed = new LinkedHashMap<>();
+        for (L line : lines) {
+            Integer seq = seqOf.apply(line);
+            if (seq == null || seq <= 0 || keyed.putIfAbsent(seq, line) != null) {
+                keyed = null;
+                break;
+            }
+        }
+        if (keyed != null) return keyed;
+
+        Map<Integer, L> positional = new LinkedHashMap<>();
+        int seq = 1;
+        for (L line : lines) positional.put(seq++, line);
+        return positional;
+    }
+
+    /**
+     * @param sameContent 기존 라인과 저장할 라인의 내용이 같은지 (같으면 UPDATE 생략)
+     */
+    public static <L> LineDiff<L> compute(Map<Integer, L> existing, Map<Integer, L> target, BiPredicate<L, L> sameContent) {
+        return compute(existing, target, (old, line) -> true, sameContent);
+    }
+
+    /**
+     * @param sameLine    같은 순번의 기존 라인과 저장할 라인이 같은 라인인지 (아니면 삭제 + 추가)
+     * @param sameContent 기존 라인과 저장할 라인의 내용이 같은지 (같으면 UPDATE 생략)
+     */
+    public static <L> LineDiff<L> compute(Map<Integer, L> existing, Map<Integer, L> target,
+                                          BiPredicate<L, L> sameLine, BiPredicate<L, L> sameContent) {
+        LineDiff<L> diff = new LineDiff<>(existing, target);
+        target.forEach((seq, line) -> {
+            L old = existing.get(seq);
+            if (old == null) diff.inserts.add(line);
+            else if (!sameLine.test(old, line)) {
+                diff.deletes.add(seq);
+                diff.replaced.add(seq);
+                diff.inserts.add(line);
+            }
+            else if (sameContent.test(old, line)) diff.unchanged++;
+            else diff.updates.add(line);
+        });
+        for (Integer seq : existing.keySet()) {
+            if (!target.containsKey(seq)) diff.deletes.add(seq);
+        }
+        return diff;
+    }
+
+    /** 상태별 건수 증감 (삭제: 기존 상태 -1, 변경: 기존 -1 / 새 상태 +1, 추가: +1) */
+    public Map<String, Integer> statusDelta(Function<L, String> statusOf) {
+        Map<String, Integer> delta = new HashMap<>();
+        for (Integer seq : deletes) delta.merge(statusOf.apply(existing.get(seq)), -1, Integer::sum);
+        target.forEach((seq, line) -> {
+            L old = replaced.contains(seq) ? null : existing.get(seq);
+            if (old != null) {
+                String from = statusOf.apply(old);
+                String to = statusOf.apply(line);
+                if (Objects.equals(from, to)) return;
+                if (from != null) delta.merge(from, -1, Integer::sum);
+            }
+            String to = statusOf.apply(line);
+            if (to != null) delta.merge(to, 1, Integer::sum);
+        });
+        delta.remove(null);
+        return delta;
+    }
+
+    public String summary() {
+        return "추가 " + inserts.size() + ", 변경 " + updates.size() + ", 삭제 " + deletes.size() + ", 유지 " + unchanged;
+    }
+}
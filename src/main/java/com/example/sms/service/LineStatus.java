@@ -0,0 +1,73 @@
+package com.example.sms.service;
+
+import com.example.sms.service.StatusCounterService.DocType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 발주 / 주문 상세 상태 전환 규칙
+ * - 발주: p1(등록) → p2(확정) → p3(입고완료), p1/p2 → p9(취소)
+ * - 주문: o1(등록) → o2(확정) → o3(출고완료), o1/o2 → o9(취소)
+ * - 입고완료(p3) / 출고완료(o3)는 여기 없음: 재고 반영과 함께 입고/출고 처리에서만 전환
+ *   (PurchaseDetMstRepository.markReceived / OrderDetMstRepository.markShipped, 상태 API / 저장으로는 불가)
+ * - 전환은 "현재 상태 = 허용된 이전 상태" 조건을 WHERE에 넣은 UPDATE 1회로 처리 (이전 상태별 1회)
+ */
+public final class LineStatus {
+
+    // 목표 상태 → 허용되는 이전 상태 (화면 저장 / 상태 API)
+    private static final Map<String, List<String>> PURCHASE_SOURCES = Map.of(
+            "p2", List.of("p1"),
+            "p9", List.of("p1", "p2"));
+
+    private static final Map<String, List<String>> ORDER_SOURCES = Map.of(
+            "o2", List.of("o1"),
+            "o9", List.of("o1", "o2"));
+
+    private LineStatus() {
+    }
+
+    /** toStatus로 바꿀 수 있는 이전 상태 목록 (화면 / 상태 API에서 요청할 수 없는 상태면 예외) */
+    public static List<String> sourcesOf(DocType type, String toStatus) {
+        Map<String, List<String>> table = type == DocType.PURCHASE ? PURCHASE_SOURCES : ORDER_SOURCES;
+        List<String> sources = toStatus == null ? null : table.get(toStatus);
+        if (sources == null) throw new IllegalArgumentException("허용되지 않은 상태 전환: " + toStatus);
+        return sources;
+    }
+
+    /** 신규 라인 상태 */
+    public static String initialOf(DocType type) {
+        return type == DocType.PURCHASE ? "p1" : "o1";
+    }
+
+    /** 저장(화면 수정)으로 from → to 변경 가능 여부 (상태 유지는 항상 가능) */
+    public static boolean canChange(DocType type, String from, String to) {
+        if (Objects.equals(from, to)) return true;
+        Map<String, List<String>> table = type == DocType.PURCHASE ? PURCHASE_SOURCES : ORDER_SOURCES;
+        List<String> sources = to == null ? null : table.get(to);
+        return sources != null && sources.contains(from);
+    }
+
+    /**
+     * 저장 시 라인 상태 검사 (기존 라인은 저장된 상태 → 요청 상태, 신규 라인은 등록 상태 → 요청 상태)
+     * @param from 저장된 상태 (신규 라인이면 null)
+     */
+    public static void checkSave(DocType type, String from, String to, String lineRef) {
+        String source = from == null ? initialOf(type) : from;
+        if (!canChange(type, source, to)) {
+            throw new IllegalArgumentException("허용되지 않은 상태 전환: " + source + " → " + to + " (" + lineRef + ")");
+        }
+    }
+
+    /** 전환 결과 (이전 상태별 변경 건수) */
+    @Getter
+    @AllArgsConstructor
+    public static class TransitionResult {
+        private final String toStatus;
+        private final int affected;
+        private final Map<String, Integer> byFrom;
+    }
+}
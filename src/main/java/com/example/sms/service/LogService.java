@@ -1,38 +1,35 @@
 package com.example.sms.service;
 
 import com.example.sms.entity.LogMst;
-import com.example.sms.repository.LogRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;         // ✅ 추가됨
 import org.springframework.security.core.context.SecurityContextHolder; // ✅ 추가됨
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 @Service
 @RequiredArgsConstructor
 public class LogService {
 
-    private final LogRepository logRepository;
+    private final IdGenService idGenService;
+    private final AuditLogWriter auditLogWriter;
 
     /**
      * ✅ [메소드 1] 기존 코드 호환용 (파라미터 4개)
      */
-    @Transactional
     public void saveLog(String menuName, String actionType, String targetKey, String targetName) {
         saveLog(menuName, actionType, targetKey, targetName, null);
     }
 
     /**
      * ✅ [메소드 2] 상세 내용 포함 (파라미터 5개)
+     * - 사용자/요청 정보는 호출 스레드에서 바로 확인하고, 저장은 커밋 후 AuditLogWriter가 일괄 처리
      */
-    @Transactional
     public void saveLog(String menuName, String actionType, String targetKey, String targetName, String contents) {
 
         // 1. 기본값 anonymous 설정
@@ -81,9 +78,9 @@ public class LogService {
         }
 
         // 4. 로그 번호 생성
-        String logNo = "L" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyMMddHHmmssSSS"));
+        String logNo = idGenService.next("L");
 
-        // 5. 저장
+        // 5. 저장 (커밋 후 비동기 일괄 INSERT)
         LogMst log = LogMst.builder()
                 .logNo(logNo)
                 .logDt(LocalDateTime.now())
@@ -95,6 +92,6 @@ public class LogService {
                 .logUser(userId) // 찾아낸 ID 저장
                 .build();
 
-        logRepository.save(log);
+        auditLogWriter.submit(log);
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.CustMst;
+import com.example.sms.entity.ItemMst;
+import com.example.sms.entity.WhMst;
+import com.example.sms.repository.CustRepository;
+import com.example.sms.repository.ItemRepository;
+import com.example.sms.repository.WhMstRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 품목 / 창고 / 거래처 마스터 캐시
+ * - 입출고·생산·주문 처리에서 건별 findById 대신 사용 (여러 건은 getAll로 1회 조회)
+ * - 마스터 저장/삭제 시 커밋 후 해당 코드 무효화
+ * - 캐시 객체는 어느 영속성 컨텍스트에도 속하지 않는 복사본 (참조용, 수정해도 DB에 반영되지 않음)
+ */
+@Service
+public class MasterCacheService {
+
+    private final NearCache<String, ItemMst> items;
+    private final NearCache<String, WhMst> whs;
+    private final NearCache<String, CustMst> custs;
+
+    public MasterCacheService(ItemRepository itemRepository,
+                              WhMstRepository whMstRepository,
+                              CustRepository custRepository,
+                              @Value("${sms.master-cache.max-size:10000}") int maxSize,
+                              @Value("${sms.master-cache.ttl-ms:600000}") long ttlMs) {
+        this.items = new NearCache<>("item", maxSize, ttlMs, cds -> itemRepository.findAllById(cds).stream()
+                .collect(Collectors.toMap(ItemMst::getItemCd, i -> detachedCopy(i, ItemMst.class))));
+        this.whs = new NearCache<>("wh", maxSize, ttlMs, cds -> whMstRepository.findAllById(cds).stream()
+                .collect(Collectors.toMap(WhMst::getWhCd, w -> detachedCopy(w, WhMst.class))));
+        this.custs = new NearCache<>("cust", maxSize, ttlMs, cds -> custRepository.findAllById(cds).stream()
+                .collect(Collectors.toMap(CustMst::getCustCd, c -> detachedCopy(c, CustMst.class))));
+    }
+
+    // 조회한 트랜잭션(영속성 컨텍스트)과 분리된 복사본만 캐시에 보관
+    // - 조회 결과는 호출 측 트랜잭션이 관리하는 엔티티이므로 그대로 공유하면 누군가 수정했을 때 그 트랜잭션에서 UPDATE됨
+    private static <T> T detachedCopy(T entity, Class<T> type) {
+        T copy = BeanUtils.instantiateClass(type);
+        BeanUtils.copyProperties(entity, copy);
+        return copy;
+    }
+
+    public Optional<ItemMst> item(String itemCd) { return items.get(itemCd); }
+    public Map<String, ItemMst> items(Collection<String> itemCds) { return items.getAll(itemCds); }
+
+    public Optional<WhMst> wh(String whCd) { return whs.get(whCd); }
+    public Map<String, WhMst> whs(Collection<String> whCds) { return whs.getAll(whCds); }
+
+    public Optional<CustMst> cust(String custCd) { return custs.get(custCd); }
+    public Map<String, CustMst> custs(Collection<String> custCds) { return custs.getAll(custCds); }
+
+    public void invalidateItemOnCommit(String itemCd) { onCommit(() -> items.invalidate(itemCd)); }
+    public void invalidateWhOnCommit(String whCd) { onCommit(() -> whs.invalidate(whCd)); }
+    public void invalidateCustOnCommit(String custCd) { onCommit(() -> custs.invalidate(custCd)); }
+
+    public void invalidateAll() {
+        items.invalidateAll();
+        whs.invalidateAll();
+        custs.invalidateAll();
+    }
+
+    public List<Map<String, Object>> stats() {
+        return List.of(items.stats(), whs.stats(), custs.stats());
+    }
+
+    // 트랜잭션 중이면 커밋 후, 아니면 즉시 (저장 직후 다른 요청이 옛 값을 다시 채우지 않도록 즉시도 한 번 제거)
+    private void onCommit(Runnable invalidate) {
+        invalidate.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.example.sms.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 마스터(품목 / BOM / 거래처) CSV 일괄 가져오기
+ * - 파일을 한 줄씩 읽어 chunk 단위로 검증 → MERGE(JDBC batch) → chunk마다 트랜잭션 커밋
+ * - 참조 검증(분류, 품목, 공정)은 작업 시작 시 코드 목록을 한 번 읽어 메모리에서 확인
+ * - 로그는 건별이 아니라 chunk마다 요약 1건
+ * - MERGE는 헤더에 있는 열만 UPDATE (헤더에 없는 열은 기존 값 유지, 새 행은 NULL로 INSERT)
+ * - 작업은 별도 스레드 1개에서 순서대로 실행, 진행 상황은 job()으로 조회
+ */
+@Slf4j
+@Service
+public class MasterImportService {
+
+    public enum MasterType { ITEM, BOM, CUST }
+
+    private static final String MENU_NAME = "마스터 일괄등록";
+    private static final int MAX_JOBS = 50;          // 보관할 작업 이력 수
+    private static final int MAX_ERRORS = 1000;      // 작업당 보관할 오류 행 수
+
+    // 파일 헤더 → 열 (헤더는 대소문자/밑줄 무시: ITEM_CD, itemCd 모두 가능, DB 열 이름은 ITEM_CD 형태로 변환)
+    // 앞쪽 열부터 키(MERGE ON 조건)
+    private static final List<String> ITEM_COLUMNS = List.of("itemCd", "itemNm", "itemFlag", "itemSpec", "itemUnit",
+            "itemCost", "minQty", "maxQty", "remark", "typeCd");
+    private static final List<String> BOM_COLUMNS = List.of("pItemCd", "sItemCd", "seqNo", "useQty", "lossRt", "procCd", "remark");
+    private static final List<String> CUST_COLUMNS = List.of("custCd", "custNm", "presidentNm", "bizNo", "bizCond", "bizItem",
+            "bizAddr", "bizTel", "bizFax", "empCd", "empNm", "empEMail", "empTel", "empHp", "bizFlag");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LogService logService;
+    private final MasterCacheService masterCacheService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ReplenishmentService replenishmentService;
+    private final ItemTypeHierarchy itemTypeHierarchy;
+    private final BomExplodeService bomExplodeService;
+    private final TransactionTemplate chunkTx;
+    private final int chunkSize;
+    private final int batchSize;
+
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "master-import");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, ImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicLong jobSeq = new AtomicLong();
+
+    public MasterImportService(JdbcTemplate jdbcTemplate,
+                               LogService logService,
+                               MasterCacheService masterCacheService,
+                               ItemSearchIndex itemSearchIndex,
+                               ReplenishmentService replenishmentService,
+                               ItemTypeHierarchy itemTypeHierarchy,
+                               BomExplodeService bomExplodeService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${sms.import.chunk-size:1000}") int chunkSize,
+                               @Value("${sms.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.logService = logService;
+        this.masterCacheService = masterCacheService;
+        this.itemSearchIndex = itemSearchIndex;
+        this.replenishmentService = replenishmentService;
+        this.itemTypeHierarchy = itemTypeHierarchy;
+        this.bomExplodeService = bomExplodeService;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        importExecutor.shutdownNow();
+    }
+
+    /**
+     * 가져오기 작업 등록 (파일은 작업이 끝나면 삭제)
+     * @param file 업로드 파일을 옮겨 둔 임시 파일 (UTF-8, 첫 줄은 헤더)
+     */
+    public ImportJob start(MasterType type, Path file, String fileName) {
+        ImportJob job = new ImportJob(type.name() + "-" + jobSeq.incrementAndGet(), type, fileName);
+        synchronized (jobs) {
+            jobs.put(job.getJobId(), job);
+            Iterator<ImportJob> it = jobs.values().iterator();
+            while (jobs.size() > MAX_JOBS && it.hasNext()) {
+                if (it.next().isFinished()) it.remove();
+                else break;
+            }
+        }
+        importExecutor.submit(() -> {
+            try {
+                run(job, file);
+            } finally {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("가져오기 임시 파일 삭제 실패: {}", file);
+                }
+            }
+        });
+        return job;
+    }
+
+    public Optional<ImportJob> job(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public List<ImportJob> jobs() {
+        synchronized (jobs) {
+            List<ImportJob> list = new ArrayList<>(jobs.values());
+            Collections.reverse(list); // 최근 작업부터
+            return list;
+        }
+    }
+
+    // ---- 실행 ----
+
+    private void run(ImportJob job, Path file) {
+        job.status = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            Importer importer = importer(job.getType());
+            List<String> header = reader.next();
+            if (header == null) throw new IllegalArgumentException("빈 파일입니다.");
+            int[] columnIndex = mapHeader(header, importer.columns(), importer.requiredColumns());
+            String sql = mergeSql(importer, columnIndex);
+
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            List<String> record;
+            long rowNo = 1; // 헤더 = 1행
+            while ((record = reader.next()) != null) {
+                rowNo++;
+                if (record.size() == 1 && record.get(0).isBlank()) continue; // 빈 줄
+                String[] values = new String[columnIndex.length];
+                for (int i = 0; i < columnIndex.length; i++) {
+                    int c = columnIndex[i];
+                    values[i] = c >= 0 && c < record.size() ? trimToNull(record.get(c)) : null;
+                }
+                chunk.add(new Row(rowNo, values));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(job, importer, sql, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) processChunk(job, importer, sql, chunk);
+            job.status = "DONE";
+        } catch (Exception e) {
+            log.error("마스터 가져오기 실패: {}", job.getJobId(), e);
+            job.status = "FAILED";
+            job.message = e.getMessage();
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            afterImport(job.getType());
+            log.info("마스터 가져오기 {}: {} 읽음 {}, 저장 {}, 오류 {}", job.getStatus(), job.getJobId(),
+                    job.getReadCount(), job.getSavedCount(), job.getErrorCount());
+        }
+    }
+
+    private void processChunk(ImportJob job, Importer importer, String sql, List<Row> chunk) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        int errors = 0;
+        for (Row row : chunk) {
+            String error = importer.validate(row.values());
+            if (error == null) valid.add(row);
+            else {
+                errors++;
+                job.addError(row.rowNo(), error);
+            }
+        }
+
+        long from = chunk.get(0).rowNo();
+        long to = chunk.get(chunk.size() - 1).rowNo();
+        int saved = 0;
+        if (!valid.isEmpty()) {
+            try {
+                int finalErrors = errors;
+                chunkTx.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(sql, valid, batchSize, (ps, row) -> importer.bind(ps, row.values()));
+                    logService.saveLog(MENU_NAME, "일괄등록", job.getJobId(), job.getType().name() + " " + job.getFileName(),
+                            from + "~" + to + "행: 저장 " + valid.size() + "건, 오류 " + finalErrors + "건");
+                });
+                saved = valid.size();
+            } catch (RuntimeException e) {
+                // chunk 전체 롤백 → 해당 행 모두 오류 처리 후 다음 chunk 계속
+                errors += valid.size();
+                job.addError(from, from + "~" + to + "행 저장 실패: " + messageOf(e));
+            }
+        }
+
+        job.readCount.addAndGet(chunk.size());
+        job.savedCount.addAndGet(saved);
+        job.errorCount.addAndGet(errors);
+        job.chunkCount.incrementAndGet();
+    }
+
+    private static String messageOf(RuntimeException e) {
+        Throwable t = e;
+        while (t.getCause() != null) t = t.getCause();
+        return t.getMessage();
+    }
+
+    // 가져온 마스터의 캐시/인덱스 갱신 (실패해도 이미 커밋된 chunk가 있으므로 항상 수행)
+    private void afterImport(MasterType type) {
+        switch (type) {
+            case ITEM -> {
+                masterCacheService.invalidateAll();
+                itemSearchIndex.rebuild();
+                bomExplodeService.invalidateAll();
+                replenishmentService.markAllChangedOnCommit(); // 최소/최대재고가 바뀌었을 수 있음
+            }
+            case BOM -> bomExplodeService.invalidateAll();
+            case CUST -> masterCacheService.invalidateAll();
+        }
+    }
+
+    private Importer importer(MasterType type) {
+        return switch (type) {
+            case ITEM -> new ItemImporter(itemTypeHierarchy.snapshot());
+            case BOM -> new BomImporter(
+                    new HashSet<>(jdbcTemplate.queryForList("SELECT ITEM_CD FROM TB_ITEMMST", String.class)),
+                    new HashSet<>(jdbcTemplate.queryForList("SELECT PROC_CD FROM TB_PROCMST", String.class)));
+            case CUST -> new CustImporter();
+        };
+    }
+
+    private static int[] mapHeader(List<String> header, List<String> columns, List<String> required) {
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) position.putIfAbsent(headerKey(header.get(i)), i);
+        int[] index = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) index[i] = position.getOrDefault(headerKey(columns.get(i)), -1);
+        for (String name : required) {
+            if (index[columns.indexOf(name)] < 0) throw new IllegalArgumentException("헤더에 " + name + " 열이 없습니다.");
+        }
+        return index;
+    }
+
+    /**
+     * MERGE 문 (작업마다 헤더 기준으로 생성)
+     * - USING / INSERT는 전체 열 (헤더에 없는 열은 NULL로 바인딩)
+     * - UPDATE SET은 헤더에 있는 키 외 열만 → 일부 열만 있는 파일로 기존 값을 지우지 않음
+     */
+    static String mergeSql(String table, List<String> columns, int keyCount, int[] columnIndex) {
+        List<String> db = columns.stream().map(MasterImportService::dbColumn).toList();
+        List<String> set = new ArrayList<>();
+        for (int i = keyCount; i < db.size(); i++) {
+            if (columnIndex[i] >= 0) set.add("t." + db.get(i) + " = s." + db.get(i));
+        }
+        StringBuilder sql = new StringBuilder()
+                .append("MERGE INTO ").append(table).append(" t\n")
+                .append("USING (SELECT ").append(String.join(", ", db.stream().map(c -> "? AS " + c).toList())).append(" FROM DUAL) s\n")
+                .append("ON (").append(String.join(" AND ", db.subList(0, keyCount).stream().map(c -> "t." + c + " = s." + c).toList())).append(")\n");
+        if (!set.isEmpty()) sql.append("WHEN MATCHED THEN UPDATE SET ").append(String.join(", ", set)).append("\n");
+        sql.append("WHEN NOT MATCHED THEN INSERT (").append(String.join(", ", db)).append(")\n")
+                .append("     VALUES (").append(String.join(", ", db.stream().map(c -> "s." + c).toList())).append(")");
+        return sql.toString();
+    }
+
+    private static String mergeSql(Importer importer, int[] columnIndex) {
+        return mergeSql(importer.table(), importer.columns(), importer.keyCount(), columnIndex);
+    }
+
+    // itemCd → ITEM_CD, pItemCd → P_ITEM_CD, empEMail → EMP_E_MAIL
+    static String dbColumn(String name) {
+        return name.replaceAll("([A-Z])", "_$1").toUpperCase(Locale.ROOT);
+    }
+
+    private static String headerKey(String name) {
+        String s = name.startsWith("\uFEFF") ? name.substring(1) : name;
+        return s.replace("_", "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String trimToNull(String v) {
+        if (v == null) return null;
+        String s = v.trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    // ---- 마스터별 검증 / 바인딩 ----
+
+    private interface Importer {
+        List<String> columns();
+        /** 헤더에 반드시 있어야 하는 열 */
+        List<String> requiredColumns();
+        String table();
+        /** columns() 앞에서부터 키 열 수 */
+        int keyCount();
+        /** 오류 메시지 (정상이면 null) */
+        String validate(String[] v);
+        void bind(PreparedStatement ps, String[] v) throws SQLException;
+    }
+
+    private record ItemImporter(ItemTypeHierarchy.Snapshot types) implements Importer {
+        public List<String> columns() { return ITEM_COLUMNS; }
+        public List<String> requiredColumns() { return List.of("itemCd", "itemFlag"); }
+        public String table() { return "TB_ITEMMST"; }
+        public int keyCount() { return 1; }
+
+        public String validate(String[] v) {
+            if (v[0] == null) return "품목 코드는 필수입니다.";
+            if (v[0].length() > 20) return "품목 코드는 20자 이하입니다.";
+            if (!"01".equals(v[2]) && !"02".equals(v[2])) return "품목구분은 01(자재) 또는 02(제품)만 가능합니다.";
+            if (v[9] != null && !types.contains(v[9])) return "존재하지 않는 분류입니다: " + v[9];
+            if (!isNumber(v[5])) return "단가가 숫자가 아닙니다: " + v[5];
+            if (!isInt(v[6]) || !isInt(v[7])) return "최소/최대 수량은 정수여야 합니다.";
+            return null;
+        }
+
+        public void bind(PreparedStatement ps, String[] v) throws SQLException {
+            ps.setString(1, v[0]);
+            ps.setString(2, v[1]);
+            ps.setString(3, v[2]);
+            ps.setString(4, v[3]);
+            ps.setString(5, v[4]);
+            setDouble(ps, 6, v[5]);
+            setInt(ps, 7, v[6]);
+            setInt(ps, 8, v[7]);
+            ps.setString(9, v[8]);
+            ps.setString(10, v[9]);
+        }
+    }
+
+    private record BomImporter(Set<String> itemCds, Set<String> procCds) implements Importer {
+        public List<String> columns() { return BOM_COLUMNS; }
+        public List<String> requiredColumns() { return List.of("pItemCd", "sItemCd", "seqNo"); }
+        public String table() { return "TB_BOM"; }
+        public int keyCount() { return 3; }
+
+        public String validate(String[] v) {
+            if (v[0] == null || v[1] == null || v[2] == null) return "제품 코드, 자재 코드, 순번은 필수입니다.";
+            if (v[0].equals(v[1])) return "제품과 자재가 같습니다: " + v[0];
+            if (!itemCds.contains(v[0])) return "존재하지 않는 제품입니다: " + v[0];
+            if (!itemCds.contains(v[1])) return "존재하지 않는 자재입니다: " + v[1];
+            if (!isInt(v[2])) return "순번은 정수여야 합니다: " + v[2];
+            if (!isNumber(v[3]) || !isNumber(v[4])) return "소요량/Loss율이 숫자가 아닙니다.";
+            if (v[5] != null && !procCds.contains(v[5])) return "존재하지 않는 공정입니다: " + v[5];
+            return null;
+        }
+
+        public void bind(PreparedStatement ps, String[] v) throws SQLException {
+            ps.setString(1, v[0]);
+            ps.setString(2, v[1]);
+            setInt(ps, 3, v[2]);
+            setDouble(ps, 4, v[3]);
+            setDouble(ps, 5, v[4]);
+            ps.setString(6, v[5]);
+            ps.setString(7, v[6]);
+        }
+    }
+
+    private record CustImporter() implements Importer {
+        public List<String> columns() { return CUST_COLUMNS; }
+        public List<String> requiredColumns() { return List.of("custCd", "custNm"); }
+        public String table() { return "TB_CUSTMST"; }
+        public int keyCount() { return 1; }
+
+        public String validate(String[] v) {
+            if (v[0] == null) return "거래처코드(CUST_CD)는 필수입니다.";
+            if (v[0].length() > 10) return "거래처코드는 10자 이하입니다.";
+            if (v[1] == null) return "거래처명(CUST_NM)은 필수입니다.";
+            if (v[14] == null) v[14] = "02"; // 없으면 고객사 (화면 저장과 동일)
+            if (!"01".equals(v[14]) && !"02".equals(v[14])) return "bizFlag는 01(구매처) 또는 02(고객사)만 가능합니다.";
+            return null;
+        }
+
+        public void bind(PreparedStatement ps, String[] v) throws SQLException {
+            for (int i = 0; i < v.length; i++) ps.setString(i + 1, v[i]);
+        }
+    }
+
+    private static boolean isNumber(String v) {
+        if (v == null) return true;
+        try {
+            Double.parseDouble(v.replace(",", ""));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isInt(String v) {
+        if (v == null) return true;
+        try {
+            Integer.parseInt(v.replace(",", ""));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void setDouble(PreparedStatement ps, int idx, String v) throws SQLException {
+        if (v == null) ps.setNull(idx, Types.DOUBLE);
+        else ps.setDouble(idx, Double.parseDouble(v.replace(",", "")));
+    }
+
+    private static void setInt(PreparedStatement ps, int idx, String v) throws SQLException {
+        if (v == null) ps.setNull(idx, Types.INTEGER);
+        else ps.setInt(idx, Integer.parseInt(v.replace(",", "")));
+    }
+
+    private record Row(long rowNo, String[] values) {
+    }
+
+    // ---- CSV ----
+
+    /** RFC 4180 CSV 한 레코드씩 읽기 (따옴표 안의 쉼표/줄바꿈, "" 이스케이프 처리) */
+    static final class CsvReader implements Closeable {
+        private final Reader in;
+        private boolean eof;
+
+        CsvReader(Reader in) {
+            this.in = in.markSupported() ? in : new BufferedReader(in);
+        }
+
+        /** 다음 레코드 (파일 끝이면 null) */
+        List<String> next() throws IOException {
+            if (eof) return null;
+            List<String> fields = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = in.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int n = in.read();
+                        if (n == '"') sb.append('"');
+                        else {
+                            quoted = false;
+                            if (n != -1) in.reset();
+                        }
+                    } else {
+                        sb.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(sb.toString());
+                    sb.setLength(0);
+                } else if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') in.reset();
+                    fields.add(sb.toString());
+                    return fields;
+                } else if (c == '\n') {
+                    fields.add(sb.toString());
+                    return fields;
+                } else {
+                    sb.append((char) c);
+                }
+            }
+            eof = true;
+            if (!any) return null;
+            fields.add(sb.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // ---- 작업 상태 ----
+
+    @Getter
+    public static class ImportJob {
+        private final String jobId;
+        private final MasterType type;
+        private final String fileName;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile String status = "QUEUED"; // QUEUED / RUNNING / DONE / FAILED
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private final AtomicLong readCount = new AtomicLong();
+        private final AtomicLong savedCount = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final AtomicLong chunkCount = new AtomicLong();
+        private final List<RowError> errors = new CopyOnWriteArrayList<>(); // 최대 MAX_ERRORS건
+
+        ImportJob(String jobId, MasterType type, String fileName) {
+            this.jobId = jobId;
+            this.type = type;
+            this.fileName = fileName;
+        }
+
+        public boolean isFinished() {
+            return "DONE".equals(status) || "FAILED".equals(status);
+        }
+
+        void addError(long rowNo, String message) {
+            if (errors.size() < MAX_ERRORS) errors.add(new RowError(rowNo, message));
+        }
+    }
+
+    public record RowError(long rowNo, String message) {
+    }
+}
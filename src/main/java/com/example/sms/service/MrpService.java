@@ -0,0 +1,151 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.Prod;
+import com.example.sms.repository.ItemIoRepository;
+import com.example.sms.repository.ItemStockRepository;
+import com.example.sms.repository.ProdRepository;
+import com.example.sms.repository.PurchaseDetMstRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * MRP (자재 소요량 계획)
+ * - 진행 중인 생산계획(01~03) 전체를 BOM 전개하여 자재별 총소요량 산출
+ * - 가용재고(재고 - 할당) + 미입고 발주(p1/p2)로 순소요량 계산
+ * - 생산일자 기준으로 기간별 부족 수량과 발주 제안 수량 출력
+ */
+@Service
+@RequiredArgsConstructor
+public class MrpService {
+
+    private static final List<String> OPEN_STATUSES = List.of("01", "02", "03");
+
+    private final ProdRepository prodRepository;
+    private final ItemIoRepository itemIoRepository;
+    private final ItemStockRepository itemStockRepository;
+    private final PurchaseDetMstRepository purchaseDetMstRepository;
+    private final BomExplodeService bomExplodeService;
+
+    // 제품별 BOM 전개 병렬 처리용 (DB 커넥션 풀을 고갈시키지 않도록 제한)
+    private final ForkJoinPool explodePool = new ForkJoinPool(Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    @PreDestroy
+    void shutdown() {
+        explodePool.shutdown();
+    }
+
+    @Transactional(readOnly = true)
+    public MrpResult run() {
+        List<Prod> prods = prodRepository.findByStatusIn(OPEN_STATUSES);
+
+        // 이미 자재예약된 계획은 할당수량(allocQty)에 반영되어 있으므로 소요량에서 제외
+        Set<String> reserved = new HashSet<>(itemIoRepository.findReservedProdNos());
+        List<Prod> targets = prods.stream()
+                .filter(p -> !reserved.contains(p.getProdNo()))
+                .filter(p -> p.getItemCd() != null && p.getPlanQty() != null && p.getPlanQty().signum() > 0)
+                .toList();
+
+        // 1. 제품별 1개당 소요량 (제품 단위로 병렬 전개)
+        Set<String> productCds = targets.stream().map(Prod::getItemCd).collect(Collectors.toSet());
+        Map<String, Map<String, BigDecimal>> perUnit = new ConcurrentHashMap<>();
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        explodePool.submit(() -> productCds.parallelStream().forEach(cd -> {
+            try {
+                perUnit.put(cd, bomExplodeService.perUnit(cd));
+            } catch (IllegalArgumentException e) {
+                errors.put(cd, e.getMessage());
+            }
+        })).join();
+
+        // 2. 자재별 · 일자별 총소요량
+        Map<String, TreeMap<String, BigDecimal>> gross = new HashMap<>();
+        for (Prod p : targets) {
+            Map<String, BigDecimal> unit = perUnit.get(p.getItemCd());
+            if (unit == null) continue;
+            String bucket = bucketOf(p.getProdDt());
+            unit.forEach((matCd, q) -> gross
+                    .computeIfAbsent(matCd, k -> new TreeMap<>())
+                    .merge(bucket, q.multiply(p.getPlanQty()), BigDecimal::add));
+        }
+
+        // 3. 가용재고 / 미입고 발주
+        Map<String, BigDecimal> available = new HashMap<>();
+        itemStockRepository.summary().forEach(v -> available.put(v.getItemCd(),
+                nz(v.getStockQty()).subtract(nz(v.getAllocQty()))));
+        Map<String, BigDecimal> onOrder = new HashMap<>();
+        purchaseDetMstRepository.sumOpenQtyByItem().forEach(v -> onOrder.put(v.getItemCd(),
+                BigDecimal.valueOf(v.getOpenQty() == null ? 0 : v.getOpenQty())));
+
+        // 4. 기간별 순소요량 (앞 기간부터 가용량 차감)
+        List<MaterialPlan> materials = new ArrayList<>();
+        List<PurchaseSuggestion> suggestions = new ArrayList<>();
+        for (Map.Entry<String, TreeMap<String, BigDecimal>> e : gross.entrySet()) {
+            String matCd = e.getKey();
+            BigDecimal avail = nz(available.get(matCd)).max(BigDecimal.ZERO);
+            BigDecimal ordered = nz(onOrder.get(matCd));
+            BigDecimal projected = avail.add(ordered);
+
+            List<Bucket> buckets = new ArrayList<>();
+            BigDecimal totalGross = BigDecimal.ZERO;
+            BigDecimal totalNet = BigDecimal.ZERO;
+            String firstShortDt = null;
+            for (Map.Entry<String, BigDecimal> b : e.getValue().entrySet()) {
+                BigDecimal g = b.getValue();
+                BigDecimal net = g.subtract(projected).max(BigDecimal.ZERO);
+                projected = projected.subtract(g).max(BigDecimal.ZERO);
+                buckets.add(new Bucket(b.getKey(), g, net));
+                totalGross = totalGross.add(g);
+                totalNet = totalNet.add(net);
+                if (firstShortDt == null && net.signum() > 0) firstShortDt = b.getKey();
+            }
+
+            materials.add(new MaterialPlan(matCd, totalGross, avail, ordered, totalNet, buckets));
+            if (totalNet.signum() > 0) {
+                suggestions.add(new PurchaseSuggestion(matCd, totalNet.setScale(0, RoundingMode.CEILING), firstShortDt));
+            }
+        }
+        materials.sort(Comparator.comparing(MaterialPlan::getItemCd));
+        suggestions.sort(Comparator.comparing(PurchaseSuggestion::getNeedDt, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(PurchaseSuggestion::getItemCd));
+
+        return new MrpResult(targets.size(), materials, suggestions, errors);
+    }
+
+    // 생산일자(문자) → 일자 버킷 (yyyy-MM-dd 앞 10자리, 없으면 미정)
+    private static String bucketOf(String prodDt) {
+        if (prodDt == null || prodDt.isBlank()) return "9999-12-31";
+        return prodDt.length() > 10 ? prodDt.substring(0, 10) : prodDt;
+    }
+
+    private static BigDecimal nz(BigDecimal v) { return v == null ? BigDecimal.ZERO : v; }
+
+    @Getter @AllArgsConstructor
+    public static class Bucket {
+        private String dt; private BigDecimal grossQty; private BigDecimal netQty;
+    }
+    @Getter @AllArgsConstructor
+    public static class MaterialPlan {
+        private String itemCd; private BigDecimal grossQty; private BigDecimal availQty; private BigDecimal onOrderQty;
+        private BigDecimal netQty; private List<Bucket> buckets;
+    }
+    @Getter @AllArgsConstructor
+    public static class PurchaseSuggestion {
+        private String itemCd; private BigDecimal qty; private String needDt;
+    }
+    @Getter @AllArgsConstructor
+    public static class MrpResult {
+        private int planCount; private List<MaterialPlan> materials; private List<PurchaseSuggestion> suggestions;
+        private Map<String, String> errors; // 전개 실패 제품 (순환 BOM 등)
+    }
+}
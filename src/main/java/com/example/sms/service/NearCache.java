@@ -0,0 +1,127 @@
+package com.example.sms.service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 크기 / TTL 제한 LRU 캐시 (JVM 내)
+ * - 없는 키는 loader로 한 번에 조회 (getAll → findAllById 1회)
+ * - 조회 중 무효화가 일어나면 조회 결과를 넣지 않음 (무효화 이전 값이 다시 들어가는 것 방지)
+ * - 반환 객체는 여러 스레드가 공유하므로 수정하지 말 것
+ */
+public class NearCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMs;
+    private final Function<Collection<K>, Map<K, V>> loader;
+
+    private final LinkedHashMap<K, Entry<V>> map;
+    private long version; // 무효화마다 증가 (map과 같은 잠금으로 보호)
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public NearCache(String name, int maxSize, long ttlMs, Function<Collection<K>, Map<K, V>> loader) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.loader = loader;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > NearCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<V> get(K key) {
+        if (key == null) return Optional.empty();
+        return Optional.ofNullable(getAll(List.of(key)).get(key));
+    }
+
+    public Map<K, V> getAll(Collection<K> keys) {
+        Map<K, V> result = new HashMap<>();
+        Set<K> missing = new HashSet<>();
+        long ver;
+        long now = System.currentTimeMillis();
+        synchronized (map) {
+            ver = version;
+            for (K k : keys) {
+                if (k == null || result.containsKey(k)) continue;
+                Entry<V> e = map.get(k);
+                if (e != null && e.expiresAt() > now) {
+                    result.put(k, e.value());
+                    continue;
+                }
+                if (e != null) {
+                    map.remove(k);
+                    expirations.incrementAndGet();
+                }
+                missing.add(k);
+            }
+        }
+        hits.addAndGet(result.size());
+        if (missing.isEmpty()) return result;
+
+        misses.addAndGet(missing.size());
+        Map<K, V> loaded = loader.apply(missing);
+        result.putAll(loaded);
+
+        synchronized (map) {
+            if (version == ver) {
+                long expiresAt = System.currentTimeMillis() + ttlMs;
+                loaded.forEach((k, v) -> map.put(k, new Entry<>(v, expiresAt)));
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(K key) {
+        synchronized (map) {
+            version++;
+            map.remove(key);
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        synchronized (map) {
+            version++;
+            map.clear();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        synchronized (map) {
+            size = map.size();
+        }
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("ttlMs", ttlMs);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
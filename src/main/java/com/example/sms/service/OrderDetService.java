@@ -7,6 +7,7 @@ import com.example.sms.entity.OrderMst;
 import com.example.sms.repository.ItemRepository;
 import com.example.sms.repository.OrderDetMstRepository;
 import com.example.sms.repository.OrderMstRepository;
+import com.example.sms.service.StatusCounterService.DocType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +22,7 @@ public class OrderDetService {
     private final OrderDetMstRepository repo;
     private final OrderMstRepository orderRepo;
     private final ItemRepository itemRepo;
+    private final StatusCounterService statusCounterService;
 
     /** ✅ 전체/검색 통합 */
     @Transactional(readOnly = true)
@@ -70,18 +72,25 @@ public class OrderDetService {
         OrderDetIdMst id = makeId(orderCd, dto.getSeqNo());
 
         OrderDetMst e = repo.findById(id).orElseGet(OrderDetMst::new);
+        String oldStatus = e.getStatus(); // 신규 라인이면 null
         e.setId(id);
         e.setItemCd(itemCd);
         e.setOrderQty(dto.getOrderQty());
         e.setStatus(dto.getStatus() == null || dto.getStatus().isBlank() ? "o1" : dto.getStatus());
         e.setRemark(dto.getRemark());
 
-        return repo.save(e);
+        OrderDetMst saved = repo.save(e);
+        statusCounterService.changedOnCommit(DocType.ORDER, oldStatus, saved.getStatus(), 1);
+        return saved;
     }
 
     @Transactional
     public void delete(String orderCd, Integer seqNo) {
-        repo.deleteById(makeId(orderCd, seqNo));
+        OrderDetIdMst id = makeId(orderCd, seqNo);
+        repo.findById(id).ifPresent(e -> {
+            repo.delete(e);
+            statusCounterService.changedOnCommit(DocType.ORDER, e.getStatus(), null, 1);
+        });
     }
 
     private OrderDetIdMst makeId(String orderCd, Integer seqNo) {
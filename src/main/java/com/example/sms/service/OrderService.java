@@ -8,18 +8,22 @@ import com.example.sms.entity.OrderDetIdMst;
 import com.example.sms.entity.OrderDetMst;
 import com.example.sms.entity.OrderMst;
 import com.example.sms.repository.CustRepository;
+import com.example.sms.repository.DetailLineBatchRepository;
 import com.example.sms.repository.ItemRepository;
 import com.example.sms.repository.OrderDetMstRepository;
 import com.example.sms.repository.OrderMstRepository;
+import com.example.sms.service.LineStatus.TransitionResult;
+import com.example.sms.service.StatusCounterService.DocType;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,14 +35,20 @@ public class OrderService {
     private final OrderDetMstRepository orderDetMstRepository;
     private final ItemRepository itemRepository;
     private final CustRepository custRepository;
+    private final MasterCacheService masterCacheService;
     private final LogService logService;
+    private final IdGenService idGenService;
+    private final DetailLineBatchRepository detailLineBatchRepository;
+    private final StatusCounterService statusCounterService;
 
-    // ✅ [확정] 타임스탬프 포맷 (년월일시분초밀리초)
-    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+    private static final int IN_CHUNK = 1000;          // Oracle IN 목록 최대 건수
+    private static final int MAX_BROWSE_SIZE = 200;
+    private static final Set<String> BROWSE_SORTS = Set.of("orderDt", "orderCd", "custCd");
+    private static final int MAX_QUEUE_PAGE_SIZE = 500;
 
-    // ✅ [확정] 주문번호 생성: O + 타임스탬프 (예: O20250107120000123)
+    // ✅ [확정] 주문번호 생성: O + 일자 + 일련번호 (예: O2501070000001001)
     private String newOrderCd() {
-        return "O" + LocalDateTime.now().format(TS);
+        return idGenService.next("O");
     }
 
     /* =========================================================
@@ -58,16 +68,7 @@ public class OrderService {
         Map<String, String> custNmMap = custRepository.findAllById(custCdList).stream()
                 .collect(Collectors.toMap(CustMst::getCustCd, CustMst::getCustNm, (a, b) -> a));
 
-        return list.stream().map(o -> {
-            OrderDto dto = new OrderDto();
-            dto.setOrderCd(o.getOrderCd());
-            dto.setOrderDt(o.getOrderDt());
-            dto.setCustCd(o.getCustCd());
-            dto.setCustNm(custNmMap.getOrDefault(o.getCustCd(), ""));
-            dto.setCustEmp(o.getCustEmp());
-            dto.setRemark(o.getRemark());
-            return dto;
-        }).toList();
+        return list.stream().map(o -> toDto(o, custNmMap.getOrDefault(o.getCustCd(), ""))).toList();
     }
 
     @Transactional(readOnly = true)
@@ -82,14 +83,7 @@ public class OrderService {
                     .orElse("");
         }
 
-        OrderDto dto = new OrderDto();
-        dto.setOrderCd(o.getOrderCd());
-        dto.setOrderDt(o.getOrderDt());
-        dto.setCustCd(o.getCustCd());
-        dto.setCustNm(custNm);
-        dto.setCustEmp(o.getCustEmp());
-        dto.setRemark(o.getRemark());
-        return dto;
+        return toDto(o, custNm);
     }
 
     @Transactional(readOnly = true)
@@ -104,18 +98,52 @@ public class OrderService {
         Map<String, String> itemNmMap = itemRepository.findAllById(itemCdList).stream()
                 .collect(Collectors.toMap(ItemMst::getItemCd, ItemMst::getItemNm, (a, b) -> a));
 
-        return dets.stream().map(d -> {
-            OrderDetDto dto = new OrderDetDto();
-            dto.setOrderCd(d.getId().getOrderCd());
-            dto.setSeqNo(d.getId().getSeqNo());
-            dto.setItemCd(d.getItemCd());
-            dto.setItemNm(itemNmMap.getOrDefault(d.getItemCd(), ""));
-            dto.setOrderQty(d.getOrderQty());
-            dto.setWhCd(d.getWhCd());
-            dto.setStatus(d.getStatus());
-            dto.setRemark(d.getRemark());
+        return dets.stream().map(d -> toDetDto(d, itemNmMap.getOrDefault(d.getItemCd(), ""))).toList();
+    }
+
+    /**
+     * 주문 목록 페이지 (헤더 페이지 조회 1회 + 해당 주문들의 상세 조회 1회)
+     * - 거래처명 / 품목명은 마스터 캐시에서 일괄 조회
+     * - status가 있으면 그 상태의 라인이 있는 주문만, 상세도 그 상태의 라인만
+     * - 정렬: orderDt / orderCd / custCd (기본 orderDt 내림차순), 마지막에 orderCd로 순서 고정
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderDto> browseOrders(LocalDate fromDt, LocalDate toDt, String custCd, String status, Pageable pageable) {
+        int size = Math.max(1, Math.min(pageable.isPaged() ? pageable.getPageSize() : 50, MAX_BROWSE_SIZE));
+        int pageNo = pageable.isPaged() ? pageable.getPageNumber() : 0;
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "orderDt");
+        for (Sort.Order o : sort) {
+            if (!BROWSE_SORTS.contains(o.getProperty())) {
+                throw new IllegalArgumentException("정렬할 수 없는 항목입니다: " + o.getProperty());
+            }
+        }
+        if (sort.getOrderFor("orderCd") == null) sort = sort.and(Sort.by(Sort.Direction.DESC, "orderCd"));
+
+        Page<OrderMst> page = orderMstRepository.browse(fromDt, toDt, custCd, status, PageRequest.of(pageNo, size, sort));
+
+        boolean byStatus = status != null && !status.isBlank();
+        Map<String, List<OrderDetMst>> detMap = new HashMap<>();
+        for (OrderDetMst d : findDetails(page.getContent().stream().map(OrderMst::getOrderCd).toList())) {
+            if (byStatus && !status.equals(d.getStatus())) continue;
+            detMap.computeIfAbsent(d.getId().getOrderCd(), k -> new ArrayList<>()).add(d);
+        }
+
+        Map<String, CustMst> custs = masterCacheService.custs(page.getContent().stream()
+                .map(OrderMst::getCustCd).filter(cd -> cd != null && !cd.isBlank()).collect(Collectors.toSet()));
+        Map<String, ItemMst> items = masterCacheService.items(detMap.values().stream()
+                .flatMap(List::stream).map(OrderDetMst::getItemCd).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        return page.map(o -> {
+            CustMst cust = custs.get(o.getCustCd());
+            OrderDto dto = toDto(o, cust != null ? cust.getCustNm() : "");
+            dto.setDetails(detMap.getOrDefault(o.getOrderCd(), List.of()).stream()
+                    .map(d -> {
+                        ItemMst item = items.get(d.getItemCd());
+                        return toDetDto(d, item != null ? item.getItemNm() : "");
+                    })
+                    .toList());
             return dto;
-        }).toList();
+        });
     }
 
     @Transactional(readOnly = true)
@@ -124,6 +152,16 @@ public class OrderService {
         return orderMstRepository.findAll(Sort.by(dir, "orderDt"));
     }
 
+    // 주문 목록 + 상세 (주문별 조회 대신 IN 조회로 일괄)
+    @Transactional(readOnly = true)
+    public List<OrderMst> getOrderListWithDetails(String sort) {
+        List<OrderMst> list = getOrderList(sort);
+        Map<String, List<OrderDetMst>> detMap = findDetails(list.stream().map(OrderMst::getOrderCd).toList()).stream()
+                .collect(Collectors.groupingBy(d -> d.getId().getOrderCd()));
+        list.forEach(o -> o.setDetails(detMap.getOrDefault(o.getOrderCd(), new ArrayList<>())));
+        return list;
+    }
+
     @Transactional(readOnly = true)
     public OrderMst getOrder(String orderCd) {
         return orderMstRepository.findById(orderCd)
@@ -135,33 +173,113 @@ public class OrderService {
         return orderDetMstRepository.findByIdOrderCdOrderByIdSeqNoAsc(orderCd);
     }
 
+    /** 출고 대기열 (확정 o2, 주문번호/순번 순) */
+    @Transactional(readOnly = true)
+    public List<OrderDetMst> getWaitingForOutboundList(String sortDirection) {
+        return orderDetMstRepository.findByStatus("o2", queueSort(sortDirection));
+    }
+
     @Transactional(readOnly = true)
-    public List<OrderDetMst> getWaitingForOutboundList() {
-        return orderDetMstRepository.findAll().stream()
-                .filter(d -> "o2".equals(d.getStatus()))
-                .collect(Collectors.toList());
+    public Page<OrderDetMst> getWaitingForOutboundPage(String sortDirection, int page, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_QUEUE_PAGE_SIZE));
+        return orderDetMstRepository.findByStatus("o2", PageRequest.of(Math.max(0, page), limit, queueSort(sortDirection)));
+    }
+
+    private static Sort queueSort(String sortDirection) {
+        Sort.Direction dir = "ASC".equalsIgnoreCase(sortDirection) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(dir, "id.orderCd").and(Sort.by("id.seqNo"));
+    }
+
+    /**
+     * ✅ 상태 전환 (주문 단위 / 지정 라인, 예: 확정 o1 → o2)
+     * - seqNos가 비어 있으면 주문 전체 라인, 있으면 해당 라인만
+     * - 전환 규칙(LineStatus)에 맞는 현재 상태의 라인만 변경하고 나머지는 그대로 둠
+     */
+    @Transactional
+    public TransitionResult transition(String orderCd, Collection<Integer> seqNos, String toStatus) {
+        if (orderCd == null || orderCd.isBlank()) throw new IllegalArgumentException("주문번호는 필수입니다.");
+        List<String> sources = LineStatus.sourcesOf(DocType.ORDER, toStatus);
+
+        boolean allLines = seqNos == null || seqNos.isEmpty();
+        List<Integer> seqList = allLines ? List.of(0) : List.copyOf(new TreeSet<>(seqNos));
+        Map<String, Integer> byFrom = new LinkedHashMap<>();
+        for (String from : sources) {
+            int n = 0;
+            for (int i = 0; i < seqList.size(); i += IN_CHUNK) {
+                n += orderDetMstRepository.transition(orderCd, allLines,
+                        seqList.subList(i, Math.min(i + IN_CHUNK, seqList.size())), from, toStatus);
+            }
+            byFrom.put(from, n);
+        }
+        TransitionResult result = applied(toStatus, byFrom);
+        if (result.getAffected() == 0 && !orderMstRepository.existsById(orderCd)) {
+            throw new EntityNotFoundException("존재하지 않는 주문번호: " + orderCd);
+        }
+        if (result.getAffected() > 0) {
+            logService.saveLog("주문 관리", "상태변경", orderCd,
+                    "상태: " + String.join("/", sources) + " → " + toStatus, "변경 라인: " + result.getAffected() + "건");
+        }
+        return result;
+    }
+
+    /** ✅ 상태 전환 (조건 지정: 품목/창고 중 하나 이상) */
+    @Transactional
+    public TransitionResult transitionWhere(String itemCd, String whCd, String toStatus) {
+        itemCd = itemCd == null || itemCd.isBlank() ? null : itemCd.trim();
+        whCd = whCd == null || whCd.isBlank() ? null : whCd.trim();
+        if (itemCd == null && whCd == null) throw new IllegalArgumentException("품목 또는 창고 조건은 필수입니다.");
+        List<String> sources = LineStatus.sourcesOf(DocType.ORDER, toStatus);
+
+        Map<String, Integer> byFrom = new LinkedHashMap<>();
+        for (String from : sources) byFrom.put(from, orderDetMstRepository.transitionWhere(itemCd, whCd, from, toStatus));
+        TransitionResult result = applied(toStatus, byFrom);
+        if (result.getAffected() > 0) {
+            logService.saveLog("주문 관리", "상태변경", itemCd != null ? itemCd : whCd,
+                    "조건: 품목=" + (itemCd == null ? "-" : itemCd) + ", 창고=" + (whCd == null ? "-" : whCd),
+                    String.join("/", sources) + " → " + toStatus + " " + result.getAffected() + "건");
+        }
+        return result;
     }
 
+    /** 라인 1건 상태 전환 (전환 규칙에 맞지 않으면 예외) */
     @Transactional
     public void updateDetailStatus(String orderCd, Integer seqNo, String newStatus) {
-        OrderDetIdMst id = new OrderDetIdMst();
-        id.setOrderCd(orderCd);
-        id.setSeqNo(seqNo);
-        OrderDetMst det = orderDetMstRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("주문 상세 정보를 찾을 수 없습니다."));
-        det.setStatus(newStatus);
-        orderDetMstRepository.save(det);
+        List<String> sources = LineStatus.sourcesOf(DocType.ORDER, newStatus);
+        Map<String, Integer> byFrom = new LinkedHashMap<>();
+        for (String from : sources) {
+            byFrom.put(from, orderDetMstRepository.transition(orderCd, false, List.of(seqNo), from, newStatus));
+        }
+        if (applied(newStatus, byFrom).getAffected() == 0) {
+            // 실패 사유 확인용으로만 조회
+            OrderDetIdMst id = new OrderDetIdMst();
+            id.setOrderCd(orderCd);
+            id.setSeqNo(seqNo);
+            OrderDetMst det = orderDetMstRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("주문 상세 정보를 찾을 수 없습니다."));
+            if (newStatus.equals(det.getStatus())) return; // 이미 같은 상태
+            throw new IllegalArgumentException("상태를 변경할 수 없습니다: " + det.getStatus() + " → " + newStatus
+                    + " (" + orderCd + "-" + seqNo + ")");
+        }
+    }
+
+    // 변경 건수를 상태별 건수에 반영 (커밋 후)
+    private TransitionResult applied(String toStatus, Map<String, Integer> byFrom) {
+        Map<String, Integer> delta = new HashMap<>();
+        int affected = 0;
+        for (Map.Entry<String, Integer> e : byFrom.entrySet()) {
+            affected += e.getValue();
+            delta.merge(e.getKey(), -e.getValue(), Integer::sum);
+            delta.merge(toStatus, e.getValue(), Integer::sum);
+        }
+        statusCounterService.adjustOnCommit(DocType.ORDER, delta);
+        return new TransitionResult(toStatus, affected, byFrom);
     }
 
     @Transactional
     public void updateDetailWarehouse(String orderCd, Integer seqNo, String whCd) {
-        OrderDetIdMst id = new OrderDetIdMst();
-        id.setOrderCd(orderCd);
-        id.setSeqNo(seqNo);
-        OrderDetMst det = orderDetMstRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("주문 상세 정보를 찾을 수 없습니다."));
-        det.setWhCd(whCd);
-        orderDetMstRepository.save(det);
+        if (orderDetMstRepository.updateWarehouse(orderCd, seqNo, whCd) == 0) {
+            throw new EntityNotFoundException("주문 상세 정보를 찾을 수 없습니다.");
+        }
     }
 
     /**
@@ -188,11 +306,8 @@ public class OrderService {
             orderCd = orderCd.trim();
         }
 
-        // 기존 내역 삭제 후 재생성 (수정 시)
-        if (orderMstRepository.existsById(orderCd)) {
-            actionType = "수정";
-            orderDetMstRepository.deleteByIdOrderCd(orderCd);
-        }
+        boolean exists = orderMstRepository.existsById(orderCd);
+        if (exists) actionType = "수정";
 
         OrderMst mst = new OrderMst();
         mst.setOrderCd(orderCd);
@@ -200,39 +315,64 @@ public class OrderService {
         mst.setCustCd(custCd);
         mst.setCustEmp(custEmp);
         mst.setRemark(remark);
-        orderMstRepository.save(mst);
-
-        List<String> orderedItemNames = new ArrayList<>();
-        int seq = 1;
+        orderMstRepository.saveAndFlush(mst); // 상세는 JDBC로 반영하므로 헤더를 먼저 반영
 
         for (OrderDetMst d : details) {
-            // [로그] 들어온 상태값 확인
-            System.out.println(">>> [주문저장] 품목: " + d.getItemCd() + ", 수량: " + d.getOrderQty() + ", 넘어온 상태값(Status): " + d.getStatus());
-
-            String itemCd = d.getItemCd();
-            if (itemCd == null || itemCd.isBlank()) throw new IllegalArgumentException("품목코드는 필수입니다.");
+            if (d.getItemCd() == null || d.getItemCd().isBlank()) throw new IllegalArgumentException("품목코드는 필수입니다.");
             if (d.getOrderQty() == null || d.getOrderQty() <= 0) throw new IllegalArgumentException("주문수량은 1 이상이어야 합니다.");
+        }
 
-            // 품목명 조회 (로그용)
-            ItemMst itemMst = itemRepository.findById(itemCd).orElse(null);
-            if (itemMst != null) orderedItemNames.add(itemMst.getItemNm());
+        // 품목명 일괄 조회 (로그용)
+        Map<String, ItemMst> itemMap = masterCacheService.items(details.stream().map(OrderDetMst::getItemCd).toList());
+        List<String> orderedItemNames = details.stream()
+                .map(d -> itemMap.get(d.getItemCd()))
+                .filter(Objects::nonNull)
+                .map(ItemMst::getItemNm)
+                .toList();
 
+        // 기존 라인과 비교해 바뀐 라인만 반영 (수정 시 전체 삭제 후 재등록하지 않음)
+        Map<Integer, OrderDetMst> existing = new HashMap<>();
+        if (exists) {
+            for (OrderDetMst d : orderDetMstRepository.findByIdOrderCdOrderByIdSeqNoAsc(orderCd)) existing.put(d.getId().getSeqNo(), d);
+        }
+        Map<Integer, OrderDetMst> target = LineDiff.bySeqNo(details, OrderService::requestedSeqNo);
+        for (Map.Entry<Integer, OrderDetMst> e : target.entrySet()) {
+            OrderDetMst d = e.getValue();
             OrderDetIdMst id = new OrderDetIdMst();
             id.setOrderCd(orderCd);
-            id.setSeqNo(seq++);
+            id.setSeqNo(e.getKey());
             d.setId(id);
-            d.setItemCd(itemCd);
 
-            // ✅ [수정] 상태값이 비어있을 때만 'o1'으로 설정 (o2가 들어오면 o2 유지)
+            // ✅ 상태값이 비어 있으면 기존 라인 상태 유지 (신규 라인은 'o1'), 값이 오면 그대로 사용
             if (d.getStatus() == null || d.getStatus().isBlank()) {
-                d.setStatus("o1");
-                System.out.println("   -> 상태값 없음. 'o1' (등록)으로 강제 설정됨.");
-            } else {
-                System.out.println("   -> 상태값 유지됨: " + d.getStatus());
+                // 같은 순번의 기존 라인이 같은 품목일 때만 (삭제된 순번을 다른 품목이 다시 쓰면 신규 라인)
+                OrderDetMst old = existing.get(e.getKey());
+                d.setStatus(old != null && Objects.equals(old.getItemCd(), d.getItemCd()) ? old.getStatus() : "o1");
             }
+        }
+
+        // 같은 순번이라도 품목이 다르면 기존 라인 삭제 + 새 라인 추가
+        LineDiff<OrderDetMst> diff = LineDiff.compute(existing, target,
+                (old, d) -> Objects.equals(old.getItemCd(), d.getItemCd()), OrderService::sameLine);
+
+        // 상태 변경은 전환 규칙(LineStatus)에 맞을 때만 (입고/출고완료 등은 저장으로 바꿀 수 없음)
+        Map<Integer, String> storedStatus = new HashMap<>();
+        for (OrderDetMst d : diff.getUpdates()) {
+            String from = existing.get(d.getId().getSeqNo()).getStatus();
+            LineStatus.checkSave(DocType.ORDER, from, d.getStatus(), orderCd + "-" + d.getId().getSeqNo());
+            storedStatus.put(d.getId().getSeqNo(), from);
+        }
+        for (OrderDetMst d : diff.getInserts()) {
+            LineStatus.checkSave(DocType.ORDER, null, d.getStatus(), orderCd + "-" + d.getId().getSeqNo());
+        }
 
-            orderDetMstRepository.save(d);
+        detailLineBatchRepository.deleteOrderLines(orderCd, diff.getDeletes());
+        // 읽은 뒤 입고/출고 등으로 상태가 바뀐 라인은 덮어쓰지 않고 전체 실패
+        if (detailLineBatchRepository.updateOrderLines(diff.getUpdates(), storedStatus) != diff.getUpdates().size()) {
+            throw new IllegalStateException("다른 작업에서 상태가 변경된 주문 라인이 있습니다. 다시 조회 후 저장하세요. (" + orderCd + ")");
         }
+        detailLineBatchRepository.insertOrderLines(diff.getInserts());
+        statusCounterService.adjustOnCommit(DocType.ORDER, diff.statusDelta(OrderDetMst::getStatus));
 
         String itemLogInfo;
         if (orderedItemNames.isEmpty()) {
@@ -246,7 +386,7 @@ public class OrderService {
         }
 
         logService.saveLog("주문 관리", actionType, orderCd,
-                "거래처: " + (custCd == null ? "-" : custCd), itemLogInfo);
+                "거래처: " + (custCd == null ? "-" : custCd), itemLogInfo + " (상세 " + diff.summary() + ")");
 
         return orderCd;
     }
@@ -256,8 +396,60 @@ public class OrderService {
         if (!orderMstRepository.existsById(orderCd)) {
             throw new EntityNotFoundException("존재하지 않는 주문번호: " + orderCd);
         }
-        orderDetMstRepository.deleteByIdOrderCd(orderCd);
+        Map<String, Integer> delta = new HashMap<>();
+        orderDetMstRepository.countByStatus(orderCd).forEach(c -> delta.put(c.getStatus(), -c.getCnt().intValue()));
+        detailLineBatchRepository.deleteAllOrderLines(orderCd);
+        statusCounterService.adjustOnCommit(DocType.ORDER, delta);
         orderMstRepository.deleteById(orderCd);
         logService.saveLog("주문 관리", "삭제", orderCd, "주문 삭제", "삭제된 주문입니다.");
     }
-}
\ No newline at end of file
+
+    // 화면이 보낸 라인 순번 (seqNo, 없으면 id.seqNo)
+    private static Integer requestedSeqNo(OrderDetMst d) {
+        if (d.getSeqNo() != null) return d.getSeqNo();
+        return d.getId() != null ? d.getId().getSeqNo() : null;
+    }
+
+    // 저장할 라인이 기존 라인과 같으면 UPDATE 생략
+    private static boolean sameLine(OrderDetMst old, OrderDetMst d) {
+        return Objects.equals(old.getItemCd(), d.getItemCd())
+                && Objects.equals(old.getOrderQty(), d.getOrderQty())
+                && Objects.equals(old.getWhCd(), d.getWhCd())
+                && Objects.equals(old.getStatus(), d.getStatus())
+                && Objects.equals(old.getRemark(), d.getRemark());
+    }
+
+    // 주문 상세 일괄 조회 (주문 순서 무관, IN 목록은 IN_CHUNK 단위로 나눠 조회)
+    private List<OrderDetMst> findDetails(List<String> orderCds) {
+        List<OrderDetMst> result = new ArrayList<>();
+        for (int i = 0; i < orderCds.size(); i += IN_CHUNK) {
+            result.addAll(orderDetMstRepository.findByIdOrderCdInOrderByIdOrderCdAscIdSeqNoAsc(
+                    orderCds.subList(i, Math.min(i + IN_CHUNK, orderCds.size()))));
+        }
+        return result;
+    }
+
+    private static OrderDto toDto(OrderMst o, String custNm) {
+        OrderDto dto = new OrderDto();
+        dto.setOrderCd(o.getOrderCd());
+        dto.setOrderDt(o.getOrderDt());
+        dto.setCustCd(o.getCustCd());
+        dto.setCustNm(custNm);
+        dto.setCustEmp(o.getCustEmp());
+        dto.setRemark(o.getRemark());
+        return dto;
+    }
+
+    private static OrderDetDto toDetDto(OrderDetMst d, String itemNm) {
+        OrderDetDto dto = new OrderDetDto();
+        dto.setOrderCd(d.getId().getOrderCd());
+        dto.setSeqNo(d.getId().getSeqNo());
+        dto.setItemCd(d.getItemCd());
+        dto.setItemNm(itemNm);
+        dto.setOrderQty(d.getOrderQty());
+        dto.setWhCd(d.getWhCd());
+        dto.setStatus(d.getStatus());
+        dto.setRemark(d.getRemark());
+        return dto;
+    }
+}
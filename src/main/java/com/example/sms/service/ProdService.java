@@ -11,9 +11,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Service
@@ -23,30 +23,26 @@ public class ProdService {
     private final ProdRepository prodRepository;
     private final ProdResultRepository prodResultRepository;
 
-    private final ItemRepository itemRepository;
-    private final BomRepository bomRepository;
+    private final MasterCacheService masterCacheService;
     private final ItemStockRepository itemStockRepository;
-    private final ItemStockHisRepository itemStockHisRepository;
+    private final StockLedgerService stockLedgerService;
     private final ItemIoRepository itemIoRepository;
-    private final WhMstRepository whMstRepository;
 
     // ✅ [추가] 로그 서비스를 주입받습니다.
     private final LogService logService;
-
-    // 날짜 포맷 (년월일시분초밀리초)
-    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+    private final IdGenService idGenService;
+    private final BomExplodeService bomExplodeService;
 
     private String newProdNo() {
-        return "PR" + LocalDateTime.now().format(TS);
+        return idGenService.next("PR");
     }
 
     private String newStkHisCd() {
-        return "STK" + LocalDateTime.now().format(TS);
+        return idGenService.next("STK");
     }
 
     private String newIoCd() {
-        String v = "IO" + LocalDateTime.now().format(TS);
-        return v.length() > 20 ? v.substring(0, 20) : v;
+        return idGenService.next("IO");
     }
 
     private static BigDecimal nz(BigDecimal v) { return v == null ? BigDecimal.ZERO : v; }
@@ -133,13 +129,13 @@ public class ProdService {
     // =========================================================
     // LOGIC
     // =========================================================
-    // ... (calcRequiredMaterials, autoAllocate, manualAllocate 메서드는 로그 없음, 기존 유지) ...
+    // ... (autoAllocate, manualAllocate 메서드는 로그 없음, 기존 유지) ...
+    // 다단계 BOM 전개 + Loss율 반영 (캐시된 1개당 소요량 × 계획수량)
+    // TB_ITEM_IO.QTY가 정수이므로 Loss율로 생긴 소수점은 올림 처리
     private Map<String, BigDecimal> calcRequiredMaterials(String pItemCd, BigDecimal planQty) {
-        List<BomMst> boms = bomRepository.findByPItemCd(pItemCd);
         Map<String, BigDecimal> req = new LinkedHashMap<>();
-        for (BomMst b : boms) {
-            req.put(b.getSItemCd(), nz(req.get(b.getSItemCd())).add(nz(b.getUseQty()).multiply(planQty)));
-        }
+        bomExplodeService.required(pItemCd, planQty)
+                .forEach((matCd, qty) -> req.put(matCd, qty.setScale(0, RoundingMode.CEILING)));
         return req;
     }
 
@@ -224,15 +220,13 @@ public class ProdService {
                 BigDecimal qty = a.getTakeQty();
                 if (qty.compareTo(BigDecimal.ZERO) <= 0) continue;
 
-                ItemStockId id = new ItemStockId(matCd, a.getWhCd());
-                ItemStock cur = itemStockRepository.findById(id).orElseThrow();
-                itemStockRepository.save(ItemStock.builder().id(id).stockQty(cur.getStockQty()).allocQty(nz(cur.getAllocQty()).add(qty)).build());
+                itemStockRepository.applyDelta(matCd, a.getWhCd(), BigDecimal.ZERO, qty);
 
-                itemStockHisRepository.save(ItemStockHis.builder().stkHisCd(newStkHisCd()).itemCd(matCd).whCd(a.getWhCd()).trxDt(LocalDateTime.now()).ioType("RESERVE").qtyDelta(BigDecimal.ZERO).allocDelta(qty).refTb("TB_PROD").refNo(prodNo).refSeq(1).remark("예약").build());
+                stockLedgerService.save(ItemStockHis.builder().stkHisCd(newStkHisCd()).itemCd(matCd).whCd(a.getWhCd()).trxDt(LocalDateTime.now()).ioType("RESERVE").qtyDelta(BigDecimal.ZERO).allocDelta(qty).refTb("TB_PROD").refNo(prodNo).refSeq(1).remark("예약").build());
                 requireIntegerForIoQty(qty, "RESERVE_QTY");
                 ItemIo io = new ItemIo();
                 io.setIoCd(newIoCd()); io.setIoDt(LocalDate.now().toString()); io.setIoType("RESERVE");
-                io.setItemMst(itemRepository.findById(matCd).orElseThrow()); io.setToWh(whMstRepository.findById(a.getWhCd()).orElseThrow());
+                io.setItemMst(masterCacheService.item(matCd).orElseThrow()); io.setToWh(masterCacheService.wh(a.getWhCd()).orElseThrow());
                 io.setQty(qty.intValueExact()); io.setRefTb("TB_PROD"); io.setRefCd(prodNo); io.setRefSeq(1); io.setRemark("예약");
                 itemIoRepository.save(io);
                 reservedLog.add(new ReserveLine(matCd, a.getWhCd(), qty));
@@ -258,13 +252,11 @@ public class ProdService {
             String itemCd = io.getItemMst().getItemCd();
             String whCd = io.getToWh().getWhCd();
             BigDecimal qty = BigDecimal.valueOf(io.getQty());
-            ItemStockId id = new ItemStockId(itemCd, whCd);
-            ItemStock cur = itemStockRepository.findById(id).orElseThrow();
-            BigDecimal newAlloc = nz(cur.getAllocQty()).subtract(qty);
-            if (newAlloc.compareTo(BigDecimal.ZERO) < 0) newAlloc = BigDecimal.ZERO;
-            itemStockRepository.save(ItemStock.builder().id(id).stockQty(cur.getStockQty()).allocQty(newAlloc).build());
+            if (itemStockRepository.releaseAlloc(itemCd, whCd, qty) == 0) {
+                throw new IllegalArgumentException("재고 없음: " + itemCd + "/" + whCd);
+            }
 
-            itemStockHisRepository.save(ItemStockHis.builder().stkHisCd(newStkHisCd()).itemCd(itemCd).whCd(whCd).trxDt(LocalDateTime.now()).ioType("UNRESERVE").qtyDelta(BigDecimal.ZERO).allocDelta(qty.negate()).refTb("TB_PROD").refNo(prodNo).refSeq(2).remark(remark).build());
+            stockLedgerService.save(ItemStockHis.builder().stkHisCd(newStkHisCd()).itemCd(itemCd).whCd(whCd).trxDt(LocalDateTime.now()).ioType("UNRESERVE").qtyDelta(BigDecimal.ZERO).allocDelta(qty.negate()).refTb("TB_PROD").refNo(prodNo).refSeq(2).remark(remark).build());
             ItemIo un = new ItemIo();
             un.setIoCd(newIoCd()); un.setIoDt(LocalDate.now().toString()); un.setIoType("UNRESERVE");
             un.setItemMst(io.getItemMst()); un.setToWh(io.getToWh()); un.setQty(io.getQty());
@@ -289,12 +281,9 @@ public class ProdService {
             String itemCd = io.getItemMst().getItemCd();
             String whCd = io.getToWh().getWhCd();
             BigDecimal qty = BigDecimal.valueOf(io.getQty());
-            ItemStockId id = new ItemStockId(itemCd, whCd);
-            ItemStock cur = itemStockRepository.findById(id).orElseThrow();
+            itemStockRepository.applyDelta(itemCd, whCd, qty.negate(), qty.negate());
 
-            itemStockRepository.save(ItemStock.builder().id(id).stockQty(nz(cur.getStockQty()).subtract(qty)).allocQty(nz(cur.getAllocQty()).subtract(qty)).build());
-
-            itemStockHisRepository.save(ItemStockHis.builder().stkHisCd(newStkHisCd()).itemCd(itemCd).whCd(whCd).trxDt(LocalDateTime.now()).ioType("PROD_USED").qtyDelta(qty.negate()).allocDelta(qty.negate()).refTb("TB_PROD").refNo(prodNo).refSeq(3).remark("생산투입").build());
+            stockLedgerService.save(ItemStockHis.builder().stkHisCd(newStkHisCd()).itemCd(itemCd).whCd(whCd).trxDt(LocalDateTime.now()).ioType("PROD_USED").qtyDelta(qty.negate()).allocDelta(qty.negate()).refTb("TB_PROD").refNo(prodNo).refSeq(3).remark("생산투입").build());
             ItemIo used = new ItemIo();
             used.setIoCd(newIoCd()); used.setIoDt(LocalDate.now().toString()); used.setIoType("PROD_USED");
             used.setItemMst(io.getItemMst()); used.setFromWh(io.getToWh()); used.setQty(io.getQty());
@@ -332,20 +321,17 @@ public class ProdService {
         if (prod.getStatus().compareTo("05") < 0) throw new IllegalArgumentException("생산완료(05) 이후에만 입고 가능");
 
         String itemCd = prod.getItemCd();
-        ItemMst item = itemRepository.findById(itemCd).orElseThrow();
+        ItemMst item = masterCacheService.item(itemCd).orElseThrow();
 
         for (ProdReceiveReq.ReceiveAlloc alloc : req.getAllocations()) {
             String whCd = alloc.getWhCd();
             BigDecimal qty = nz(alloc.getQty());
             if (qty.compareTo(BigDecimal.ZERO) <= 0) continue;
 
-            WhMst toWh = whMstRepository.findById(whCd).orElseThrow();
-            ItemStockId id = new ItemStockId(itemCd, whCd);
-            ItemStock cur = itemStockRepository.findById(id).orElse(ItemStock.builder().id(id).stockQty(BigDecimal.ZERO).allocQty(BigDecimal.ZERO).build());
-
-            itemStockRepository.save(ItemStock.builder().id(id).stockQty(nz(cur.getStockQty()).add(qty)).allocQty(nz(cur.getAllocQty())).build());
+            WhMst toWh = masterCacheService.wh(whCd).orElseThrow();
+            itemStockRepository.applyDelta(itemCd, whCd, qty, BigDecimal.ZERO);
 
-            itemStockHisRepository.save(ItemStockHis.builder().stkHisCd(newStkHisCd()).itemCd(itemCd).whCd(whCd).trxDt(LocalDateTime.now()).ioType("PROD_RESULT").qtyDelta(qty).allocDelta(BigDecimal.ZERO).refTb("TB_PROD").refNo(prodNo).refSeq(5).remark("생산완료 입고").build());
+            stockLedgerService.save(ItemStockHis.builder().stkHisCd(newStkHisCd()).itemCd(itemCd).whCd(whCd).trxDt(LocalDateTime.now()).ioType("PROD_RESULT").qtyDelta(qty).allocDelta(BigDecimal.ZERO).refTb("TB_PROD").refNo(prodNo).refSeq(5).remark("생산완료 입고").build());
             requireIntegerForIoQty(qty, "RECEIVE_QTY");
             ItemIo io = new ItemIo();
             io.setIoCd(newIoCd()); io.setIoDt(LocalDate.now().toString()); io.setIoType("PROD_RESULT");
@@ -5,21 +5,22 @@ import com.example.sms.entity.ItemMst;
 import com.example.sms.entity.PurchaseDetIdMst;
 import com.example.sms.entity.PurchaseDetMst;
 import com.example.sms.entity.PurchaseMst;
+import com.example.sms.repository.DetailLineBatchRepository;
 import com.example.sms.repository.ItemRepository;
 import com.example.sms.repository.PurchaseDetMstRepository;
 import com.example.sms.repository.PurchaseMstRepository;
+import com.example.sms.service.LineStatus.TransitionResult;
+import com.example.sms.service.StatusCounterService.DocType;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,13 +31,18 @@ public class PurchaseService {
     private final PurchaseDetMstRepository purchaseDetMstRepository;
     private final ItemRepository itemRepository;
     private final LogService logService;
+    private final IdGenService idGenService;
+    private final DetailLineBatchRepository detailLineBatchRepository;
+    private final StatusCounterService statusCounterService;
+    private final ReplenishmentService replenishmentService;
 
-    // ✅ [확정] 타임스탬프 포맷 (년월일시분초밀리초)
-    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+    private static final int MAX_QUEUE_PAGE_SIZE = 500;
+    private static final int IN_CHUNK = 1000;          // Oracle IN 목록 최대 건수
+    private static final String CANCELLED = "p9";
 
-    // ✅ [확정] 발주번호 생성: P + 타임스탬프 (예: P20250107120000123)
+    // ✅ [확정] 발주번호 생성: P + 일자 + 일련번호 (예: P2501070000001001)
     private String newPurchaseCd() {
-        return "P" + LocalDateTime.now().format(TS);
+        return idGenService.next("P");
     }
 
     @Transactional(readOnly = true)
@@ -76,18 +82,15 @@ public class PurchaseService {
         boolean hasCd = (purchaseCd != null && !purchaseCd.isBlank());
         String actionType = "등록";
 
-        // ✅ ID가 비어있으면 무조건 타임스탬프 ID 생성
+        // ✅ ID가 비어있으면 무조건 새 발주번호 생성
         if (!hasCd) {
             purchaseCd = newPurchaseCd();
         } else {
             purchaseCd = purchaseCd.trim();
         }
 
-        // DB에 있으면 수정 처리 (기존 상세 삭제)
-        if (purchaseMstRepository.existsById(purchaseCd)) {
-            actionType = "수정";
-            purchaseDetMstRepository.deleteByIdPurchaseCd(purchaseCd);
-        }
+        boolean exists = purchaseMstRepository.existsById(purchaseCd);
+        if (exists) actionType = "수정";
 
         PurchaseMst mst = new PurchaseMst();
         mst.setPurchaseCd(purchaseCd);
@@ -95,29 +98,74 @@ public class PurchaseService {
         mst.setCustCd(custCd);
         mst.setCustEmp(custEmp);
         mst.setRemark(remark);
-        purchaseMstRepository.save(mst);
+        purchaseMstRepository.saveAndFlush(mst); // 상세는 JDBC로 반영하므로 헤더를 먼저 반영
 
-        List<String> purchasedItemNames = new ArrayList<>();
-        int seq = 1;
         for (PurchaseDetMst d : details) {
-            String itemCd = d.getItemCd();
-            if (itemCd == null || itemCd.isBlank()) throw new IllegalArgumentException("품목코드는 필수입니다.");
+            if (d.getItemCd() == null || d.getItemCd().isBlank()) throw new IllegalArgumentException("품목코드는 필수입니다.");
             if (d.getPurchaseQty() == null || d.getPurchaseQty() <= 0)
                 throw new IllegalArgumentException("발주수량은 1 이상이어야 합니다.");
+        }
 
-            ItemMst itemMst = itemRepository.findById(itemCd)
-                    .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 품목: " + itemCd));
+        // 품목 일괄 조회 (존재 확인 + 로그용 품목명)
+        Map<String, ItemMst> itemMap = itemRepository.findAllById(
+                        details.stream().map(PurchaseDetMst::getItemCd).distinct().toList()).stream()
+                .collect(Collectors.toMap(ItemMst::getItemCd, item -> item, (a, b) -> a));
+        List<String> purchasedItemNames = new ArrayList<>();
+        for (PurchaseDetMst d : details) {
+            ItemMst itemMst = itemMap.get(d.getItemCd());
+            if (itemMst == null) throw new IllegalArgumentException("존재하지 않는 품목: " + d.getItemCd());
             purchasedItemNames.add(itemMst.getItemNm());
+        }
 
+        // 기존 라인과 비교해 바뀐 라인만 반영 (수정 시 전체 삭제 후 재등록하지 않음)
+        Map<Integer, PurchaseDetMst> existing = new HashMap<>();
+        if (exists) {
+            for (PurchaseDetMst d : purchaseDetMstRepository.findByIdPurchaseCdOrderByIdSeqNoAsc(purchaseCd)) existing.put(d.getId().getSeqNo(), d);
+        }
+        Map<Integer, PurchaseDetMst> target = LineDiff.bySeqNo(details, PurchaseService::requestedSeqNo);
+        for (Map.Entry<Integer, PurchaseDetMst> e : target.entrySet()) {
+            PurchaseDetMst d = e.getValue();
             PurchaseDetIdMst id = new PurchaseDetIdMst();
             id.setPurchaseCd(purchaseCd);
-            id.setSeqNo(seq++);
+            id.setSeqNo(e.getKey());
             d.setId(id);
-            if (d.getStatus() == null || d.getStatus().isBlank()) d.setStatus("p1");
 
-            purchaseDetMstRepository.save(d);
+            // 상태값이 비어 있으면 기존 라인 상태 유지 (신규 라인은 'p1')
+            if (d.getStatus() == null || d.getStatus().isBlank()) {
+                // 같은 순번의 기존 라인이 같은 품목일 때만 (삭제된 순번을 다른 품목이 다시 쓰면 신규 라인)
+                PurchaseDetMst old = existing.get(e.getKey());
+                d.setStatus(old != null && Objects.equals(old.getItemCd(), d.getItemCd()) ? old.getStatus() : "p1");
+            }
         }
 
+        // 같은 순번이라도 품목이 다르면 기존 라인 삭제 + 새 라인 추가
+        LineDiff<PurchaseDetMst> diff = LineDiff.compute(existing, target,
+                (old, d) -> Objects.equals(old.getItemCd(), d.getItemCd()), PurchaseService::sameLine);
+
+        // 상태 변경은 전환 규칙(LineStatus)에 맞을 때만 (입고/출고완료 등은 저장으로 바꿀 수 없음)
+        Map<Integer, String> storedStatus = new HashMap<>();
+        for (PurchaseDetMst d : diff.getUpdates()) {
+            String from = existing.get(d.getId().getSeqNo()).getStatus();
+            LineStatus.checkSave(DocType.PURCHASE, from, d.getStatus(), purchaseCd + "-" + d.getId().getSeqNo());
+            storedStatus.put(d.getId().getSeqNo(), from);
+        }
+        for (PurchaseDetMst d : diff.getInserts()) {
+            LineStatus.checkSave(DocType.PURCHASE, null, d.getStatus(), purchaseCd + "-" + d.getId().getSeqNo());
+        }
+
+        detailLineBatchRepository.deletePurchaseLines(purchaseCd, diff.getDeletes());
+        // 읽은 뒤 입고/출고 등으로 상태가 바뀐 라인은 덮어쓰지 않고 전체 실패
+        if (detailLineBatchRepository.updatePurchaseLines(diff.getUpdates(), storedStatus) != diff.getUpdates().size()) {
+            throw new IllegalStateException("다른 작업에서 상태가 변경된 발주 라인이 있습니다. 다시 조회 후 저장하세요. (" + purchaseCd + ")");
+        }
+        detailLineBatchRepository.insertPurchaseLines(diff.getInserts());
+        statusCounterService.adjustOnCommit(DocType.PURCHASE, diff.statusDelta(PurchaseDetMst::getStatus));
+        // 삭제/수정된 라인의 품목은 미입고 수량이 줄 수 있으므로 재주문점 재평가 (수불부에 남지 않음)
+        List<String> changedItems = new ArrayList<>();
+        for (Integer seqNo : diff.getDeletes()) changedItems.add(existing.get(seqNo).getItemCd());
+        for (PurchaseDetMst d : diff.getUpdates()) changedItems.add(d.getItemCd());
+        replenishmentService.markChangedOnCommit(changedItems);
+
         String itemLogInfo;
         if (purchasedItemNames.isEmpty()) {
             itemLogInfo = "품목 없음";
@@ -130,22 +178,85 @@ public class PurchaseService {
         }
 
         logService.saveLog("발주 관리", actionType, purchaseCd,
-                "거래처: " + (custCd == null ? "-" : custCd), itemLogInfo);
+                "거래처: " + (custCd == null ? "-" : custCd), itemLogInfo + " (상세 " + diff.summary() + ")");
 
         return purchaseCd;
     }
 
+    /** 발주 전체 라인 상태 전환 (예: 확정 p1 → p2, 라인 수와 관계없이 UPDATE 1회) */
     @Transactional
-    public void changeStatus(String purchaseCd, String status) {
-        if (!List.of("p1", "p2", "p3", "p9").contains(status)) {
-            throw new IllegalArgumentException("허용되지 않은 상태값: " + status);
+    public TransitionResult changeStatus(String purchaseCd, String status) {
+        return transition(purchaseCd, null, status);
+    }
+
+    /**
+     * ✅ 상태 전환 (발주 단위 / 지정 라인)
+     * - seqNos가 비어 있으면 발주 전체 라인, 있으면 해당 라인만
+     * - 전환 규칙(LineStatus)에 맞는 현재 상태의 라인만 변경하고 나머지는 그대로 둠
+     */
+    @Transactional
+    public TransitionResult transition(String purchaseCd, Collection<Integer> seqNos, String toStatus) {
+        if (purchaseCd == null || purchaseCd.isBlank()) throw new IllegalArgumentException("발주번호는 필수입니다.");
+        List<String> sources = LineStatus.sourcesOf(DocType.PURCHASE, toStatus);
+
+        boolean allLines = seqNos == null || seqNos.isEmpty();
+        List<Integer> seqList = allLines ? List.of(0) : List.copyOf(new TreeSet<>(seqNos));
+        Map<String, Integer> byFrom = new LinkedHashMap<>();
+        for (String from : sources) {
+            int n = 0;
+            for (int i = 0; i < seqList.size(); i += IN_CHUNK) {
+                n += purchaseDetMstRepository.transition(purchaseCd, allLines,
+                        seqList.subList(i, Math.min(i + IN_CHUNK, seqList.size())), from, toStatus);
+            }
+            byFrom.put(from, n);
+        }
+        TransitionResult result = applied(toStatus, byFrom);
+        if (result.getAffected() == 0 && !purchaseMstRepository.existsById(purchaseCd)) {
+            throw new EntityNotFoundException("존재하지 않는 발주번호: " + purchaseCd);
         }
+        if (result.getAffected() > 0) {
+            if (CANCELLED.equals(toStatus)) replenishmentService.markChangedOnCommit(purchaseDetMstRepository.findItemCds(purchaseCd));
+            logService.saveLog("발주 관리", "상태변경", purchaseCd,
+                    "상태: " + String.join("/", sources) + " → " + toStatus, "변경 라인: " + result.getAffected() + "건");
+        }
+        return result;
+    }
 
-        List<PurchaseDetMst> dets = purchaseDetMstRepository.findByIdPurchaseCdOrderByIdSeqNoAsc(purchaseCd);
-        if (dets.isEmpty()) throw new EntityNotFoundException("발주 상세가 없습니다: " + purchaseCd);
+    /** ✅ 상태 전환 (조건 지정: 품목/창고 중 하나 이상) */
+    @Transactional
+    public TransitionResult transitionWhere(String itemCd, String whCd, String toStatus) {
+        itemCd = itemCd == null || itemCd.isBlank() ? null : itemCd.trim();
+        whCd = whCd == null || whCd.isBlank() ? null : whCd.trim();
+        if (itemCd == null && whCd == null) throw new IllegalArgumentException("품목 또는 창고 조건은 필수입니다.");
+        List<String> sources = LineStatus.sourcesOf(DocType.PURCHASE, toStatus);
+
+        Map<String, Integer> byFrom = new LinkedHashMap<>();
+        for (String from : sources) byFrom.put(from, purchaseDetMstRepository.transitionWhere(itemCd, whCd, from, toStatus));
+        TransitionResult result = applied(toStatus, byFrom);
+        if (result.getAffected() > 0) {
+            if (CANCELLED.equals(toStatus)) {
+                // 창고 조건만 있으면 품목을 특정할 수 없으므로 다음 증분 평가는 전체
+                if (itemCd != null) replenishmentService.markChangedOnCommit(List.of(itemCd));
+                else replenishmentService.markAllChangedOnCommit();
+            }
+            logService.saveLog("발주 관리", "상태변경", itemCd != null ? itemCd : whCd,
+                    "조건: 품목=" + (itemCd == null ? "-" : itemCd) + ", 창고=" + (whCd == null ? "-" : whCd),
+                    String.join("/", sources) + " → " + toStatus + " " + result.getAffected() + "건");
+        }
+        return result;
+    }
 
-        for (PurchaseDetMst d : dets) d.setStatus(status);
-        purchaseDetMstRepository.saveAll(dets);
+    // 변경 건수를 상태별 건수에 반영 (커밋 후)
+    private TransitionResult applied(String toStatus, Map<String, Integer> byFrom) {
+        Map<String, Integer> delta = new HashMap<>();
+        int affected = 0;
+        for (Map.Entry<String, Integer> e : byFrom.entrySet()) {
+            affected += e.getValue();
+            delta.merge(e.getKey(), -e.getValue(), Integer::sum);
+            delta.merge(toStatus, e.getValue(), Integer::sum);
+        }
+        statusCounterService.adjustOnCommit(DocType.PURCHASE, delta);
+        return new TransitionResult(toStatus, affected, byFrom);
     }
 
     @Transactional(readOnly = true)
@@ -182,33 +293,53 @@ public class PurchaseService {
         }).toList();
     }
 
+    /** 입고 대기열 (확정 p2, 발주번호/순번 순) */
     @Transactional(readOnly = true)
-    public List<PurchaseDetMst> getWaitingForInboundList() {
-        return purchaseDetMstRepository.findAll().stream()
-                .filter(det -> "p2".equals(det.getStatus()))
-                .collect(Collectors.toList());
+    public List<PurchaseDetMst> getWaitingForInboundList(String sortDirection) {
+        return purchaseDetMstRepository.findByStatus("p2", queueSort(sortDirection));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<PurchaseDetMst> getWaitingForInboundPage(String sortDirection, int page, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_QUEUE_PAGE_SIZE));
+        return purchaseDetMstRepository.findByStatus("p2", PageRequest.of(Math.max(0, page), limit, queueSort(sortDirection)));
+    }
+
+    private static Sort queueSort(String sortDirection) {
+        Sort.Direction dir = "ASC".equalsIgnoreCase(sortDirection) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(dir, "id.purchaseCd").and(Sort.by("id.seqNo"));
     }
 
+    /** 라인 1건 상태 전환 (전환 규칙에 맞지 않으면 예외) */
     @Transactional
     public void updateDetailStatus(String purchaseCd, Integer seqNo, String newStatus) {
-        PurchaseDetIdMst id = new PurchaseDetIdMst();
-        id.setPurchaseCd(purchaseCd);
-        id.setSeqNo(seqNo);
-        PurchaseDetMst det = purchaseDetMstRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("발주 상세 정보를 찾을 수 없습니다."));
-        det.setStatus(newStatus);
-        purchaseDetMstRepository.save(det);
+        List<String> sources = LineStatus.sourcesOf(DocType.PURCHASE, newStatus);
+        Map<String, Integer> byFrom = new LinkedHashMap<>();
+        for (String from : sources) {
+            byFrom.put(from, purchaseDetMstRepository.transition(purchaseCd, false, List.of(seqNo), from, newStatus));
+        }
+        int affected = applied(newStatus, byFrom).getAffected();
+        if (affected > 0 && CANCELLED.equals(newStatus)) {
+            replenishmentService.markChangedOnCommit(purchaseDetMstRepository.findItemCds(purchaseCd));
+        }
+        if (affected == 0) {
+            // 실패 사유 확인용으로만 조회
+            PurchaseDetIdMst id = new PurchaseDetIdMst();
+            id.setPurchaseCd(purchaseCd);
+            id.setSeqNo(seqNo);
+            PurchaseDetMst det = purchaseDetMstRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("발주 상세 정보를 찾을 수 없습니다."));
+            if (newStatus.equals(det.getStatus())) return; // 이미 같은 상태
+            throw new IllegalArgumentException("상태를 변경할 수 없습니다: " + det.getStatus() + " → " + newStatus
+                    + " (" + purchaseCd + "-" + seqNo + ")");
+        }
     }
 
     @Transactional
     public void updateDetailWarehouse(String purchaseCd, Integer seqNo, String whCd) {
-        PurchaseDetIdMst id = new PurchaseDetIdMst();
-        id.setPurchaseCd(purchaseCd);
-        id.setSeqNo(seqNo);
-        PurchaseDetMst det = purchaseDetMstRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("발주 상세 정보를 찾을 수 없습니다."));
-        det.setWhCd(whCd);
-        purchaseDetMstRepository.save(det);
+        if (purchaseDetMstRepository.updateWarehouse(purchaseCd, seqNo, whCd) == 0) {
+            throw new EntityNotFoundException("발주 상세 정보를 찾을 수 없습니다.");
+        }
     }
 
     @Transactional
@@ -216,8 +347,28 @@ public class PurchaseService {
         if (!purchaseMstRepository.existsById(purchaseCd)) {
             throw new EntityNotFoundException("존재하지 않는 발주번호: " + purchaseCd);
         }
-        purchaseDetMstRepository.deleteByIdPurchaseCd(purchaseCd);
+        Map<String, Integer> delta = new HashMap<>();
+        purchaseDetMstRepository.countByStatus(purchaseCd).forEach(c -> delta.put(c.getStatus(), -c.getCnt().intValue()));
+        replenishmentService.markChangedOnCommit(purchaseDetMstRepository.findItemCds(purchaseCd));
+        detailLineBatchRepository.deleteAllPurchaseLines(purchaseCd);
+        statusCounterService.adjustOnCommit(DocType.PURCHASE, delta);
         purchaseMstRepository.deleteById(purchaseCd);
         logService.saveLog("발주 관리", "삭제", purchaseCd, "발주 삭제 완료");
     }
-}
\ No newline at end of file
+
+    // 화면이 보낸 라인 순번 (seqNo, 없으면 id.seqNo)
+    private static Integer requestedSeqNo(PurchaseDetMst d) {
+        if (d.getSeqNo() != null) return d.getSeqNo();
+        return d.getId() != null ? d.getId().getSeqNo() : null;
+    }
+
+    // 저장할 라인이 기존 라인과 같으면 UPDATE 생략
+    private static boolean sameLine(PurchaseDetMst old, PurchaseDetMst d) {
+        return Objects.equals(old.getItemCd(), d.getItemCd())
+                && Objects.equals(old.getPurchaseQty(), d.getPurchaseQty())
+                && Objects.equals(old.getStatus(), d.getStatus())
+                && Objects.equals(old.getWhCd(), d.getWhCd())
+                && Objects.equals(old.getItemCost(), d.getItemCost())
+                && Objects.equals(old.getRemark(), d.getRemark());
+    }
+}
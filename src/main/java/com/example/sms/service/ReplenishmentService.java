@@ -0,0 +1,344 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.PurchaseDetIdMst;
+import com.example.sms.entity.PurchaseDetMst;
+import com.example.sms.entity.PurchaseMst;
+import com.example.sms.repository.DetailLineBatchRepository;
+import com.example.sms.repository.PurchaseMstRepository;
+import com.example.sms.service.StatusCounterService.DocType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 재주문점(최소/최대 재고) 자동 보충
+ * - 자재(ITEM_FLAG '01')별 예상 가용량 = 재고 - 할당 + 미입고 발주(p1/p2)를 SQL 한 번으로 집계 (품목별 조회 없음)
+ * - 예상 가용량이 최소재고(MIN_QTY) 미만인 자재만 가져와 최대재고(MAX_QTY, 없으면 최소재고)까지 발주 제안 작성
+ * - 제안은 최근 발주 거래처별로 묶어 발주(p1 등록 상태)로 저장 → 미입고 수량에 포함되므로 다음 실행에서 중복 제안되지 않음
+ * - 전체 평가(매일) + 증분 평가(주기적, 지난 실행 이후 수불부에 변동이 기록된 품목 + 표시된 품목만)
+ * - 수불부에 남지 않는 변동(발주 취소/삭제, 최소/최대재고 수정)은 해당 서비스가 커밋 후 품목을 표시 (markChangedOnCommit)
+ * - 기본은 꺼져 있음 (sms.replenish.enabled)
+ */
+@Slf4j
+@Service
+public class ReplenishmentService {
+
+    public enum Mode { FULL, CHANGED }
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int MAX_RESULT_ROWS = 1000;   // 결과에 담는 부족 품목 최대 건수
+    private static final int MAX_MARKED = 1000;        // 표시된 품목이 이보다 많으면 전체 평가 (Oracle IN 목록 최대 건수)
+    private static final String DRAFT_REMARK = "재주문점 자동 보충 제안";
+
+    // 1: WITH 절, 2: 재고 집계 조건, 3: 미입고 집계 조건, 4: 최근 거래처 조건, 5: 품목 조건
+    private static final String SHORTFALL_TEMPLATE = """
+        %s
+        SELECT i.ITEM_CD, i.MIN_QTY, i.MAX_QTY, i.ITEM_COST,
+               NVL(s.STOCK_QTY, 0) - NVL(s.ALLOC_QTY, 0) AS AVAIL_QTY,
+               NVL(p.OPEN_QTY, 0)                        AS OPEN_QTY,
+               c.CUST_CD
+          FROM TB_ITEMMST i
+          LEFT JOIN (SELECT ITEM_CD, SUM(STOCK_QTY) AS STOCK_QTY, SUM(ALLOC_QTY) AS ALLOC_QTY
+                       FROM TB_ITEMSTOCK %s
+                      GROUP BY ITEM_CD) s ON s.ITEM_CD = i.ITEM_CD
+          LEFT JOIN (SELECT ITEM_CD, SUM(PURCHASE_QTY) AS OPEN_QTY
+                       FROM TB_PURCHASE_DET
+                      WHERE STATUS IN ('p1', 'p2') %s
+                      GROUP BY ITEM_CD) p ON p.ITEM_CD = i.ITEM_CD
+          LEFT JOIN (SELECT ITEM_CD, CUST_CD
+                       FROM (SELECT d.ITEM_CD, m.CUST_CD,
+                                    ROW_NUMBER() OVER (PARTITION BY d.ITEM_CD ORDER BY m.PURCHASE_DT DESC, m.PURCHASE_CD DESC) AS RN
+                               FROM TB_PURCHASE_DET d
+                               JOIN TB_PURCHASE m ON m.PURCHASE_CD = d.PURCHASE_CD
+                              WHERE m.CUST_CD IS NOT NULL %s)
+                      WHERE RN = 1) c ON c.ITEM_CD = i.ITEM_CD
+         WHERE i.ITEM_FLAG = '01'
+           AND i.MIN_QTY IS NOT NULL
+           AND NVL(s.STOCK_QTY, 0) - NVL(s.ALLOC_QTY, 0) + NVL(p.OPEN_QTY, 0) < i.MIN_QTY
+           %s
+         ORDER BY c.CUST_CD NULLS LAST, i.ITEM_CD
+        """;
+
+    private static final String SQL_FULL = SHORTFALL_TEMPLATE.formatted("", "", "", "", "");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PurchaseMstRepository purchaseMstRepository;
+    private final DetailLineBatchRepository detailLineBatchRepository;
+    private final IdGenService idGenService;
+    private final StatusCounterService statusCounterService;
+    private final LogService logService;
+    private final TransactionTemplate draftTx;
+    private final boolean enabled;
+    private final int maxLines;
+    private final long overlapMs;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    private volatile LocalDateTime lastStartedAt;   // 증분 평가 기준 시각
+    private volatile ReplenishResult lastResult;
+    private final Set<String> markedItems = ConcurrentHashMap.newKeySet();   // 다음 증분 평가에 포함할 품목
+    private final AtomicBoolean fullMarked = new AtomicBoolean();            // 다음 증분 평가를 전체 평가로
+
+    public ReplenishmentService(JdbcTemplate jdbcTemplate,
+                                PurchaseMstRepository purchaseMstRepository,
+                                DetailLineBatchRepository detailLineBatchRepository,
+                                IdGenService idGenService,
+                                StatusCounterService statusCounterService,
+                                LogService logService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${sms.replenish.enabled:false}") boolean enabled,
+                                @Value("${sms.replenish.max-lines:200}") int maxLines,
+                                @Value("${sms.replenish.overlap-ms:300000}") long overlapMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.purchaseMstRepository = purchaseMstRepository;
+        this.detailLineBatchRepository = detailLineBatchRepository;
+        this.idGenService = idGenService;
+        this.statusCounterService = statusCounterService;
+        this.logService = logService;
+        // 제안 발주 1건(헤더 + 라인) 단위로 커밋
+        this.draftTx = new TransactionTemplate(transactionManager);
+        this.draftTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.maxLines = Math.max(1, maxLines);
+        this.overlapMs = overlapMs;
+    }
+
+    /** 매일 전체 평가 */
+    @Scheduled(cron = "${sms.replenish.full-cron:0 0 1 * * *}")
+    public void scheduledFull() {
+        if (enabled) runQuietly(Mode.FULL);
+    }
+
+    /** 주기적 증분 평가 (기동 후 첫 실행은 전체) */
+    @Scheduled(fixedDelayString = "${sms.replenish.interval-ms:600000}", initialDelayString = "${sms.replenish.interval-ms:600000}")
+    public void scheduledChanged() {
+        if (enabled) runQuietly(lastStartedAt == null ? Mode.FULL : Mode.CHANGED);
+    }
+
+    /** 수불부에 남지 않는 변동 (발주 취소/삭제, 최소/최대재고 수정) 품목을 다음 증분 평가에 포함 (트랜잭션 중이면 커밋 후) */
+    public void markChangedOnCommit(Collection<String> itemCds) {
+        List<String> codes = itemCds.stream().filter(Objects::nonNull).distinct().toList();
+        if (!codes.isEmpty()) onCommit(() -> markedItems.addAll(codes));
+    }
+
+    /** 품목을 특정할 수 없는 변동 (마스터 일괄 등록 등) → 다음 증분 평가는 전체 평가 */
+    public void markAllChangedOnCommit() {
+        onCommit(() -> fullMarked.set(true));
+    }
+
+    private static void onCommit(Runnable mark) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark.run();
+                }
+            });
+        } else {
+            mark.run();
+        }
+    }
+
+    private void runQuietly(Mode mode) {
+        try {
+            run(mode, true);
+        } catch (IllegalStateException e) {
+            log.info("재주문점 보충 건너뜀: {}", e.getMessage());
+        } catch (DataAccessException e) {
+            log.warn("재주문점 보충 실패 ({}): {}", mode, e.getMessage());
+        }
+    }
+
+    /**
+     * 평가 실행
+     * @param draft false면 부족 품목만 계산 (발주 제안 저장 안 함)
+     */
+    public ReplenishResult run(Mode mode, boolean draft) {
+        if (!runLock.tryLock()) throw new IllegalStateException("재주문점 보충이 이미 실행 중입니다.");
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            LocalDateTime since = lastStartedAt;
+            // 제안까지 저장하는 실행만 표시를 가져감 (실행 중 새로 표시된 품목은 다음 실행으로, 실패하면 되돌림)
+            List<String> marked = List.copyOf(markedItems);
+            boolean full = draft ? fullMarked.getAndSet(false) : fullMarked.get();
+            if (draft) markedItems.removeAll(marked);
+            if (mode == Mode.CHANGED && (since == null || full || marked.size() > MAX_MARKED)) mode = Mode.FULL;
+
+            List<Shortfall> shortfalls = new ArrayList<>();
+            List<String> purchaseCds = new ArrayList<>();
+            int draftedLines = 0;
+            try {
+                // 1. 부족 품목 (SQL 1회, 거래처 → 품목 순)
+                List<Object> args = new ArrayList<>();
+                String sql = SQL_FULL;
+                if (mode == Mode.CHANGED) {
+                    args.add(Timestamp.valueOf(since.minus(Duration.ofMillis(overlapMs))));
+                    args.addAll(marked);
+                    sql = changedSql(marked.size());
+                }
+                String query = sql;
+                jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(FETCH_SIZE);
+                    for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+                    return ps;
+                }, rs -> {
+                    shortfalls.add(toShortfall(rs));
+                });
+
+                // 2. 거래처별로 묶어 발주 제안 저장 (발주 1건당 최대 max-lines 라인)
+                if (draft) {
+                    int from = 0;
+                    while (from < shortfalls.size()) {
+                        String custCd = shortfalls.get(from).getCustCd();
+                        int to = from;
+                        while (to < shortfalls.size() && to - from < maxLines
+                                && Objects.equals(shortfalls.get(to).getCustCd(), custCd)) to++;
+                        List<Shortfall> group = shortfalls.subList(from, to);
+                        purchaseCds.add(draftTx.execute(status -> saveDraft(custCd, group)));
+                        draftedLines += group.size();
+                        from = to;
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (draft) {
+                    markedItems.addAll(marked);
+                    if (full) fullMarked.set(true);
+                }
+                throw e;
+            }
+
+            long elapsed = Duration.between(startedAt, LocalDateTime.now()).toMillis();
+            ReplenishResult result = new ReplenishResult(mode.name(), startedAt, elapsed, shortfalls.size(), draftedLines,
+                    purchaseCds, shortfalls.size() > MAX_RESULT_ROWS ? List.copyOf(shortfalls.subList(0, MAX_RESULT_ROWS)) : shortfalls,
+                    shortfalls.size() > MAX_RESULT_ROWS);
+            if (draft) {
+                lastStartedAt = startedAt; // 제안까지 저장한 실행만 증분 기준으로 사용
+                lastResult = result;
+            }
+            log.info("재주문점 보충 {}: 부족 {}건, 제안 발주 {}건 ({}ms)", mode, shortfalls.size(), purchaseCds.size(), elapsed);
+            return result;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    public ReplenishResult lastResult() {
+        return lastResult;
+    }
+
+    // 지난 실행 이후 수불부에 기록된 품목(IX_STKHIS_DT 범위 조회) + 표시된 품목 markedCount건
+    static String changedSql(int markedCount) {
+        String marked = markedCount == 0 ? ""
+                : " UNION SELECT ITEM_CD FROM TB_ITEMMST WHERE ITEM_CD IN ("
+                  + String.join(", ", Collections.nCopies(markedCount, "?")) + ")";
+        return SHORTFALL_TEMPLATE.formatted(
+                "WITH CHG AS (SELECT ITEM_CD FROM TB_ITEMSTOCK_HIS WHERE TRX_DT > ? AND ITEM_CD IS NOT NULL" + marked + ")",
+                "WHERE ITEM_CD IN (SELECT ITEM_CD FROM CHG)",
+                "AND ITEM_CD IN (SELECT ITEM_CD FROM CHG)",
+                "AND d.ITEM_CD IN (SELECT ITEM_CD FROM CHG)",
+                "AND i.ITEM_CD IN (SELECT ITEM_CD FROM CHG)");
+    }
+
+    private String saveDraft(String custCd, List<Shortfall> group) {
+        String purchaseCd = idGenService.next("P");
+        PurchaseMst mst = new PurchaseMst();
+        mst.setPurchaseCd(purchaseCd);
+        mst.setPurchaseDt(LocalDate.now());
+        mst.setCustCd(custCd);
+        mst.setRemark(DRAFT_REMARK);
+        purchaseMstRepository.saveAndFlush(mst); // 상세는 JDBC로 반영하므로 헤더를 먼저 반영
+
+        List<PurchaseDetMst> lines = new ArrayList<>(group.size());
+        int seq = 1;
+        for (Shortfall s : group) {
+            PurchaseDetIdMst id = new PurchaseDetIdMst();
+            id.setPurchaseCd(purchaseCd);
+            id.setSeqNo(seq++);
+            PurchaseDetMst d = new PurchaseDetMst();
+            d.setId(id);
+            d.setItemCd(s.getItemCd());
+            d.setPurchaseQty(s.getOrderQty());
+            d.setItemCost(s.getItemCost());
+            d.setStatus("p1");
+            d.setRemark("가용 " + s.getAvailQty().stripTrailingZeros().toPlainString()
+                    + " + 미입고 " + s.getOpenQty().stripTrailingZeros().toPlainString()
+                    + " < 최소 " + s.getMinQty());
+            lines.add(d);
+        }
+        detailLineBatchRepository.insertPurchaseLines(lines);
+        statusCounterService.changedOnCommit(DocType.PURCHASE, null, "p1", lines.size());
+
+        logService.saveLog("발주 관리", "자동등록", purchaseCd,
+                "거래처: " + (custCd == null ? "-" : custCd), DRAFT_REMARK + " (" + lines.size() + "건)");
+        return purchaseCd;
+    }
+
+    // 최대재고까지 (최대재고가 없거나 최소재고보다 작으면 최소재고까지), 소수점은 올림
+    private static Shortfall toShortfall(ResultSet rs) throws SQLException {
+        int minQty = rs.getInt(2);
+        int maxQty = rs.getInt(3);
+        boolean hasMax = !rs.wasNull();
+        double cost = rs.getDouble(4);
+        Integer itemCost = rs.wasNull() ? null : (int) Math.round(cost);
+        BigDecimal avail = nz(rs.getBigDecimal(5));
+        BigDecimal open = nz(rs.getBigDecimal(6));
+        BigDecimal projected = avail.add(open);
+        int target = hasMax && maxQty > minQty ? maxQty : minQty;
+        int orderQty = BigDecimal.valueOf(target).subtract(projected).setScale(0, RoundingMode.CEILING).intValueExact();
+        return new Shortfall(rs.getString(1), minQty, hasMax ? maxQty : null, avail, open, projected,
+                Math.max(orderQty, 1), itemCost, rs.getString(7));
+    }
+
+    private static BigDecimal nz(BigDecimal v) { return v == null ? BigDecimal.ZERO : v; }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Shortfall {
+        private String itemCd;
+        private Integer minQty;
+        private Integer maxQty;
+        private BigDecimal availQty;
+        private BigDecimal openQty;
+        private BigDecimal projectedQty;
+        private Integer orderQty;
+        private Integer itemCost;
+        private String custCd; // 최근 발주 거래처 (없으면 null)
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ReplenishResult {
+        private String mode;
+        private LocalDateTime startedAt;
+        private long elapsedMs;
+        private int shortfallCount;
+        private int draftedLines;
+        private List<String> purchaseCds;
+        private List<Shortfall> shortfalls;
+        private boolean truncated; // 부족 품목이 MAX_RESULT_ROWS를 넘으면 앞부분만
+    }
+}
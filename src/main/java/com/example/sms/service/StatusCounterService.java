@@ -0,0 +1,132 @@
+package com.example.sms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 발주 / 주문 상세의 상태별 건수 (입고대기 p2, 출고대기 o2 등 작업 대기열 깊이)
+ * - 시작 시 GROUP BY 1회로 적재, 이후 상태를 바꾸는 곳에서 증감을 넘기면 커밋 후에만 반영 (롤백 시 미반영)
+ * - DB를 직접 수정한 경우 등을 위해 주기적으로 다시 집계 (sms.status-counter.resync-cron)
+ * - 증감을 넘긴 트랜잭션은 커밋 직전 ~ 완료까지 읽기 잠금, 재집계는 쓰기 잠금으로 실행
+ *   → 재집계 중에는 그런 커밋이 끼어들지 않고, 재집계 전에 커밋된 증감은 모두 반영된 뒤라 집계 결과와 어긋나지 않음
+ */
+@Slf4j
+@Service
+public class StatusCounterService {
+
+    public enum DocType {
+        PURCHASE("SELECT STATUS, COUNT(*) FROM TB_PURCHASE_DET GROUP BY STATUS"),
+        ORDER("SELECT STATUS, COUNT(*) FROM TB_ORDER_DET GROUP BY STATUS");
+
+        private final String countSql;
+
+        DocType(String countSql) {
+            this.countSql = countSql;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<DocType, Map<String, AtomicLong>> counters = new EnumMap<>(DocType.class);
+    private final ReentrantReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+    public StatusCounterService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (DocType type : DocType.values()) counters.put(type, new ConcurrentHashMap<>());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        resync();
+    }
+
+    /** DB 기준으로 다시 집계 */
+    @Scheduled(cron = "${sms.status-counter.resync-cron:0 0 * * * *}")
+    public void resync() {
+        commitLock.writeLock().lock();
+        try {
+            for (DocType type : DocType.values()) {
+                Map<String, Long> fresh = new HashMap<>();
+                jdbcTemplate.query(type.countSql, rs -> {
+                    if (rs.getString(1) != null) fresh.put(rs.getString(1), rs.getLong(2));
+                });
+                Map<String, AtomicLong> map = counters.get(type);
+                map.keySet().retainAll(fresh.keySet());
+                fresh.forEach((status, cnt) -> map.computeIfAbsent(status, k -> new AtomicLong()).set(cnt));
+            }
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    public long count(DocType type, String status) {
+        AtomicLong c = counters.get(type).get(status);
+        return c == null ? 0 : c.get();
+    }
+
+    public Map<String, Long> counts(DocType type) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.get(type).forEach((status, c) -> result.put(status, c.get()));
+        return result;
+    }
+
+    /** 상태 변경 1건 (같은 상태면 무시) */
+    public void changedOnCommit(DocType type, String fromStatus, String toStatus, int count) {
+        if (count == 0 || Objects.equals(fromStatus, toStatus)) return;
+        Map<String, Integer> delta = new HashMap<>();
+        if (fromStatus != null) delta.put(fromStatus, -count);
+        if (toStatus != null) delta.put(toStatus, count);
+        adjustOnCommit(type, delta);
+    }
+
+    /** 상태별 증감 (트랜잭션 중이면 커밋 후 반영) */
+    public void adjustOnCommit(DocType type, Map<String, Integer> delta) {
+        delta.values().removeIf(v -> v == 0);
+        if (delta.isEmpty()) return;
+        Map<String, Integer> copy = Map.copyOf(delta);
+        Runnable apply = () -> copy.forEach((status, d) ->
+                counters.get(type).computeIfAbsent(status, k -> new AtomicLong()).addAndGet(d));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean locked;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitLock.readLock().lock();
+                    locked = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (locked) {
+                        locked = false;
+                        commitLock.readLock().unlock();
+                    }
+                }
+            });
+        } else {
+            commitLock.readLock().lock();
+            try {
+                apply.run();
+            } finally {
+                commitLock.readLock().unlock();
+            }
+        }
+    }
+}
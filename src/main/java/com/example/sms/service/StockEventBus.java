@@ -0,0 +1,183 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.ItemStockId;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 재고 변동 이벤트 (SSE)
+ * - 재고(TB_ITEMSTOCK) 증감 지점(ItemStockRepositoryImpl)에서 발행, 트랜잭션 중이면 커밋 이후에만 전달 → 롤백된 변동은 전달되지 않음
+ * - 재고를 움직이지 않는 수불부 행(정합성 보정 ADJUST, 수기 이력 등)은 발행 대상이 아님
+ * - 구독자별 품목/창고 필터, 전송 주기 동안의 변동은 (품목, 창고) 단위로 합산하여 한 번에 전송
+ */
+@Slf4j
+@Component
+public class StockEventBus {
+
+    private static final long HEARTBEAT_MS = 25_000;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final long timeoutMs;
+
+    public StockEventBus(@Value("${sms.stock-events.timeout-ms:1800000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /** 재고 증감 반영 후 호출 (트랜잭션 중이면 트랜잭션 단위로 모아 커밋 후 한 번에 발행) */
+    public void publish(String itemCd, String whCd, BigDecimal qtyDelta, BigDecimal allocDelta) {
+        if (subscribers.isEmpty() || itemCd == null || whCd == null) return;
+        StockChange change = new StockChange(itemCd, whCd, nz(qtyDelta), nz(allocDelta));
+        if (change.qtyDelta.signum() == 0 && change.allocDelta.signum() == 0) return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(List.of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<StockChange> changes = (List<StockChange>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            List<StockChange> bound = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(bound);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StockEventBus.this);
+                }
+            });
+            changes = bound;
+        }
+        changes.add(change);
+    }
+
+    private void dispatch(List<StockChange> changes) {
+        publishedCount.addAndGet(changes.size());
+        for (Subscriber s : subscribers) {
+            for (StockChange c : changes) {
+                if (s.accepts(c)) s.pending.merge(new ItemStockId(c.getItemCd(), c.getWhCd()), c, StockChange::plus);
+            }
+        }
+    }
+
+    /**
+     * 구독
+     * @param itemCds 받을 품목 (비어 있으면 전체)
+     * @param whCds   받을 창고 (비어 있으면 전체)
+     */
+    public SseEmitter subscribe(Collection<String> itemCds, Collection<String> whCds) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber s = new Subscriber(emitter, toSet(itemCds), toSet(whCds));
+        subscribers.add(s);
+        emitter.onCompletion(() -> subscribers.remove(s));
+        emitter.onTimeout(() -> subscribers.remove(s));
+        emitter.onError(e -> subscribers.remove(s));
+
+        try {
+            emitter.send(SseEmitter.event().name("connected").data("ok"));
+        } catch (IOException e) {
+            subscribers.remove(s);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /** 구독자별 누적 변동 전송 (없으면 주기적으로 heartbeat 주석만 전송) */
+    @Scheduled(fixedDelayString = "${sms.stock-events.flush-interval-ms:300}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (Subscriber s : subscribers) {
+            try {
+                if (!s.pending.isEmpty()) {
+                    List<StockChange> batch = new ArrayList<>();
+                    for (ItemStockId key : new ArrayList<>(s.pending.keySet())) {
+                        StockChange c = s.pending.remove(key);
+                        if (c != null) batch.add(c);
+                    }
+                    if (!batch.isEmpty()) {
+                        s.emitter.send(SseEmitter.event().name("stock").data(batch));
+                        s.lastSentAt = now;
+                    }
+                } else if (now - s.lastSentAt > HEARTBEAT_MS) {
+                    s.emitter.send(SseEmitter.event().comment("ping"));
+                    s.lastSentAt = now;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 클라이언트 연결 종료
+                subscribers.remove(s);
+                s.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(s -> s.emitter.complete());
+        subscribers.clear();
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "subscribers", subscribers.size(),
+                "publishedCount", publishedCount.get()
+        );
+    }
+
+    private static Set<String> toSet(Collection<String> codes) {
+        if (codes == null) return Set.of();
+        Set<String> set = new HashSet<>();
+        codes.stream().filter(c -> c != null && !c.isBlank()).forEach(c -> set.add(c.trim()));
+        return set;
+    }
+
+    private static BigDecimal nz(BigDecimal v) { return v == null ? BigDecimal.ZERO : v; }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> itemCds;
+        private final Set<String> whCds;
+        private final Map<ItemStockId, StockChange> pending = new ConcurrentHashMap<>();
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        Subscriber(SseEmitter emitter, Set<String> itemCds, Set<String> whCds) {
+            this.emitter = emitter;
+            this.itemCds = itemCds;
+            this.whCds = whCds;
+        }
+
+        boolean accepts(StockChange c) {
+            return (itemCds.isEmpty() || itemCds.contains(c.getItemCd()))
+                    && (whCds.isEmpty() || whCds.contains(c.getWhCd()));
+        }
+    }
+
+    @Getter @AllArgsConstructor
+    public static class StockChange {
+        private String itemCd; private String whCd;
+        private BigDecimal qtyDelta; private BigDecimal allocDelta;
+
+        // 같은 (품목, 창고)의 연속 변동 합산
+        StockChange plus(StockChange next) {
+            return new StockChange(itemCd, whCd, qtyDelta.add(next.qtyDelta), allocDelta.add(next.allocDelta));
+        }
+    }
+}
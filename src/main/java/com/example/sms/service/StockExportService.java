@@ -0,0 +1,142 @@
+package com.example.sms.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 수불부 CSV 내보내기
+ * - 한 번의 SELECT(품목명/거래처명 JOIN)를 전방향 커서로 읽으면서 바로 응답 스트림에 기록
+ * - 페이지/DTO 목록을 만들지 않으므로 건수와 관계없이 메모리 사용량 일정
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockExportService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String HEADER = "이력번호,일시,구분,품목코드,품목명,창고,수량,창고잔고,품목잔고,거래처코드,거래처명,참조번호,비고";
+
+    private static final String LEDGER_SQL = """
+        SELECT h.STK_HIS_CD, h.TRX_DT, h.IO_TYPE, h.ITEM_CD, i.ITEM_NM, h.WH_CD, h.QTY_DELTA,
+               h.BAL_QTY, h.ITEM_BAL_QTY, h.CUST_CD, c.CUST_NM, h.REF_NO, h.REMARK
+          FROM TB_ITEMSTOCK_HIS h
+          LEFT JOIN TB_ITEMMST i ON i.ITEM_CD = h.ITEM_CD
+          LEFT JOIN TB_CUSTMST c ON c.CUST_CD = h.CUST_CD
+         WHERE 1 = 1
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 수불부 CSV 기록 (거래일시 오름차순)
+     * - 조건은 목록 조회와 동일 (품목/창고 일치, 기간)
+     * - 값이 있는 조건만 WHERE에 붙여 인덱스 범위 조회가 되도록 함
+     */
+    public long writeLedgerCsv(String itemCd, String whCd, LocalDateTime fromDt, LocalDateTime toDt, OutputStream out) {
+        StringBuilder sql = new StringBuilder(LEDGER_SQL);
+        List<Object> args = new ArrayList<>();
+        if (itemCd != null && !itemCd.isBlank()) { sql.append(" AND h.ITEM_CD = ?"); args.add(itemCd); }
+        if (whCd != null && !whCd.isBlank()) { sql.append(" AND h.WH_CD = ?"); args.add(whCd); }
+        if (fromDt != null) { sql.append(" AND h.TRX_DT >= ?"); args.add(Timestamp.valueOf(fromDt)); }
+        if (toDt != null) { sql.append(" AND h.TRX_DT <= ?"); args.add(Timestamp.valueOf(toDt)); }
+        sql.append(" ORDER BY h.TRX_DT, h.STK_HIS_CD");
+
+        long started = System.currentTimeMillis();
+        long[] count = {0};
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            w.write('\uFEFF'); // 엑셀에서 한글이 깨지지 않도록 BOM
+            w.write(HEADER);
+            w.write("\r\n");
+
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+                return ps;
+            }, rs -> {
+                try {
+                    writeRow(w, rs);
+                } catch (IOException e) {
+                    // 클라이언트 연결 종료 등 → 커서를 닫고 중단
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+            w.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("수불부 내보내기 완료: {}건, {}ms", count[0], System.currentTimeMillis() - started);
+        return count[0];
+    }
+
+    private static void writeRow(Writer w, ResultSet rs) throws IOException, SQLException {
+        Timestamp trxDt = rs.getTimestamp(2);
+        w.write(csv(rs.getString(1)));
+        w.write(',');
+        w.write(trxDt != null ? trxDt.toLocalDateTime().format(DATE_TIME) : "");
+        w.write(',');
+        w.write(csv(rs.getString(3)));
+        w.write(',');
+        w.write(csv(rs.getString(4)));
+        w.write(',');
+        w.write(csv(rs.getString(5)));
+        w.write(',');
+        w.write(csv(rs.getString(6)));
+        w.write(',');
+        w.write(num(rs.getBigDecimal(7)));
+        w.write(',');
+        w.write(num(rs.getBigDecimal(8)));
+        w.write(',');
+        w.write(num(rs.getBigDecimal(9)));
+        w.write(',');
+        w.write(csv(rs.getString(10)));
+        w.write(',');
+        w.write(csv(rs.getString(11)));
+        w.write(',');
+        w.write(csv(rs.getString(12)));
+        w.write(',');
+        w.write(csv(rs.getString(13)));
+        w.write("\r\n");
+    }
+
+    private static String num(BigDecimal v) {
+        return v == null ? "" : v.stripTrailingZeros().toPlainString();
+    }
+
+    // 쉼표/따옴표/줄바꿈이 있으면 따옴표로 감싸고, 수식으로 해석될 수 있는 값은 앞에 ' 추가
+    private static String csv(String v) {
+        if (v == null || v.isEmpty()) return "";
+        String s = v;
+        char first = s.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') s = "'" + s;
+        if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+        return s;
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.ItemStockHis;
+import com.example.sms.repository.ItemStockHisRepository;
+import com.example.sms.repository.StockBatchRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * 재고 수불부(TB_ITEMSTOCK_HIS) 기록
+ * - 이력 저장 시 처리 후 잔고(품목+창고 BAL_QTY / 품목 전체 ITEM_BAL_QTY)를 함께 기록
+ *   → 수불부 조회 시 윈도우 함수 재계산 없이 인덱스 범위 조회만 수행
+ * - 앞선 일자로 입력된 이력은 일시를 그대로 두고 해당 품목 잔고를 재계산
+ * - 거래일자가 마지막 체크포인트 일자 이전인 이력은 (품목 내 순서와 관계없이) 그 일자 이후 체크포인트에 반영
+ * - 같은 품목의 기록은 품목 마스터 행 잠금으로 직렬화 (잠금 순서: 재고 행 → 품목 행, 품목코드 순)
+ * - 기존 데이터용 백필 / 검증 기능 포함
+ */
+@Slf4j
+@Service
+public class StockLedgerService {
+
+    private static final int MAX_MISMATCH_ITEMS = 100;
+
+    private static final String LOCK_ITEM = "SELECT ITEM_CD FROM TB_ITEMMST WHERE ITEM_CD = ? FOR UPDATE";
+
+    private static final String LAST_OF_ITEM = """
+        SELECT TRX_DT, ITEM_BAL_QTY, STK_HIS_CD FROM TB_ITEMSTOCK_HIS
+         WHERE ITEM_CD = ?
+         ORDER BY TRX_DT DESC, STK_HIS_CD DESC
+         FETCH FIRST 1 ROWS ONLY
+        """;
+
+    private static final String LAST_OF_WH = """
+        SELECT BAL_QTY FROM TB_ITEMSTOCK_HIS
+         WHERE ITEM_CD = ? AND WH_CD = ?
+         ORDER BY TRX_DT DESC, STK_HIS_CD DESC
+         FETCH FIRST 1 ROWS ONLY
+        """;
+
+    private static final String BAL_OF_ROW = "SELECT BAL_QTY, ITEM_BAL_QTY FROM TB_ITEMSTOCK_HIS WHERE STK_HIS_CD = ?";
+
+    // 백필 전 데이터(잔고 NULL)가 마지막 행인 경우의 보정용
+    private static final String SUM_OF_ITEM = "SELECT NVL(SUM(QTY_DELTA), 0) FROM TB_ITEMSTOCK_HIS WHERE ITEM_CD = ?";
+    private static final String SUM_OF_WH = "SELECT NVL(SUM(QTY_DELTA), 0) FROM TB_ITEMSTOCK_HIS WHERE ITEM_CD = ? AND WH_CD = ?";
+
+    // 품목 하나의 잔고 재계산 (값이 다른 행만 UPDATE)
+    private static final String RECALC_ITEM = """
+        MERGE INTO TB_ITEMSTOCK_HIS t
+        USING (
+            SELECT STK_HIS_CD,
+                   CASE WHEN WH_CD IS NOT NULL
+                        THEN SUM(NVL(QTY_DELTA, 0)) OVER (PARTITION BY WH_CD ORDER BY TRX_DT, STK_HIS_CD) END AS BAL_QTY,
+                   SUM(NVL(QTY_DELTA, 0)) OVER (ORDER BY TRX_DT, STK_HIS_CD)                    AS ITEM_BAL_QTY
+              FROM TB_ITEMSTOCK_HIS
+             WHERE ITEM_CD = ?
+        ) s
+        ON (t.STK_HIS_CD = s.STK_HIS_CD)
+        WHEN MATCHED THEN UPDATE
+             SET t.BAL_QTY = s.BAL_QTY, t.ITEM_BAL_QTY = s.ITEM_BAL_QTY
+           WHERE DECODE(t.BAL_QTY, s.BAL_QTY, 0, 1) = 1
+              OR DECODE(t.ITEM_BAL_QTY, s.ITEM_BAL_QTY, 0, 1) = 1
+        """;
+
+    private static final String ALL_ITEMS = "SELECT DISTINCT ITEM_CD FROM TB_ITEMSTOCK_HIS WHERE ITEM_CD IS NOT NULL ORDER BY ITEM_CD";
+    private static final String UNSTAMPED_ITEMS = """
+        SELECT DISTINCT ITEM_CD FROM TB_ITEMSTOCK_HIS
+         WHERE ITEM_CD IS NOT NULL AND (BAL_QTY IS NULL OR ITEM_BAL_QTY IS NULL)
+         ORDER BY ITEM_CD
+        """;
+
+    private static final String VERIFY_TEMPLATE = """
+        SELECT ITEM_CD, COUNT(*) AS BAD_CNT
+          FROM (
+            SELECT ITEM_CD, BAL_QTY, ITEM_BAL_QTY,
+                   CASE WHEN WH_CD IS NOT NULL
+                        THEN SUM(NVL(QTY_DELTA, 0)) OVER (PARTITION BY ITEM_CD, WH_CD ORDER BY TRX_DT, STK_HIS_CD) END AS CALC_BAL,
+                   SUM(NVL(QTY_DELTA, 0)) OVER (PARTITION BY ITEM_CD ORDER BY TRX_DT, STK_HIS_CD)        AS CALC_ITEM_BAL
+              FROM TB_ITEMSTOCK_HIS
+             %s
+          )
+         WHERE DECODE(BAL_QTY, CALC_BAL, 0, 1) = 1
+            OR DECODE(ITEM_BAL_QTY, CALC_ITEM_BAL, 0, 1) = 1
+         GROUP BY ITEM_CD
+         ORDER BY ITEM_CD
+        """;
+
+    private final ItemStockHisRepository itemStockHisRepository;
+    private final StockBatchRepository stockBatchRepository;
+    private final StockSnapshotService stockSnapshotService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate itemTx;
+
+    public StockLedgerService(ItemStockHisRepository itemStockHisRepository,
+                              StockBatchRepository stockBatchRepository,
+                              StockSnapshotService stockSnapshotService,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
+        this.itemStockHisRepository = itemStockHisRepository;
+        this.stockBatchRepository = stockBatchRepository;
+        this.stockSnapshotService = stockSnapshotService;
+        this.jdbcTemplate = jdbcTemplate;
+        // 백필은 품목 단위로 커밋 (잠금 시간 최소화)
+        this.itemTx = new TransactionTemplate(transactionManager);
+        this.itemTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** 이력 1건 저장 (잔고 기록 후 즉시 flush → 같은 트랜잭션의 다음 기록에서 조회됨) */
+    @Transactional
+    public ItemStockHis save(ItemStockHis his) {
+        Set<String> backdated = stamp(List.of(his));
+        ItemStockHis saved = itemStockHisRepository.saveAndFlush(his);
+        correctSnapshots(List.of(saved));
+        if (!backdated.isEmpty()) {
+            recalcBackdated(backdated);
+            // 재계산된 이 행의 잔고로 응답
+            jdbcTemplate.query(BAL_OF_ROW, rs -> {
+                saved.stampBalance(saved.getTrxDt(), rs.getBigDecimal(1), rs.getBigDecimal(2));
+            }, saved.getStkHisCd());
+        }
+        return saved;
+    }
+
+    /** 이력 일괄 저장 (JDBC batch) */
+    @Transactional
+    public void insertAll(List<ItemStockHis> histories) {
+        if (histories.isEmpty()) return;
+        Set<String> backdated = stamp(histories);
+        stockBatchRepository.insertHistories(histories);
+        recalcBackdated(backdated);
+        correctSnapshots(histories);
+    }
+
+    /** 이력 삭제 후 해당 품목 잔고 재계산 + 이후 일자 체크포인트 보정 */
+    @Transactional
+    public void delete(String stkHisCd) {
+        ItemStockHis his = itemStockHisRepository.findById(stkHisCd)
+                .orElseThrow(() -> new IllegalArgumentException("이력이 존재하지 않습니다: " + stkHisCd));
+        lockItem(his.getItemCd());
+        itemStockHisRepository.delete(his);
+        itemStockHisRepository.flush();
+        if (his.getItemCd() != null) jdbcTemplate.update(RECALC_ITEM, his.getItemCd());
+        if (his.getTrxDt() != null && his.getQtyDelta() != null) {
+            stockSnapshotService.applyCorrection(his.getItemCd(), his.getWhCd(), his.getTrxDt().toLocalDate(), his.getQtyDelta().negate());
+        }
+    }
+
+    /**
+     * 잔고 기록 (목록 순서 = 처리 순서)
+     * - 품목별로 마지막 잔고를 한 번 읽고 메모리에서 누적
+     * - 거래일시는 입력값 그대로 저장 (보정하지 않음)
+     * - 조회 순서(거래일시, 이력코드)상 마지막 이력보다 앞서는 행이 있는 품목은 저장 후 재계산 대상으로 반환
+     */
+    private Set<String> stamp(List<ItemStockHis> histories) {
+        Map<String, List<ItemStockHis>> byItem = new TreeMap<>();
+        for (ItemStockHis h : histories) {
+            if (h.getItemCd() == null) throw new IllegalArgumentException("품목코드는 필수입니다.");
+            byItem.computeIfAbsent(h.getItemCd(), k -> new ArrayList<>()).add(h);
+        }
+
+        Set<String> backdated = new TreeSet<>();
+        for (Map.Entry<String, List<ItemStockHis>> e : byItem.entrySet()) {
+            String itemCd = e.getKey();
+            lockItem(itemCd);
+
+            LocalDateTime lastDt = null;
+            String lastCd = null;
+            BigDecimal itemBal = BigDecimal.ZERO;
+            List<Object[]> last = jdbcTemplate.query(LAST_OF_ITEM,
+                    (rs, i) -> new Object[]{rs.getTimestamp(1), rs.getBigDecimal(2), rs.getString(3)}, itemCd);
+            if (!last.isEmpty()) {
+                Timestamp ts = (Timestamp) last.get(0)[0];
+                lastDt = ts != null ? ts.toLocalDateTime() : null;
+                lastCd = (String) last.get(0)[2];
+                itemBal = last.get(0)[1] != null
+                        ? (BigDecimal) last.get(0)[1]
+                        : jdbcTemplate.queryForObject(SUM_OF_ITEM, BigDecimal.class, itemCd);
+            }
+
+            Map<String, BigDecimal> whBal = new HashMap<>();
+            for (ItemStockHis h : e.getValue()) {
+                LocalDateTime trx = (h.getTrxDt() != null ? h.getTrxDt() : LocalDateTime.now()).truncatedTo(ChronoUnit.MICROS);
+                // 조회 순서(TRX_DT, STK_HIS_CD)상 마지막 행 뒤에 오는지
+                boolean inOrder = lastDt == null || trx.isAfter(lastDt)
+                        || (trx.isEqual(lastDt) && lastCd != null && h.getStkHisCd() != null && h.getStkHisCd().compareTo(lastCd) > 0);
+                if (!inOrder) backdated.add(itemCd);
+
+                BigDecimal delta = h.getQtyDelta() != null ? h.getQtyDelta() : BigDecimal.ZERO;
+                BigDecimal bal = null;
+                if (h.getWhCd() != null) {
+                    bal = whBal.computeIfAbsent(h.getWhCd(), wh -> lastWhBalance(itemCd, wh)).add(delta);
+                    whBal.put(h.getWhCd(), bal);
+                }
+                itemBal = itemBal.add(delta);
+
+                // 앞선 일자 행도 우선 현재 잔고 기준으로 기록 (화면 실시간 갱신용), 행별 잔고는 재계산에서 확정
+                h.stampBalance(trx, bal, itemBal);
+                if (inOrder) {
+                    lastDt = trx;
+                    lastCd = h.getStkHisCd();
+                }
+            }
+        }
+        return backdated;
+    }
+
+    /**
+     * 앞선 일자로 들어온 이력이 있는 품목: 잔고 전체 재계산
+     * - 이후 행들의 잔고가 모두 바뀌므로 품목 단위 RECALC_ITEM (값이 다른 행만 UPDATE)
+     */
+    private void recalcBackdated(Set<String> itemCds) {
+        for (String itemCd : itemCds) jdbcTemplate.update(RECALC_ITEM, itemCd);
+    }
+
+    /**
+     * 이미 만들어진 체크포인트 일자 이전 거래는 그 일자 이후 체크포인트에 증감 반영
+     * - 품목의 마지막 이력보다 뒤에 오는 행이라도 거래일자가 체크포인트 일자 이전이면 보정 대상
+     */
+    private void correctSnapshots(List<ItemStockHis> histories) {
+        LocalDate lastSnap = stockSnapshotService.lastSnapDate();
+        if (lastSnap == null) return;
+        for (ItemStockHis h : histories) {
+            if (!h.getTrxDt().toLocalDate().isAfter(lastSnap)) {
+                stockSnapshotService.applyCorrection(h.getItemCd(), h.getWhCd(), h.getTrxDt().toLocalDate(), h.getQtyDelta());
+            }
+        }
+    }
+
+    private BigDecimal lastWhBalance(String itemCd, String whCd) {
+        List<BigDecimal> last = jdbcTemplate.query(LAST_OF_WH, (rs, i) -> rs.getBigDecimal(1), itemCd, whCd);
+        if (last.isEmpty()) return BigDecimal.ZERO;
+        if (last.get(0) != null) return last.get(0);
+        BigDecimal sum = jdbcTemplate.queryForObject(SUM_OF_WH, BigDecimal.class, itemCd, whCd);
+        return sum != null ? sum : BigDecimal.ZERO;
+    }
+
+    // 품목 마스터가 없는 코드(삭제된 품목 등)는 잠글 행이 없으므로 그대로 진행
+    private void lockItem(String itemCd) {
+        if (itemCd != null) jdbcTemplate.queryForList(LOCK_ITEM, String.class, itemCd);
+    }
+
+    /**
+     * 기존 이력 잔고 백필
+     * @param all true: 전체 품목 재계산 / false: 잔고가 비어 있는 행이 있는 품목만
+     */
+    public BackfillResult backfill(boolean all) {
+        List<String> itemCds = jdbcTemplate.queryForList(all ? ALL_ITEMS : UNSTAMPED_ITEMS, String.class);
+        long started = System.currentTimeMillis();
+        int updated = 0;
+        for (String itemCd : itemCds) {
+            Integer n = itemTx.execute(status -> {
+                lockItem(itemCd);
+                return jdbcTemplate.update(RECALC_ITEM, itemCd);
+            });
+            updated += n != null ? n : 0;
+        }
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("수불부 잔고 백필 완료: 품목 {}건, 갱신 {}행, {}ms", itemCds.size(), updated, elapsed);
+        return new BackfillResult(itemCds.size(), updated, elapsed);
+    }
+
+    /** 기록된 잔고와 이력 누계를 비교 (itemCd 없으면 전체) */
+    @Transactional(readOnly = true)
+    public VerifyResult verify(String itemCd) {
+        boolean one = itemCd != null && !itemCd.isBlank();
+        String sql = VERIFY_TEMPLATE.formatted(one ? "WHERE ITEM_CD = ?" : "");
+        Object[] args = one ? new Object[]{itemCd} : new Object[0];
+        List<Mismatch> mismatches = jdbcTemplate.query(sql, (rs, i) -> new Mismatch(rs.getString(1), rs.getInt(2)), args);
+        int badRows = mismatches.stream().mapToInt(Mismatch::getRows).sum();
+        List<Mismatch> sample = mismatches.size() > MAX_MISMATCH_ITEMS ? mismatches.subList(0, MAX_MISMATCH_ITEMS) : mismatches;
+        return new VerifyResult(mismatches.isEmpty(), mismatches.size(), badRows, new ArrayList<>(sample));
+    }
+
+    @Getter @AllArgsConstructor
+    public static class BackfillResult {
+        private int itemCount; private int updatedRows; private long elapsedMs;
+    }
+    @Getter @AllArgsConstructor
+    public static class Mismatch {
+        private String itemCd; private int rows;
+    }
+    @Getter @AllArgsConstructor
+    public static class VerifyResult {
+        private boolean ok; private int itemCount; private int rowCount; private List<Mismatch> items;
+    }
+}
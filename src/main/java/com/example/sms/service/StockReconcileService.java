@@ -0,0 +1,193 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.ItemStock;
+import com.example.sms.entity.ItemStockHis;
+import com.example.sms.entity.ItemStockId;
+import com.example.sms.repository.ItemStockRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 재고(TB_ITEMSTOCK) ↔ 수불부(TB_ITEMSTOCK_HIS) 정합성 점검
+ * - 품목코드를 구간으로 나눠 병렬 처리, 구간마다 SQL 1회(재고 ↔ 이력 합계 FULL OUTER JOIN)로 차이만 조회
+ * - 조회는 잠금 없이 문장 단위 일관성(read consistency)으로 수행 → 운영 중 실행 가능
+ * - fix=true면 차이 건마다 짧은 트랜잭션으로 재고 행을 잠그고 다시 계산한 뒤 ADJUST 이력 기록 (재고 수량은 그대로, 이력을 재고에 맞춤)
+ */
+@Slf4j
+@Service
+public class StockReconcileService {
+
+    private static final int PARTITION_ITEMS = 200;
+    private static final int MAX_REPORT_ROWS = 1000;
+
+    private static final String ITEM_CODES = """
+        SELECT ITEM_CD FROM TB_ITEMSTOCK
+        UNION
+        SELECT ITEM_CD FROM TB_ITEMSTOCK_HIS WHERE ITEM_CD IS NOT NULL
+        ORDER BY 1
+        """;
+
+    private static final String DIFF_BY_RANGE = """
+        SELECT NVL(s.ITEM_CD, h.ITEM_CD), NVL(s.WH_CD, h.WH_CD),
+               NVL(s.STOCK_QTY, 0), NVL(s.ALLOC_QTY, 0), NVL(h.QTY, 0), NVL(h.ALLOC, 0)
+          FROM (SELECT ITEM_CD, WH_CD, STOCK_QTY, ALLOC_QTY
+                  FROM TB_ITEMSTOCK
+                 WHERE ITEM_CD BETWEEN ? AND ?) s
+          FULL OUTER JOIN
+               (SELECT ITEM_CD, WH_CD, SUM(NVL(QTY_DELTA, 0)) AS QTY, SUM(NVL(ALLOC_DELTA, 0)) AS ALLOC
+                  FROM TB_ITEMSTOCK_HIS
+                 WHERE ITEM_CD BETWEEN ? AND ? AND WH_CD IS NOT NULL
+                 GROUP BY ITEM_CD, WH_CD) h
+            ON s.ITEM_CD = h.ITEM_CD AND s.WH_CD = h.WH_CD
+         WHERE NVL(s.STOCK_QTY, 0) <> NVL(h.QTY, 0)
+            OR NVL(s.ALLOC_QTY, 0) <> NVL(h.ALLOC, 0)
+        """;
+
+    private static final String LEDGER_SUM = """
+        SELECT NVL(SUM(QTY_DELTA), 0), NVL(SUM(ALLOC_DELTA), 0)
+          FROM TB_ITEMSTOCK_HIS
+         WHERE ITEM_CD = ? AND WH_CD = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemStockRepository itemStockRepository;
+    private final StockLedgerService stockLedgerService;
+    private final IdGenService idGenService;
+    private final LogService logService;
+    private final TransactionTemplate pairTx;
+
+    // 구간 병렬 처리용 (DB 커넥션 풀을 고갈시키지 않도록 제한)
+    private final ForkJoinPool reconcilePool = new ForkJoinPool(Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicReference<ReconcileResult> lastResult = new AtomicReference<>();
+
+    public StockReconcileService(JdbcTemplate jdbcTemplate,
+                                 ItemStockRepository itemStockRepository,
+                                 StockLedgerService stockLedgerService,
+                                 IdGenService idGenService,
+                                 LogService logService,
+                                 PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemStockRepository = itemStockRepository;
+        this.stockLedgerService = stockLedgerService;
+        this.idGenService = idGenService;
+        this.logService = logService;
+        this.pairTx = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reconcilePool.shutdown();
+    }
+
+    public ReconcileResult lastResult() {
+        return lastResult.get();
+    }
+
+    public ReconcileResult run(boolean fix) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("정합성 점검이 이미 실행 중입니다.");
+        }
+        try {
+            long started = System.currentTimeMillis();
+
+            // 1. 품목코드 구간 분할
+            List<String> itemCds = jdbcTemplate.queryForList(ITEM_CODES, String.class);
+            List<String[]> ranges = new ArrayList<>();
+            for (int i = 0; i < itemCds.size(); i += PARTITION_ITEMS) {
+                int end = Math.min(i + PARTITION_ITEMS, itemCds.size()) - 1;
+                ranges.add(new String[]{itemCds.get(i), itemCds.get(end)});
+            }
+
+            // 2. 구간별 병렬 비교 (차이 행만 받음)
+            Queue<Discrepancy> found = new ConcurrentLinkedQueue<>();
+            reconcilePool.submit(() -> ranges.parallelStream().forEach(r ->
+                    jdbcTemplate.query(DIFF_BY_RANGE, rs -> {
+                        found.add(new Discrepancy(rs.getString(1), rs.getString(2),
+                                rs.getBigDecimal(3), rs.getBigDecimal(5), rs.getBigDecimal(4), rs.getBigDecimal(6)));
+                    }, r[0], r[1], r[0], r[1]))).join();
+
+            List<Discrepancy> diffs = new ArrayList<>(found);
+            diffs.sort(Comparator.comparing(Discrepancy::getItemCd).thenComparing(Discrepancy::getWhCd));
+
+            // 3. 보정 (건별 짧은 트랜잭션)
+            int fixed = 0;
+            if (fix) {
+                for (Discrepancy d : diffs) {
+                    Boolean ok = pairTx.execute(status -> fixPair(d.getItemCd(), d.getWhCd()));
+                    if (Boolean.TRUE.equals(ok)) fixed++;
+                }
+                if (fixed > 0) {
+                    logService.saveLog("재고 관리", "정합성보정", "ADJUST", "재고-수불부 정합성 보정",
+                            "차이 " + diffs.size() + "건 중 " + fixed + "건 보정");
+                }
+            }
+
+            long elapsed = System.currentTimeMillis() - started;
+            log.info("재고 정합성 점검: 품목 {}건, 구간 {}개, 차이 {}건, 보정 {}건, {}ms",
+                    itemCds.size(), ranges.size(), diffs.size(), fixed, elapsed);
+
+            ReconcileResult result = new ReconcileResult(LocalDateTime.now(), itemCds.size(), ranges.size(),
+                    diffs.size(), fixed, elapsed,
+                    diffs.size() > MAX_REPORT_ROWS ? new ArrayList<>(diffs.subList(0, MAX_REPORT_ROWS)) : diffs);
+            lastResult.set(result);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 한 (품목, 창고) 보정: 재고 행을 잠근 상태에서 이력 합계를 다시 구해 차이만큼 ADJUST 기록
+     * - 점검 이후 정상 입출고가 있었어도 재고/이력이 함께 바뀌므로 다시 계산한 차이만 반영됨
+     */
+    private boolean fixPair(String itemCd, String whCd) {
+        ItemStock stock = itemStockRepository.findForUpdate(new ItemStockId(itemCd, whCd)).orElse(null);
+        BigDecimal stockQty = stock != null && stock.getStockQty() != null ? stock.getStockQty() : BigDecimal.ZERO;
+        BigDecimal allocQty = stock != null && stock.getAllocQty() != null ? stock.getAllocQty() : BigDecimal.ZERO;
+
+        BigDecimal[] ledger = jdbcTemplate.queryForObject(LEDGER_SUM,
+                (rs, i) -> new BigDecimal[]{rs.getBigDecimal(1), rs.getBigDecimal(2)}, itemCd, whCd);
+        BigDecimal qtyDiff = stockQty.subtract(ledger[0]);
+        BigDecimal allocDiff = allocQty.subtract(ledger[1]);
+        if (qtyDiff.signum() == 0 && allocDiff.signum() == 0) return false;
+
+        stockLedgerService.save(ItemStockHis.builder()
+                .stkHisCd(idGenService.next("HIS"))
+                .itemCd(itemCd).whCd(whCd).trxDt(LocalDateTime.now())
+                .ioType("ADJUST").qtyDelta(qtyDiff).allocDelta(allocDiff)
+                .refTb("TB_ITEMSTOCK").remark("정합성 보정")
+                .build());
+        return true;
+    }
+
+    @Getter @AllArgsConstructor
+    public static class Discrepancy {
+        private String itemCd; private String whCd;
+        private BigDecimal stockQty; private BigDecimal ledgerQty;
+        private BigDecimal allocQty; private BigDecimal ledgerAllocQty;
+
+        public BigDecimal getDiffQty() { return stockQty.subtract(ledgerQty); }
+        public BigDecimal getDiffAllocQty() { return allocQty.subtract(ledgerAllocQty); }
+    }
+    @Getter @AllArgsConstructor
+    public static class ReconcileResult {
+        private LocalDateTime runAt; private int itemCount; private int partitionCount;
+        private int discrepancyCount; private int fixedCount; private long elapsedMs;
+        private List<Discrepancy> discrepancies; // 최대 MAX_REPORT_ROWS건
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.sms.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 일별 재고 체크포인트 (TB_ITEMSTOCK_SNAP)
+ * - 매일 전일자 마감 재고를 (전날 체크포인트 + 당일 이력 증감)으로 생성
+ * - 시점 재고 조회는 가장 가까운 이전 체크포인트 + 이후 이력만 합산 (전체 이력 합산 불필요)
+ */
+@Slf4j
+@Service
+public class StockSnapshotService {
+
+    private static final String LAST_SNAP_DT = "SELECT MAX(SNAP_DT) FROM TB_ITEMSTOCK_SNAP";
+    private static final String LAST_SNAP_DT_BEFORE = "SELECT MAX(SNAP_DT) FROM TB_ITEMSTOCK_SNAP WHERE SNAP_DT <= ?";
+    private static final String FIRST_TRX_DT = "SELECT MIN(TRX_DT) FROM TB_ITEMSTOCK_HIS";
+    private static final String DELETE_DAY = "DELETE FROM TB_ITEMSTOCK_SNAP WHERE SNAP_DT = ?";
+
+    // 전날 체크포인트 + 당일 증감
+    private static final String BUILD_FROM_PREV = """
+        INSERT INTO TB_ITEMSTOCK_SNAP (SNAP_DT, ITEM_CD, WH_CD, STOCK_QTY)
+        SELECT ?, ITEM_CD, WH_CD, SUM(QTY)
+          FROM (
+            SELECT ITEM_CD, WH_CD, STOCK_QTY AS QTY FROM TB_ITEMSTOCK_SNAP WHERE SNAP_DT = ?
+            UNION ALL
+            SELECT ITEM_CD, WH_CD, QTY_DELTA FROM TB_ITEMSTOCK_HIS
+             WHERE TRX_DT >= ? AND TRX_DT < ? AND ITEM_CD IS NOT NULL AND WH_CD IS NOT NULL
+          )
+         GROUP BY ITEM_CD, WH_CD
+        HAVING SUM(QTY) <> 0
+        """;
+
+    // 이전 체크포인트가 없을 때 (최초 1회): 해당 일자까지 전체 이력 합산
+    private static final String BUILD_FROM_HISTORY = """
+        INSERT INTO TB_ITEMSTOCK_SNAP (SNAP_DT, ITEM_CD, WH_CD, STOCK_QTY)
+        SELECT ?, ITEM_CD, WH_CD, SUM(QTY_DELTA)
+          FROM TB_ITEMSTOCK_HIS
+         WHERE TRX_DT < ? AND ITEM_CD IS NOT NULL AND WH_CD IS NOT NULL
+         GROUP BY ITEM_CD, WH_CD
+        HAVING SUM(QTY_DELTA) <> 0
+        """;
+
+    // 과거 이력이 삭제/정정된 경우: 해당 일자 이후 체크포인트에 차이만큼 반영
+    private static final String CORRECT = """
+        MERGE INTO TB_ITEMSTOCK_SNAP t
+        USING (SELECT DISTINCT SNAP_DT FROM TB_ITEMSTOCK_SNAP WHERE SNAP_DT >= ?) d
+        ON (t.SNAP_DT = d.SNAP_DT AND t.ITEM_CD = ? AND t.WH_CD = ?)
+        WHEN MATCHED THEN UPDATE SET t.STOCK_QTY = t.STOCK_QTY + ?
+        WHEN NOT MATCHED THEN INSERT (SNAP_DT, ITEM_CD, WH_CD, STOCK_QTY) VALUES (d.SNAP_DT, ?, ?, ?)
+        """;
+
+    private static final String AS_OF_SNAP = """
+        SELECT ITEM_CD, WH_CD, STOCK_QTY AS QTY FROM TB_ITEMSTOCK_SNAP WHERE SNAP_DT = ?
+        """;
+    private static final String AS_OF_HIS = """
+        SELECT ITEM_CD, WH_CD, QTY_DELTA AS QTY FROM TB_ITEMSTOCK_HIS
+         WHERE TRX_DT <= ? AND ITEM_CD IS NOT NULL AND WH_CD IS NOT NULL
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate dayTx;
+
+    public StockSnapshotService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // 일자 단위로 커밋 (중간에 실패해도 이전 일자까지는 유지)
+        this.dayTx = new TransactionTemplate(transactionManager);
+        this.dayTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** 매일 새벽 전일자까지 체크포인트 생성 (누락된 일자가 있으면 이어서 생성) */
+    @Scheduled(cron = "${sms.snapshot.cron:0 10 0 * * *}")
+    public void scheduledBuild() {
+        try {
+            buildUpTo(LocalDate.now().minusDays(1), null);
+        } catch (DataAccessException e) {
+            // 다른 서버가 동시에 생성한 경우(PK 중복) 등 → 다음 주기에 이어서 처리
+            log.warn("재고 체크포인트 생성 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 체크포인트 생성
+     * @param toDt   마지막 생성 일자 (오늘 이후는 불가, 당일은 마감 전이므로 제외)
+     * @param fromDt 재생성 시작 일자 (없으면 마지막 체크포인트 다음 날부터)
+     */
+    public BuildResult buildUpTo(LocalDate toDt, LocalDate fromDt) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate end = toDt == null || toDt.isAfter(yesterday) ? yesterday : toDt;
+
+        LocalDate start = fromDt;
+        if (start == null) {
+            Date last = jdbcTemplate.queryForObject(LAST_SNAP_DT, Date.class);
+            if (last != null) {
+                start = last.toLocalDate().plusDays(1);
+            } else {
+                // 최초 생성: 이력이 없으면 생성할 것 없음, 있으면 마지막 일자 하나만 전체 이력으로 생성
+                Timestamp first = jdbcTemplate.queryForObject(FIRST_TRX_DT, Timestamp.class);
+                if (first == null) return new BuildResult(0, 0);
+                start = end;
+            }
+        }
+
+        int days = 0;
+        long rows = 0;
+        long started = System.currentTimeMillis();
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            LocalDate day = d;
+            Integer n = dayTx.execute(status -> buildDay(day));
+            rows += n != null ? n : 0;
+            days++;
+        }
+        if (days > 0) {
+            log.info("재고 체크포인트 생성: {} ~ {} ({}일, {}행, {}ms)", start, end, days, rows, System.currentTimeMillis() - started);
+        }
+        return new BuildResult(days, rows);
+    }
+
+    private int buildDay(LocalDate day) {
+        jdbcTemplate.update(DELETE_DAY, Date.valueOf(day));
+        Date prev = jdbcTemplate.queryForObject(LAST_SNAP_DT_BEFORE, Date.class, Date.valueOf(day.minusDays(1)));
+        Timestamp dayEnd = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+
+        if (prev == null) {
+            return jdbcTemplate.update(BUILD_FROM_HISTORY, Date.valueOf(day), dayEnd);
+        }
+        // 체크포인트가 빠진 일자가 있어도 가장 가까운 이전 체크포인트 이후 증감을 모두 반영
+        Timestamp from = Timestamp.valueOf(prev.toLocalDate().plusDays(1).atStartOfDay());
+        return jdbcTemplate.update(BUILD_FROM_PREV, Date.valueOf(day), prev, from, dayEnd);
+    }
+
+    /** 마지막 체크포인트 일자 (없으면 null) */
+    public LocalDate lastSnapDate() {
+        Date last = jdbcTemplate.queryForObject(LAST_SNAP_DT, Date.class);
+        return last != null ? last.toLocalDate() : null;
+    }
+
+    /** 이력 삭제 등 과거 증감이 바뀐 경우 해당 일자 이후 체크포인트 보정 (호출 측 트랜잭션에 참여) */
+    public void applyCorrection(String itemCd, String whCd, LocalDate trxDate, BigDecimal delta) {
+        if (itemCd == null || whCd == null || delta == null || delta.signum() == 0) return;
+        jdbcTemplate.update(CORRECT, Date.valueOf(trxDate), itemCd, whCd, delta, itemCd, whCd, delta);
+    }
+
+    /**
+     * 시점 재고 (asOf 시각까지의 모든 증감 반영)
+     * - asOf 전날 이전의 가장 최근 체크포인트 + 그 다음 날 0시 ~ asOf 사이 이력
+     */
+    public AsOfResult stockAsOf(LocalDateTime asOf, String itemCd, String whCd) {
+        if (asOf == null) throw new IllegalArgumentException("조회 시점(asOf)은 필수입니다.");
+
+        Date cp = jdbcTemplate.queryForObject(LAST_SNAP_DT_BEFORE, Date.class, Date.valueOf(asOf.toLocalDate().minusDays(1)));
+
+        StringBuilder filter = new StringBuilder();
+        List<Object> filterArgs = new ArrayList<>();
+        if (itemCd != null && !itemCd.isBlank()) { filter.append(" AND ITEM_CD = ?"); filterArgs.add(itemCd); }
+        if (whCd != null && !whCd.isBlank()) { filter.append(" AND WH_CD = ?"); filterArgs.add(whCd); }
+
+        StringBuilder sql = new StringBuilder("SELECT ITEM_CD, WH_CD, SUM(QTY) FROM (");
+        List<Object> args = new ArrayList<>();
+        if (cp != null) {
+            sql.append(AS_OF_SNAP).append(filter).append(" UNION ALL ");
+            args.add(cp);
+            args.addAll(filterArgs);
+        }
+        sql.append(AS_OF_HIS).append(filter);
+        args.add(Timestamp.valueOf(asOf));
+        if (cp != null) {
+            sql.append(" AND TRX_DT >= ?");
+            args.addAll(filterArgs);
+            args.add(Timestamp.valueOf(cp.toLocalDate().plusDays(1).atStartOfDay()));
+        } else {
+            args.addAll(filterArgs);
+        }
+        sql.append(") GROUP BY ITEM_CD, WH_CD HAVING SUM(QTY) <> 0 ORDER BY ITEM_CD, WH_CD");
+
+        List<AsOfRow> rows = jdbcTemplate.query(sql.toString(),
+                (rs, i) -> new AsOfRow(rs.getString(1), rs.getString(2), rs.getBigDecimal(3)), args.toArray());
+        return new AsOfResult(asOf, cp != null ? cp.toLocalDate() : null, rows);
+    }
+
+    @Getter @AllArgsConstructor
+    public static class BuildResult {
+        private int days; private long rows;
+    }
+    @Getter @AllArgsConstructor
+    public static class AsOfRow {
+        private String itemCd; private String whCd; private BigDecimal stockQty;
+    }
+    @Getter @AllArgsConstructor
+    public static class AsOfResult {
+        private LocalDateTime asOf;
+        private LocalDate checkpointDt; // 사용한 체크포인트 일자 (없으면 전체 이력 합산)
+        private List<AsOfRow> rows;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.sms.repository;
+
+import com.example.sms.entity.ItemStock;
+import com.example.sms.entity.ItemStockId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 재고 증감(MERGE) 동시성: 한 (품목, 창고)에 여러 스레드가 동시에 증감해도 유실 / 음수가 없어야 함
+ */
+@SpringBootTest
+class ItemStockRepositoryConcurrencyTest {
+
+    private static final String ITEM_CD = "ZZ-CONC-TEST";
+    private static final String WH_CD = "ZZTEST";
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ItemStockRepository itemStockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        cleanUp();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        itemStockRepository.deleteById(new ItemStockId(ITEM_CD, WH_CD));
+    }
+
+    @Test
+    void concurrentIncreasesAreNotLost() throws Exception {
+        int perThread = 50;
+        // 행이 없는 상태에서 시작 → 첫 MERGE들이 동시에 INSERT를 시도하는 경우도 포함
+        runConcurrently(THREADS * perThread, () -> {
+            tx.executeWithoutResult(s -> itemStockRepository.applyDelta(ITEM_CD, WH_CD, BigDecimal.ONE, BigDecimal.ONE));
+            return true;
+        });
+
+        ItemStock stock = itemStockRepository.findById(new ItemStockId(ITEM_CD, WH_CD)).orElseThrow();
+        assertThat(stock.getStockQty()).isEqualByComparingTo(BigDecimal.valueOf((long) THREADS * perThread));
+        assertThat(stock.getAllocQty()).isEqualByComparingTo(BigDecimal.valueOf((long) THREADS * perThread));
+    }
+
+    @Test
+    void concurrentDecreasesNeverGoNegative() throws Exception {
+        int initial = 300;
+        tx.executeWithoutResult(s -> itemStockRepository.applyDelta(ITEM_CD, WH_CD, BigDecimal.valueOf(initial), BigDecimal.ZERO));
+
+        // 재고보다 많은 출고를 동시에 시도 → 정확히 재고 수량만큼만 성공
+        int succeeded = runConcurrently(initial * 2, () -> {
+            try {
+                tx.executeWithoutResult(s -> itemStockRepository.applyDelta(ITEM_CD, WH_CD, BigDecimal.ONE.negate(), BigDecimal.ZERO));
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        });
+
+        ItemStock stock = itemStockRepository.findById(new ItemStockId(ITEM_CD, WH_CD)).orElseThrow();
+        assertThat(succeeded).isEqualTo(initial);
+        assertThat(stock.getStockQty()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void mixedIncreasesAndDecreasesBalance() throws Exception {
+        tx.executeWithoutResult(s -> itemStockRepository.applyDelta(ITEM_CD, WH_CD, BigDecimal.valueOf(1000), BigDecimal.ZERO));
+
+        AtomicInteger turn = new AtomicInteger();
+        runConcurrently(THREADS * 50, () -> {
+            BigDecimal delta = turn.getAndIncrement() % 2 == 0 ? BigDecimal.valueOf(3) : BigDecimal.valueOf(-3);
+            tx.executeWithoutResult(s -> itemStockRepository.applyDelta(ITEM_CD, WH_CD, delta, BigDecimal.ZERO));
+            return true;
+        });
+
+        ItemStock stock = itemStockRepository.findById(new ItemStockId(ITEM_CD, WH_CD)).orElseThrow();
+        assertThat(stock.getStockQty()).isEqualByComparingTo(BigDecimal.valueOf(1000));
+    }
+
+    // tasks 건을 THREADS개 스레드로 동시에 실행, true를 반환한 건수
+    private int runConcurrently(int tasks, Callable<Boolean> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            int ok = 0;
+            for (Future<Boolean> f : futures) {
+                if (f.get(60, TimeUnit.SECONDS)) ok++;
+            }
+            return ok;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.ItemMst;
+import com.example.sms.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 품목 검색 인덱스 (DB 없이 메모리 내 동작만 확인)
+ */
+class ItemSearchIndexTest {
+
+    private ItemRepository itemRepository;
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAll()).thenReturn(List.of(
+                item("BT-001", "육각 볼트 M8", "T1"),
+                item("BT-002", "볼트", "T1"),
+                item("NT-001", "육각 너트 M8", "T2"),
+                item("SC-010", "나사 십자", "T2")));
+        index = new ItemSearchIndex(itemRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void searchesByTrigram() {
+        assertThat(codes(index.search("육각 볼", null, 10))).containsExactly("BT-001");
+        assertThat(codes(index.search("m8", null, 10))).containsExactlyInAnyOrder("BT-001", "NT-001");
+    }
+
+    @Test
+    void searchesShortQueriesThroughBigramAndUnigram() {
+        // 짧은 이름 먼저 (이름 시작 > 이름 포함)
+        assertThat(codes(index.search("볼트", null, 10))).containsExactly("BT-002", "BT-001");
+        assertThat(codes(index.search("나", null, 10))).containsExactly("SC-010");
+        assertThat(index.search("없", null, 10)).isEmpty();
+    }
+
+    @Test
+    void ranksCodeMatchesFirstAndAppliesTypeFilterAndLimit() {
+        assertThat(codes(index.search("bt-002", null, 10))).containsExactly("BT-002");
+        assertThat(codes(index.search("육각", List.of("T2"), 10))).containsExactly("NT-001");
+        assertThat(index.search("-0", null, 2)).hasSize(2);
+    }
+
+    @Test
+    void normalizesFullWidthAndWhitespace() {
+        assertThat(codes(index.search("ＢＴ－００１", null, 10))).containsExactly("BT-001");
+        assertThat(codes(index.search("육 각볼트", null, 10))).containsExactly("BT-001");
+    }
+
+    @Test
+    void returnsCopiesNotIndexedRows() {
+        ItemMst first = index.search("BT-002", null, 1).get(0);
+        first.setItemNm("변경");
+        assertThat(index.search("BT-002", null, 1).get(0).getItemNm()).isEqualTo("볼트");
+    }
+
+    @Test
+    void upsertAndRemoveUpdateOnlyThatItem() {
+        index.upsertOnCommit(item("BT-002", "스터드 볼트", "T1"));
+        assertThat(codes(index.search("스터드", null, 10))).containsExactly("BT-002");
+
+        index.removeOnCommit("BT-002");
+        assertThat(codes(index.search("볼트", null, 10))).containsExactly("BT-001");
+
+        index.removeTypesOnCommit(List.of("T2"));
+        assertThat(index.search("너트", null, 10)).isEmpty();
+    }
+
+    @Test
+    void replaysChangesCommittedWhileRebuilding() {
+        ItemRepository repo = mock(ItemRepository.class);
+        ItemSearchIndex starting = new ItemSearchIndex(repo);
+        // 전체 조회 도중(첫 구성 전) 커밋된 변경 → 조회 결과에는 없음
+        when(repo.findAll()).thenAnswer(inv -> {
+            starting.upsertOnCommit(item("NEW-01", "스터드 볼트", "T1"));
+            starting.removeOnCommit("BT-002");
+            starting.removeTypesOnCommit(List.of("T2"));
+            return List.of(item("BT-001", "육각 볼트 M8", "T1"), item("BT-002", "볼트", "T1"),
+                    item("NT-001", "육각 너트 M8", "T2"));
+        });
+
+        starting.rebuild();
+
+        assertThat(codes(starting.search("볼트", null, 10))).containsExactly("NEW-01", "BT-001");
+        assertThat(starting.search("너트", null, 10)).isEmpty();
+
+        // 교체 후에는 보관분이 남지 않음 (다음 재구성에 다시 반영되지 않음)
+        doReturn(List.of(item("BT-002", "볼트", "T1"))).when(repo).findAll();
+        starting.rebuild();
+        assertThat(codes(starting.search("볼트", null, 10))).containsExactly("BT-002");
+    }
+
+    @Test
+    void fallsBackToDatabaseBeforeBuilt() {
+        ItemSearchIndex notBuilt = new ItemSearchIndex(itemRepository);
+        when(itemRepository.searchByText("볼트")).thenReturn(List.of(item("BT-002", "볼트", "T1")));
+
+        assertThat(codes(notBuilt.search("볼트", null, 10))).containsExactly("BT-002");
+        verify(itemRepository).searchByText("볼트");
+        verify(itemRepository, never()).searchByTypesAndText(any(), any());
+    }
+
+    private static ItemMst item(String cd, String nm, String typeCd) {
+        return ItemMst.builder().itemCd(cd).itemNm(nm).itemFlag("01").typeCd(typeCd).build();
+    }
+
+    private static List<String> codes(List<ItemMst> items) {
+        return items.stream().map(ItemMst::getItemCd).toList();
+    }
+}
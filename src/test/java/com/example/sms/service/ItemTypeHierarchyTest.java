@@ -0,0 +1,103 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.ItemTypeMst;
+import com.example.sms.repository.ItemTypeRepository;
+import com.example.sms.service.ItemTypeHierarchy.Snapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 품목 분류 계층 스냅샷 (DB 없이 메모리 내 동작만 확인)
+ */
+class ItemTypeHierarchyTest {
+
+    private ItemTypeRepository itemTypeRepository;
+    private ItemTypeHierarchy hierarchy;
+
+    @BeforeEach
+    void setUp() {
+        // 원자재(A) ─ 철강(A1) ─ 강판(A11)
+        //           └ 비철(A2)
+        // 제품(B)
+        ItemTypeMst a = type("A", "원자재", null);
+        ItemTypeMst a1 = type("A1", "철강", a);
+        ItemTypeMst a11 = type("A11", "강판", a1);
+        ItemTypeMst a2 = type("A2", "비철", a);
+        ItemTypeMst b = type("B", "제품", null);
+        itemTypeRepository = mock(ItemTypeRepository.class);
+        // 조회 순서와 무관하게 자식은 코드 순
+        when(itemTypeRepository.findAll()).thenReturn(List.of(a11, b, a2, a1, a));
+        hierarchy = new ItemTypeHierarchy(itemTypeRepository);
+    }
+
+    @Test
+    void buildsFullPaths() {
+        assertThat(hierarchy.path("A")).isEqualTo("원자재");
+        assertThat(hierarchy.path("A11")).isEqualTo("원자재 > 철강 > 강판");
+        assertThat(hierarchy.path("A2")).isEqualTo("원자재 > 비철");
+        assertThat(hierarchy.path("X")).isEqualTo("-");
+        assertThat(hierarchy.path(null)).isEqualTo("-");
+    }
+
+    @Test
+    void listsSubtreeInCodeOrder() {
+        assertThat(hierarchy.subtreeCodes("A")).containsExactly("A", "A1", "A11", "A2");
+        assertThat(hierarchy.subtreeCodes("A1")).containsExactly("A1", "A11");
+        assertThat(hierarchy.subtreeCodes("B")).containsExactly("B");
+        assertThat(hierarchy.subtreeCodes("X")).containsExactly("X");
+    }
+
+    @Test
+    void answersAncestorAndNeighbourQueries() {
+        Snapshot s = hierarchy.snapshot();
+        assertThat(s.isInSubtree("A", "A11")).isTrue();
+        assertThat(s.isInSubtree("A1", "A1")).isTrue();
+        assertThat(s.isInSubtree("A1", "A2")).isFalse();
+        assertThat(s.isInSubtree("A11", "A")).isFalse();
+        assertThat(s.isInSubtree("X", "X")).isTrue();
+        assertThat(s.isInSubtree(null, "A")).isFalse();
+        assertThat(s.parentCd("A11")).isEqualTo("A1");
+        assertThat(s.parentCd("A")).isNull();
+        assertThat(s.childCds("A")).containsExactly("A1", "A2");
+        assertThat(s.contains("B")).isTrue();
+        assertThat(s.size()).isEqualTo(5);
+    }
+
+    @Test
+    void treatsUnreachableTypesAsStandaloneNodes() {
+        ItemTypeMst c = type("C", "순환1", null);
+        ItemTypeMst d = type("D", "순환2", c);
+        c.setParent(d);
+        when(itemTypeRepository.findAll()).thenReturn(List.of(c, d, type("E", "정상", null)));
+        hierarchy.rebuild();
+
+        assertThat(hierarchy.path("C")).isEqualTo("순환1");
+        assertThat(hierarchy.subtreeCodes("C")).containsExactly("C");
+        assertThat(hierarchy.subtreeCodes("E")).containsExactly("E");
+        assertThat(hierarchy.snapshot().isInSubtree("C", "D")).isFalse();
+    }
+
+    @Test
+    void buildsOnceAndSwapsSnapshotOnRebuild() {
+        Snapshot first = hierarchy.snapshot();
+        assertThat(hierarchy.snapshot()).isSameAs(first);
+        verify(itemTypeRepository, times(1)).findAll();
+
+        when(itemTypeRepository.findAll()).thenReturn(new ArrayList<>(List.of(type("B", "제품", null))));
+        hierarchy.rebuildOnCommit(); // 트랜잭션 밖 → 바로 재구성
+
+        assertThat(hierarchy.snapshot()).isNotSameAs(first);
+        assertThat(hierarchy.path("A")).isEqualTo("-");
+        assertThat(first.path("A")).isEqualTo("원자재"); // 이전 스냅샷은 그대로
+    }
+
+    private static ItemTypeMst type(String cd, String nm, ItemTypeMst parent) {
+        return ItemTypeMst.builder().typeCd(cd).typeNm(nm).parent(parent).build();
+    }
+}
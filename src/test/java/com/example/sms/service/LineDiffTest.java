@@ -0,0 +1,106 @@
+package com.example.sms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * 상세 라인 비교 (순번 부여, 추가/변경/삭제 구분, 상태별 건수 증감)
+ */
+class LineDiffTest {
+
+    private record Line(Integer seq, String itemCd, int qty, String status) {
+    }
+
+    @Test
+    void keysBySeqNoWhenAllLinesHaveDistinctSeqNos() {
+        Line a = new Line(3, "A", 1, "o1");
+        Line b = new Line(7, "B", 1, "o1");
+
+        assertThat(LineDiff.bySeqNo(List.of(a, b), Line::seq)).containsExactly(entry(3, a), entry(7, b));
+    }
+
+    @Test
+    void fallsBackToPositionWhenSeqNoIsMissingOrDuplicated() {
+        Line a = new Line(3, "A", 1, "o1");
+        Line b = new Line(null, "B", 1, "o1");
+        Line c = new Line(3, "C", 1, "o1");
+
+        assertThat(LineDiff.bySeqNo(List.of(a, b), Line::seq)).containsExactly(entry(1, a), entry(2, b));
+        assertThat(LineDiff.bySeqNo(List.of(a, c), Line::seq)).containsExactly(entry(1, a), entry(2, c));
+        assertThat(LineDiff.bySeqNo(List.of(new Line(0, "A", 1, "o1")), Line::seq)).containsOnlyKeys(1);
+    }
+
+    @Test
+    void splitsIntoInsertsUpdatesDeletesAndUnchanged() {
+        Map<Integer, Line> existing = keyed(
+                new Line(1, "A", 1, "o1"),
+                new Line(2, "B", 2, "o1"),
+                new Line(3, "C", 3, "o1"));
+        Map<Integer, Line> target = keyed(
+                new Line(1, "A", 1, "o1"),   // 유지
+                new Line(2, "B", 5, "o1"),   // 수량 변경
+                new Line(4, "D", 1, "o1"));  // 추가 (3번은 삭제)
+
+        LineDiff<Line> diff = LineDiff.compute(existing, target, Objects::equals);
+
+        assertThat(diff.getInserts()).extracting(Line::itemCd).containsExactly("D");
+        assertThat(diff.getUpdates()).extracting(Line::itemCd).containsExactly("B");
+        assertThat(diff.getDeletes()).containsExactly(3);
+        assertThat(diff.getUnchanged()).isEqualTo(1);
+        assertThat(diff.summary()).isEqualTo("추가 1, 변경 1, 삭제 1, 유지 1");
+    }
+
+    @Test
+    void replacesLineWhenSeqNoIsReusedForAnotherItem() {
+        Map<Integer, Line> existing = keyed(new Line(1, "A", 1, "o1"), new Line(2, "B", 1, "o3"));
+        Map<Integer, Line> target = keyed(new Line(1, "A", 2, "o1"), new Line(2, "C", 1, "o1"));
+
+        LineDiff<Line> diff = LineDiff.compute(existing, target,
+                (old, line) -> old.itemCd().equals(line.itemCd()), Objects::equals);
+
+        assertThat(diff.getUpdates()).extracting(Line::itemCd).containsExactly("A");
+        assertThat(diff.getDeletes()).containsExactly(2);
+        assertThat(diff.getInserts()).extracting(Line::itemCd).containsExactly("C");
+        // 삭제된 B(o3) -1, 새 C(o1) +1
+        assertThat(diff.statusDelta(Line::status)).containsOnly(entry("o3", -1), entry("o1", 1));
+    }
+
+    @Test
+    void computesStatusCountDelta() {
+        Map<Integer, Line> existing = keyed(
+                new Line(1, "A", 1, "o1"),
+                new Line(2, "B", 1, "o1"),
+                new Line(3, "C", 1, "o2"));
+        Map<Integer, Line> target = keyed(
+                new Line(1, "A", 1, "o1"),   // 상태 그대로 → 증감 없음
+                new Line(2, "B", 1, "o2"),   // o1 → o2
+                new Line(5, "E", 1, "o2"));  // 추가 o2 (3번 o2 삭제)
+
+        LineDiff<Line> diff = LineDiff.compute(existing, target, Objects::equals);
+
+        assertThat(diff.statusDelta(Line::status)).containsOnly(entry("o1", -1), entry("o2", 1));
+    }
+
+    @Test
+    void statusDeltaIgnoresNullStatus() {
+        Map<Integer, Line> existing = keyed(new Line(1, "A", 1, null));
+        Map<Integer, Line> target = keyed(new Line(1, "A", 1, "p1"), new Line(2, "B", 1, "p1"));
+
+        LineDiff<Line> diff = LineDiff.compute(existing, target, Objects::equals);
+
+        assertThat(diff.statusDelta(Line::status)).containsOnly(entry("p1", 2));
+    }
+
+    private static Map<Integer, Line> keyed(Line... lines) {
+        Map<Integer, Line> map = new HashMap<>();
+        for (Line l : lines) map.put(l.seq(), l);
+        return map;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.sms.service;
+
+import com.example.sms.service.StatusCounterService.DocType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 발주 / 주문 상세 상태 전환 규칙
+ */
+class LineStatusTest {
+
+    @Test
+    void listsAllowedSourcesForRequestableStatuses() {
+        assertThat(LineStatus.sourcesOf(DocType.PURCHASE, "p2")).containsExactly("p1");
+        assertThat(LineStatus.sourcesOf(DocType.PURCHASE, "p9")).containsExactly("p1", "p2");
+        assertThat(LineStatus.sourcesOf(DocType.ORDER, "o2")).containsExactly("o1");
+        assertThat(LineStatus.sourcesOf(DocType.ORDER, "o9")).containsExactly("o1", "o2");
+    }
+
+    @Test
+    void rejectsCompletionAndUnknownStatusesThroughStatusApi() {
+        // 입고완료 / 출고완료는 입고·출고 처리에서만
+        assertThatThrownBy(() -> LineStatus.sourcesOf(DocType.PURCHASE, "p3")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LineStatus.sourcesOf(DocType.ORDER, "o3")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LineStatus.sourcesOf(DocType.ORDER, "p2")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LineStatus.sourcesOf(DocType.PURCHASE, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void allowsOnlyRuleTransitionsOnSave() {
+        assertThat(LineStatus.canChange(DocType.ORDER, "o1", "o2")).isTrue();
+        assertThat(LineStatus.canChange(DocType.ORDER, "o3", "o3")).isTrue(); // 상태 유지
+        assertThat(LineStatus.canChange(DocType.ORDER, "o2", "o1")).isFalse();
+        assertThat(LineStatus.canChange(DocType.ORDER, "o2", "o3")).isFalse();
+        assertThat(LineStatus.canChange(DocType.ORDER, "o3", "o9")).isFalse();
+        assertThat(LineStatus.canChange(DocType.PURCHASE, "p2", "p9")).isTrue();
+        assertThat(LineStatus.canChange(DocType.PURCHASE, "p3", "p1")).isFalse();
+    }
+
+    @Test
+    void checksNewLinesFromInitialStatus() {
+        LineStatus.checkSave(DocType.ORDER, null, "o1", "O1-1");
+        LineStatus.checkSave(DocType.ORDER, null, "o2", "O1-2"); // 추가하면서 바로 확정
+        LineStatus.checkSave(DocType.PURCHASE, null, "p9", "P1-1");
+
+        assertThatThrownBy(() -> LineStatus.checkSave(DocType.ORDER, null, "o3", "O1-3"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("o1 → o3").hasMessageContaining("O1-3");
+        assertThatThrownBy(() -> LineStatus.checkSave(DocType.PURCHASE, "p3", "p2", "P1-2"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("p3 → p2");
+    }
+}
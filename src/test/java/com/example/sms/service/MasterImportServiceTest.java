@@ -0,0 +1,45 @@
+package com.example.sms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 마스터 가져오기 MERGE 문 생성 (DB 없이 문자열만 확인)
+ */
+class MasterImportServiceTest {
+
+    private static final List<String> COLUMNS = List.of("itemCd", "itemNm", "itemFlag", "minQty", "typeCd");
+
+    @Test
+    void updatesOnlyColumnsPresentInHeader() {
+        // 헤더: itemCd, itemFlag, minQty (itemNm, typeCd 없음)
+        String sql = MasterImportService.mergeSql("TB_ITEMMST", COLUMNS, 1, new int[]{0, -1, 1, 2, -1});
+
+        assertThat(sql).contains("USING (SELECT ? AS ITEM_CD, ? AS ITEM_NM, ? AS ITEM_FLAG, ? AS MIN_QTY, ? AS TYPE_CD FROM DUAL) s");
+        assertThat(sql).contains("ON (t.ITEM_CD = s.ITEM_CD)");
+        assertThat(sql).contains("UPDATE SET t.ITEM_FLAG = s.ITEM_FLAG, t.MIN_QTY = s.MIN_QTY\n");
+        assertThat(sql).doesNotContain("t.ITEM_NM =").doesNotContain("t.TYPE_CD =");
+        assertThat(sql).contains("INSERT (ITEM_CD, ITEM_NM, ITEM_FLAG, MIN_QTY, TYPE_CD)");
+    }
+
+    @Test
+    void omitsUpdateWhenOnlyKeysArePresent() {
+        String sql = MasterImportService.mergeSql("TB_BOM", List.of("pItemCd", "sItemCd", "seqNo", "useQty"), 3,
+                new int[]{0, 1, 2, -1});
+
+        assertThat(sql).contains("ON (t.P_ITEM_CD = s.P_ITEM_CD AND t.S_ITEM_CD = s.S_ITEM_CD AND t.SEQ_NO = s.SEQ_NO)");
+        assertThat(sql).doesNotContain("WHEN MATCHED");
+        assertThat(sql).contains("WHEN NOT MATCHED THEN INSERT (P_ITEM_CD, S_ITEM_CD, SEQ_NO, USE_QTY)");
+    }
+
+    @Test
+    void convertsPropertyNamesToColumnNames() {
+        assertThat(MasterImportService.dbColumn("itemCd")).isEqualTo("ITEM_CD");
+        assertThat(MasterImportService.dbColumn("pItemCd")).isEqualTo("P_ITEM_CD");
+        assertThat(MasterImportService.dbColumn("empEMail")).isEqualTo("EMP_E_MAIL");
+        assertThat(MasterImportService.dbColumn("remark")).isEqualTo("REMARK");
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.sms.service;
+
+import com.example.sms.repository.DetailLineBatchRepository;
+import com.example.sms.repository.PurchaseMstRepository;
+import com.example.sms.service.ReplenishmentService.Mode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 재주문점 증분 평가 대상 (수불부 변동 + 표시된 품목), DB 없이 실행 SQL / 바인딩 값만 확인
+ */
+class ReplenishmentServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ReplenishmentService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new ReplenishmentService(jdbcTemplate, mock(PurchaseMstRepository.class),
+                mock(DetailLineBatchRepository.class), mock(IdGenService.class), mock(StatusCounterService.class),
+                mock(LogService.class), mock(PlatformTransactionManager.class), true, 200, 300000);
+    }
+
+    @Test
+    void changedSqlAddsMarkedItemsToLedgerChanges() {
+        assertThat(ReplenishmentService.changedSql(0))
+                .contains("WITH CHG AS (SELECT ITEM_CD FROM TB_ITEMSTOCK_HIS WHERE TRX_DT > ? AND ITEM_CD IS NOT NULL)")
+                .doesNotContain("UNION");
+        assertThat(ReplenishmentService.changedSql(3))
+                .contains("UNION SELECT ITEM_CD FROM TB_ITEMMST WHERE ITEM_CD IN (?, ?, ?))");
+    }
+
+    @Test
+    void draftRunConsumesMarkedItems() throws SQLException {
+        service.run(Mode.FULL, true); // 증분 기준 시각
+
+        service.markChangedOnCommit(List.of("M-1", "M-2", "M-1"));
+        assertThat(service.run(Mode.CHANGED, true).getMode()).isEqualTo("CHANGED");
+        PreparedStatement ps = lastStatement(2, "IN (?, ?)");
+        verify(ps).setObject(anyInt(), eq("M-1"));
+        verify(ps).setObject(anyInt(), eq("M-2"));
+
+        // 이미 평가한 표시는 다음 실행에 남지 않음
+        service.run(Mode.CHANGED, true);
+        lastStatement(3, null);
+    }
+
+    @Test
+    void previewRunKeepsMarkedItems() throws SQLException {
+        service.run(Mode.FULL, true);
+        service.markChangedOnCommit(List.of("M-1"));
+
+        service.run(Mode.CHANGED, false);
+        service.run(Mode.CHANGED, true);
+        lastStatement(3, "IN (?)");
+    }
+
+    @Test
+    void markAllTurnsNextChangedRunIntoFull() {
+        service.run(Mode.FULL, true);
+        service.markAllChangedOnCommit();
+
+        assertThat(service.run(Mode.CHANGED, true).getMode()).isEqualTo("FULL");
+        assertThat(service.run(Mode.CHANGED, true).getMode()).isEqualTo("CHANGED");
+    }
+
+    @Test
+    void failedRunRestoresMarks() throws SQLException {
+        service.run(Mode.FULL, true);
+        service.markChangedOnCommit(List.of("M-1"));
+        doThrow(new IllegalStateException("DB 오류"))
+                .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        try {
+            service.run(Mode.CHANGED, true);
+        } catch (IllegalStateException expected) {
+            // 실패한 실행의 표시는 되돌림
+        }
+
+        doNothing().when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        service.run(Mode.CHANGED, true);
+        lastStatement(3, "IN (?)");
+    }
+
+    // calls번째 조회에서 만든 PreparedStatement (SQL에 marked가 있어야 함, null이면 표시 품목 없음)
+    private PreparedStatement lastStatement(int calls, String marked) throws SQLException {
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate, times(calls)).query(creator.capture(), any(RowCallbackHandler.class));
+
+        Connection con = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(con.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+        creator.getValue().createPreparedStatement(con);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(con).prepareStatement(sql.capture(), anyInt(), anyInt());
+        if (marked == null) {
+            assertThat(sql.getValue()).doesNotContain("UNION");
+        } else {
+            assertThat(sql.getValue()).contains(marked);
+        }
+        return ps;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.sms.service;
+
+import com.example.sms.service.StatusCounterService.DocType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 상태별 건수: 커밋 후 증감 반영, 재집계와 커밋이 겹쳐도 유실 / 중복 없음
+ */
+class StatusCounterServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final StatusCounterService service = new StatusCounterService(jdbcTemplate);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void appliesDeltaOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.changedOnCommit(DocType.ORDER, "o1", "o2", 3);
+        assertThat(service.count(DocType.ORDER, "o2")).isZero();
+
+        commit(TransactionSynchronizationManager.getSynchronizations().toArray(new TransactionSynchronization[0]));
+        assertThat(service.counts(DocType.ORDER)).isEqualTo(Map.of("o1", -3L, "o2", 3L));
+    }
+
+    @Test
+    void dropsDeltaOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.changedOnCommit(DocType.PURCHASE, "p2", "p3", 1);
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertThat(service.counts(DocType.PURCHASE)).isEmpty();
+    }
+
+    @Test
+    void resyncWaitsForCommitInProgress() throws Exception {
+        // DB 집계: 커밋 중인 트랜잭션(o1 → o2 1건)까지 반영된 결과
+        snapshot(Map.of("o1", 4L, "o2", 6L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.changedOnCommit(DocType.ORDER, "o1", "o2", 1);
+        TransactionSynchronization[] syncs = TransactionSynchronizationManager.getSynchronizations()
+                .toArray(new TransactionSynchronization[0]);
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization s : syncs) s.beforeCommit(false); // 커밋 시작
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> resync = pool.submit(service::resync);
+            Thread.sleep(200);
+            assertThat(resync.isDone()).isFalse(); // 커밋이 끝날 때까지 대기
+
+            for (TransactionSynchronization s : syncs) {
+                s.afterCommit();
+                s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            resync.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // 증감이 먼저 반영되고 재집계가 덮어씀 → 중복 반영 없음
+        assertThat(service.counts(DocType.ORDER)).isEqualTo(Map.of("o1", 4L, "o2", 6L));
+    }
+
+    private void commit(TransactionSynchronization[] syncs) {
+        for (TransactionSynchronization s : syncs) s.beforeCommit(false);
+        for (TransactionSynchronization s : syncs) s.afterCommit();
+        for (TransactionSynchronization s : syncs) s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private void snapshot(Map<String, Long> orderCounts) {
+        doAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            RowCallbackHandler handler = inv.getArgument(1);
+            if (sql.contains("TB_ORDER_DET")) {
+                for (Map.Entry<String, Long> e : orderCounts.entrySet()) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getString(1)).thenReturn(e.getKey());
+                    when(rs.getLong(2)).thenReturn(e.getValue());
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.sms.service;
+
+import com.example.sms.entity.ItemStockHis;
+import com.example.sms.repository.ItemStockHisRepository;
+import com.example.sms.repository.StockBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 수불부 기록 시 체크포인트 보정 대상 (DB 없이 보정 호출만 확인, 품목의 기존 이력은 없는 상태)
+ */
+class StockLedgerServiceTest {
+
+    private static final LocalDate LAST_SNAP = LocalDate.of(2026, 3, 10);
+
+    private final ItemStockHisRepository hisRepository = mock(ItemStockHisRepository.class);
+    private final StockBatchRepository batchRepository = mock(StockBatchRepository.class);
+    private final StockSnapshotService snapshotService = mock(StockSnapshotService.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private StockLedgerService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StockLedgerService(hisRepository, batchRepository, snapshotService, jdbcTemplate,
+                mock(PlatformTransactionManager.class));
+        when(hisRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(snapshotService.lastSnapDate()).thenReturn(LAST_SNAP);
+    }
+
+    @Test
+    void correctsCheckpointsForRowOnOrBeforeLastSnapshotEvenWhenInOrder() {
+        // 품목의 마지막 이력보다 뒤(inOrder)지만 거래일자가 마지막 체크포인트 일자
+        service.save(his("H1", LAST_SNAP.atTime(15, 0), "5"));
+
+        verify(snapshotService).applyCorrection("ITEM-1", "WH1", LAST_SNAP, new BigDecimal("5"));
+    }
+
+    @Test
+    void leavesCheckpointsAloneForRowsAfterLastSnapshot() {
+        service.insertAll(List.of(his("H1", LAST_SNAP.plusDays(1).atStartOfDay(), "5")));
+
+        verify(snapshotService, never()).applyCorrection(any(), any(), any(), any());
+    }
+
+    @Test
+    void correctsOnlyRowsOnOrBeforeLastSnapshotInBatch() {
+        service.insertAll(List.of(
+                his("H1", LAST_SNAP.minusDays(2).atTime(9, 0), "3"),
+                his("H2", LAST_SNAP.plusDays(1).atTime(9, 0), "4")));
+
+        verify(snapshotService).applyCorrection("ITEM-1", "WH1", LAST_SNAP.minusDays(2), new BigDecimal("3"));
+        verify(snapshotService, times(1)).applyCorrection(any(), any(), any(), any());
+    }
+
+    private static ItemStockHis his(String cd, LocalDateTime trxDt, String qty) {
+        return ItemStockHis.builder()
+                .stkHisCd(cd)
+                .itemCd("ITEM-1")
+                .whCd("WH1")
+                .trxDt(trxDt)
+                .qtyDelta(new BigDecimal(qty))
+                .build();
+    }
+}